@@ -0,0 +1,89 @@
+package net.aerh.discordbridge.benchmark;
+
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Message corpora shared by the benchmarks. Each corpus holds a few messages so a benchmark
+ * cycles through varied input instead of letting the JIT specialize on a single string.
+ */
+public enum Corpus {
+    SHORT_CHAT(
+            List.of(
+                    "gg",
+                    "anyone want to go mining?",
+                    "brb",
+                    "lol  that creeper",
+                    "where is spawn\tagain"
+            ),
+            List.of()
+    ),
+    LONG_CHAT(
+            List.of(
+                    "okay so the plan for tonight is: we meet at the north gate around eight, everyone brings at least "
+                            + "two stacks of food and a spare weapon, then we head through the swamp to the old temple. "
+                            + "Do NOT aggro the guardians on the bridge   this time, we lost half the group last week.",
+                    "I rebuilt the farm with the new layout,\nthe water channels now run under the crops so nothing "
+                            + "gets trampled and the collection chest at the end fills up in about ten minutes.  "
+                            + "If anyone wants a copy of the schematic just ask in here or send me a message.",
+                    "Patch notes are out: damage falloff on bows changed, torches now last longer in the rain, and the "
+                            + "trader restock timer went from twenty to fifteen minutes. Still no fix for the boat bug."
+            ),
+            List.of()
+    ),
+    MENTION_HEAVY(
+            List.of(
+                    "@everyone raid starts in 5 minutes at <#123456789012345678>",
+                    "<@234567890123456789> <@&345678901234567890> can you check the farm? @here",
+                    "@here @here @here server restart soon, ping <@!456789012345678901> if stuck",
+                    "thanks <@567890123456789012> and <@678901234567890123> for the help <@&789012345678901234>"
+            ),
+            List.of()
+    ),
+    ATTACHMENT_HEAVY(
+            List.of(
+                    "look at this build",
+                    "",
+                    "screenshots from   last night"
+            ),
+            List.of(
+                    "https://cdn.discordapp.com/attachments/123456789012345678/234567890123456789/base_front.png",
+                    "https://cdn.discordapp.com/attachments/123456789012345678/234567890123456790/base_back.png",
+                    "https://cdn.discordapp.com/attachments/123456789012345678/234567890123456791/base_roof.png"
+            )
+    );
+
+    private final List<String> messages;
+    private final List<String> attachments;
+
+    Corpus(@NotNull List<String> messages, @NotNull List<String> attachments) {
+        this.messages = messages;
+        this.attachments = attachments;
+    }
+
+    @NotNull
+    public String[] messages() {
+        return messages.toArray(String[]::new);
+    }
+
+    /**
+     * @return the corpus as Discord messages, each with the corpus attachments
+     */
+    @NotNull
+    public DiscordMessage[] discordMessages() {
+        return messages.stream()
+                .map(content -> new DiscordMessage(
+                        184_312_907_551_326_208L,
+                        "Aerh",
+                        content,
+                        attachments,
+                        "Moderator",
+                        new Color(0xE67E22),
+                        new Color(0x3498DB)
+                ))
+                .toArray(DiscordMessage[]::new);
+    }
+}
@@ -0,0 +1,88 @@
+package net.aerh.discordbridge.benchmark;
+
+import net.aerh.discordbridge.config.MessageTemplate;
+import net.aerh.discordbridge.config.Placeholder;
+import net.aerh.discordbridge.config.TemplateValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event and outbound chat templating, using the default templates. {@code killChainedReplace} is the
+ * chained {@link String#replace} approach templates used before they were precompiled, kept as a reference point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventTemplateBenchmark {
+
+    private static final String JOIN = ":inbox_tray: %player% joined the server.";
+    private static final String KILL_WITH_ITEM = ":crossed_swords: %killer% killed %victim% using %item%.";
+    private static final String OUTBOUND_CHAT = "**%player%**: %message%";
+
+    private final MessageTemplate join = MessageTemplate.compile(JOIN);
+    private final MessageTemplate killWithItem = MessageTemplate.compile(KILL_WITH_ITEM);
+    private final MessageTemplate outboundChat = MessageTemplate.compile(OUTBOUND_CHAT);
+    private final String[] chat = Corpus.SHORT_CHAT.messages();
+    private int index;
+
+    @Benchmark
+    public String join() {
+        return join.render(TemplateValues.scratch().set(Placeholder.PLAYER, "Steve"));
+    }
+
+    @Benchmark
+    public String kill() {
+        return killWithItem.render(TemplateValues.scratch()
+                .set(Placeholder.KILLER, "Steve")
+                .set(Placeholder.VICTIM, "Alex")
+                .set(Placeholder.PLAYER, "Alex")
+                .set(Placeholder.CAUSE, "Steve")
+                .set(Placeholder.PROJECTILE, "")
+                .set(Placeholder.ITEM, "Iron Sword"));
+    }
+
+    @Benchmark
+    public String killChainedReplace() {
+        return replaceAll(KILL_WITH_ITEM,
+                "%killer%", "Steve",
+                "%victim%", "Alex",
+                "%player%", "Alex",
+                "%cause%", "Steve",
+                "%projectile%", "",
+                "%item%", "Iron Sword");
+    }
+
+    @Benchmark
+    public String outboundChat() {
+        String content = chat[index];
+        index = index + 1 == chat.length ? 0 : index + 1;
+        return outboundChat.render(TemplateValues.scratch()
+                .set(Placeholder.PLAYER, "Steve")
+                .set(Placeholder.MESSAGE, content));
+    }
+
+    @Benchmark
+    public MessageTemplate compileKill() {
+        return MessageTemplate.compile(KILL_WITH_ITEM);
+    }
+
+    private static String replaceAll(String message, String... replacements) {
+        for (int i = 0; i < replacements.length - 1; i += 2) {
+            message = message.replace(replacements[i], replacements[i + 1]);
+        }
+
+        return message;
+    }
+}
@@ -0,0 +1,73 @@
+package net.aerh.discordbridge.benchmark;
+
+import com.hypixel.hytale.server.core.Message;
+import net.aerh.discordbridge.config.MessagesConfig;
+import net.aerh.discordbridge.discord.InboundMessageRenderer;
+import net.aerh.discordbridge.discord.MessageSanitizer;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a relayed Discord message into the in-game {@link Message}, with the default inbound template.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboundRenderBenchmark {
+
+    @Param({"SHORT_CHAT", "LONG_CHAT", "MENTION_HEAVY", "ATTACHMENT_HEAVY"})
+    public Corpus corpus;
+
+    private final MessagesConfig messagesConfig = new MessagesConfig();
+    private InboundMessageRenderer renderer;
+    private DiscordMessage[] messages;
+    private String[] contents;
+    private int index;
+
+    @Setup
+    public void setup() {
+        renderer = InboundMessageRenderer.refresh(null, messagesConfig);
+        messages = corpus.discordMessages();
+        contents = new String[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            contents[i] = MessageSanitizer.sanitizeIncoming(messages[i]);
+        }
+    }
+
+    @Benchmark
+    public Message render() {
+        int current = next();
+        return renderer.render(messages[current], contents[current]);
+    }
+
+    /**
+     * Includes the per-message check that the cached renderer still matches the settings, as the plugin does.
+     */
+    @Benchmark
+    public Message refreshAndRender() {
+        int current = next();
+        renderer = InboundMessageRenderer.refresh(renderer, messagesConfig);
+        return renderer.render(messages[current], contents[current]);
+    }
+
+    private int next() {
+        int current = index;
+        index = current + 1 == messages.length ? 0 : current + 1;
+        return current;
+    }
+}
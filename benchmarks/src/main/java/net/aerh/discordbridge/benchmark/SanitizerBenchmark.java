@@ -0,0 +1,63 @@
+package net.aerh.discordbridge.benchmark;
+
+import net.aerh.discordbridge.discord.MessageSanitizer;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MessageSanitizer} in both directions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizerBenchmark {
+
+    @Param({"SHORT_CHAT", "LONG_CHAT", "MENTION_HEAVY", "ATTACHMENT_HEAVY"})
+    public Corpus corpus;
+
+    private String[] messages;
+    private DiscordMessage[] discordMessages;
+    private int index;
+
+    @Setup
+    public void setup() {
+        messages = corpus.messages();
+        discordMessages = corpus.discordMessages();
+    }
+
+    @Benchmark
+    public String sanitizeOutgoing() {
+        return MessageSanitizer.sanitizeOutgoing(messages[next(messages.length)], false);
+    }
+
+    @Benchmark
+    public String sanitizeOutgoingMentionsAllowed() {
+        return MessageSanitizer.sanitizeOutgoing(messages[next(messages.length)], true);
+    }
+
+    @Benchmark
+    public String sanitizeIncoming() {
+        return MessageSanitizer.sanitizeIncoming(discordMessages[next(discordMessages.length)]);
+    }
+
+    private int next(int length) {
+        int current = index;
+        index = current + 1 == length ? 0 : current + 1;
+        return current;
+    }
+}
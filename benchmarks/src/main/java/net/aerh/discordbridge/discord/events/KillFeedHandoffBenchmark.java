@@ -0,0 +1,125 @@
+package net.aerh.discordbridge.discord.events;
+
+import com.hypixel.hytale.server.core.Message;
+import net.aerh.discordbridge.config.EventsConfig;
+import net.aerh.discordbridge.config.MassDeathConfig;
+import net.aerh.discordbridge.discord.TranslationCache;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the world thread pays per death: formatting it inline, or taking the snapshot and handing it to the kill
+ * feed worker as {@link KillFeedFormatter#submitDeath} does. Both start from the same display names, including
+ * rendering them. Before each death the previous one is formatted off the clock, as deaths are far apart compared
+ * to formatting, so the hand-off is measured against an empty queue rather than a full one. Mass death
+ * grouping is off so every death is formatted and sent, and every name carries raw text, so no translation lookups
+ * are involved. Lives in the formatter's package because the snapshot and hand-off methods are package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KillFeedHandoffBenchmark {
+
+    /**
+     * PLAYER_KILL is a player killing a player with an item, MOB_KILL a player killed by a mob, and PROJECTILE a
+     * player shot by a mob.
+     */
+    @Param({"PLAYER_KILL", "MOB_KILL", "PROJECTILE"})
+    public String shape;
+
+    private KillFeedFormatter formatter;
+    private volatile String lastMessage;
+
+    private Message sourceDisplayName;
+    private Message projectileDisplayName;
+    private String killerUsername;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        EventsConfig events = new EventsConfig();
+        MassDeathConfig massDeath = events.getMassDeath();
+        Field enabled = MassDeathConfig.class.getDeclaredField("enabled");
+        enabled.setAccessible(true);
+        enabled.setBoolean(massDeath, false);
+
+        formatter = new KillFeedFormatter(
+                () -> events,
+                (isEnabled, template, values) -> lastMessage = template.render(values),
+                () -> "en-US",
+                () -> false,
+                new TranslationCache()
+        );
+
+        switch (shape) {
+            case "PLAYER_KILL" -> {
+                killerUsername = "Alex";
+                sourceDisplayName = Message.raw("Alex");
+            }
+            case "MOB_KILL" -> sourceDisplayName = Message.raw("Skeleton");
+            case "PROJECTILE" -> {
+                sourceDisplayName = Message.raw("Skeleton Archer");
+                projectileDisplayName = Message.raw("Arrow");
+            }
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        formatter.close();
+    }
+
+    // Applies to both benchmarks so their per-invocation overhead is the same
+    @Setup(Level.Invocation)
+    public void formatQueued() {
+        formatter.drainDeaths();
+    }
+
+    @Benchmark
+    public DeathSnapshot inline() {
+        DeathSnapshot death = snapshot();
+        formatter.formatDeath(death);
+        return death;
+    }
+
+    @Benchmark
+    public DeathSnapshot handoff() {
+        DeathSnapshot death = snapshot();
+        formatter.submit(death);
+        return death;
+    }
+
+    @NotNull
+    private DeathSnapshot snapshot() {
+        return formatter.snapshot(
+                "Steve",
+                null,
+                killerUsername,
+                sourceDisplayName,
+                null,
+                killerUsername != null ? "Sword_Iron" : null,
+                projectileDisplayName,
+                projectileDisplayName != null,
+                null,
+                "Physical"
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package net.aerh.discordbridge.discord.events;
+
+import com.hypixel.hytale.protocol.FormattedMessage;
+import com.hypixel.hytale.server.core.Message;
+import net.aerh.discordbridge.discord.TranslationCache;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KillFeedFormatter#renderMessage} over display-name trees of increasing depth. Every node
+ * carries raw text, so no translation lookups are involved and the benchmark measures tree traversal
+ * and formatting alone. Lives in the formatter's package because the method is package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderMessageBenchmark {
+
+    private static final String LOCALE = "en-US";
+
+    /**
+     * FLAT is a single name, NESTED a name with two levels of child segments, and PARAMETERIZED a
+     * name whose text references nested message parameters.
+     */
+    @Param({"FLAT", "NESTED", "PARAMETERIZED"})
+    public String shape;
+
+    private final TranslationCache translations = new TranslationCache();
+    private Message message;
+
+    @Setup
+    public void setup() {
+        message = switch (shape) {
+            case "FLAT" -> Message.raw("Void Dragon");
+            case "NESTED" -> nested();
+            case "PARAMETERIZED" -> parameterized();
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        };
+    }
+
+    @Benchmark
+    public String render() {
+        return KillFeedFormatter.renderMessage(message, LOCALE, translations);
+    }
+
+    @NotNull
+    private static Message nested() {
+        Message root = Message.raw("Elder ");
+        for (String part : new String[]{"Void ", "Dragon ", "of the Abyss"}) {
+            Message child = Message.raw(part);
+            child.insert(Message.raw("["));
+            child.insert(Message.raw("Lv. 60").insert(Message.raw("]")));
+            root.insert(child);
+        }
+
+        return root;
+    }
+
+    @NotNull
+    private static Message parameterized() {
+        Map<String, FormattedMessage> params = new LinkedHashMap<>();
+        params.put("title", nested().getFormattedMessage());
+        params.put("region", Message.raw("Howling Sands").getFormattedMessage());
+
+        Message root = Message.raw("{title} of {region}");
+        root.getFormattedMessage().messageParams = params;
+        root.insert(Message.raw(" (Boss)"));
+        return root;
+    }
+}
@@ -0,0 +1,308 @@
+package net.aerh.discordbridge.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local stand-in for Discord's REST API, covering the two requests the bridge makes: posting to a channel
+ * and executing a webhook. Each channel and webhook gets its own fixed-window rate limit bucket, channel posts
+ * also count against a global per-second limit, and requests over a limit get a 429 with the same headers and
+ * body Discord sends. Accepted lines are counted by their {@link #LINE_MARKER}.
+ */
+public final class FakeDiscordServer implements AutoCloseable {
+
+    /**
+     * Every generated line ends with this marker and its sequence number, so the server can count lines inside
+     * packed and merged messages.
+     */
+    public static final String LINE_MARKER = "[lt#";
+
+    private static final Pattern CHANNEL_MESSAGES = Pattern.compile("^/api/v\\d+/channels/(\\d+)/messages$");
+    private static final Pattern WEBHOOK_EXECUTE = Pattern.compile("^/api/v\\d+/webhooks/(\\d+)/([^/]+)$");
+    private static final String WAIT_TRUE = "wait=true";
+
+    private final Limits limits;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket globalBucket;
+    private final AtomicLong nextMessageId = new AtomicLong(1_000_000_000_000_000_000L);
+    private final LongAdder channelMessages = new LongAdder();
+    private final LongAdder webhookMessages = new LongAdder();
+    private final LongAdder linesDelivered = new LongAdder();
+    private final LongAdder channelRateLimited = new LongAdder();
+    private final LongAdder webhookRateLimited = new LongAdder();
+    private final LongAdder globalRateLimited = new LongAdder();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+
+    /**
+     * Binds to an ephemeral loopback port; call {@link #start()} to begin serving.
+     */
+    public FakeDiscordServer(@NotNull Limits limits) throws IOException {
+        this.limits = limits;
+        this.globalBucket = new Bucket("global", limits.globalPerSecond(), TimeUnit.SECONDS.toNanos(1));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/api/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the server's base URL, e.g. {@code http://127.0.0.1:41234}
+     */
+    @NotNull
+    public String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    public long getChannelMessages() {
+        return channelMessages.sum();
+    }
+
+    public long getWebhookMessages() {
+        return webhookMessages.sum();
+    }
+
+    /**
+     * @return generated lines found in accepted messages
+     */
+    public long getLinesDelivered() {
+        return linesDelivered.sum();
+    }
+
+    /**
+     * @return 429 responses sent, per-route and global together
+     */
+    public long getRateLimited() {
+        return channelRateLimited.sum() + webhookRateLimited.sum() + globalRateLimited.sum();
+    }
+
+    public long getGlobalRateLimited() {
+        return globalRateLimited.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = readBody(exchange.getRequestBody());
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"message\": \"405: Method Not Allowed\", \"code\": 0}");
+                return;
+            }
+
+            sleepLatency();
+            String path = exchange.getRequestURI().getPath();
+            Matcher channel = CHANNEL_MESSAGES.matcher(path);
+            if (channel.matches()) {
+                handleChannelMessage(exchange, channel.group(1), body);
+                return;
+            }
+
+            Matcher webhook = WEBHOOK_EXECUTE.matcher(path);
+            if (webhook.matches()) {
+                handleWebhook(exchange, webhook.group(1), body);
+                return;
+            }
+
+            respond(exchange, 404, "{\"message\": \"404: Not Found\", \"code\": 0}");
+        }
+    }
+
+    private void handleChannelMessage(@NotNull HttpExchange exchange, @NotNull String channelId, @NotNull String body) throws IOException {
+        long now = System.nanoTime();
+        if (globalBucket.tryAcquire(now) < 0) {
+            globalRateLimited.increment();
+            rateLimited(exchange, globalBucket, now, true);
+            return;
+        }
+
+        Bucket bucket = buckets.computeIfAbsent("channel:" + channelId, key ->
+                new Bucket(key, limits.channelLimit(), TimeUnit.MILLISECONDS.toNanos(limits.channelWindowMillis())));
+        int remaining = bucket.tryAcquire(now);
+        if (remaining < 0) {
+            channelRateLimited.increment();
+            rateLimited(exchange, bucket, now, false);
+            return;
+        }
+
+        channelMessages.increment();
+        linesDelivered.add(countLines(body));
+        addBucketHeaders(exchange, bucket, remaining, now);
+        respond(exchange, 200, messageJson(channelId));
+    }
+
+    private void handleWebhook(@NotNull HttpExchange exchange, @NotNull String webhookId, @NotNull String body) throws IOException {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent("webhook:" + webhookId, key ->
+                new Bucket(key, limits.webhookLimit(), TimeUnit.MILLISECONDS.toNanos(limits.webhookWindowMillis())));
+        int remaining = bucket.tryAcquire(now);
+        if (remaining < 0) {
+            webhookRateLimited.increment();
+            rateLimited(exchange, bucket, now, false);
+            return;
+        }
+
+        webhookMessages.increment();
+        linesDelivered.add(countLines(body));
+        addBucketHeaders(exchange, bucket, remaining, now);
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.contains(WAIT_TRUE)) {
+            respond(exchange, 200, messageJson(webhookId));
+        } else {
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private void rateLimited(@NotNull HttpExchange exchange, @NotNull Bucket bucket, long now, boolean global) throws IOException {
+        double retryAfter = bucket.secondsUntilReset(now);
+        if (global) {
+            exchange.getResponseHeaders().set("X-RateLimit-Global", "true");
+        } else {
+            addBucketHeaders(exchange, bucket, 0, now);
+        }
+        exchange.getResponseHeaders().set("X-RateLimit-Scope", global ? "global" : "user");
+        exchange.getResponseHeaders().set("Retry-After", Long.toString((long) Math.ceil(retryAfter)));
+        respond(exchange, 429, String.format(Locale.ROOT,
+                "{\"message\": \"You are being rate limited.\", \"retry_after\": %.3f, \"global\": %s, \"code\": 0}",
+                retryAfter, global));
+    }
+
+    private static void addBucketHeaders(@NotNull HttpExchange exchange, @NotNull Bucket bucket, int remaining, long now) {
+        double resetAfter = bucket.secondsUntilReset(now);
+        double resetAt = System.currentTimeMillis() / 1000.0 + resetAfter;
+        exchange.getResponseHeaders().set("X-RateLimit-Limit", Integer.toString(bucket.limit));
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", Integer.toString(remaining));
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", String.format(Locale.ROOT, "%.3f", resetAt));
+        exchange.getResponseHeaders().set("X-RateLimit-Reset-After", String.format(Locale.ROOT, "%.3f", resetAfter));
+        exchange.getResponseHeaders().set("X-RateLimit-Bucket", Integer.toHexString(bucket.key.hashCode()));
+    }
+
+    @NotNull
+    private String messageJson(@NotNull String channelId) {
+        return "{\"id\": \"" + nextMessageId.getAndIncrement() + "\", \"channel_id\": \"" + channelId + "\", \"type\": 0}";
+    }
+
+    private static void respond(@NotNull HttpExchange exchange, int status, @NotNull String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @NotNull
+    private static String readBody(@NotNull InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static int countLines(@NotNull String body) {
+        int count = 0;
+        for (int index = body.indexOf(LINE_MARKER); index >= 0; index = body.indexOf(LINE_MARKER, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private void sleepLatency() {
+        if (limits.latencyMillis() <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(limits.latencyMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The limits the server enforces. {@link #discord()} matches what Discord documents and reports for bots.
+     *
+     * @param channelLimit        messages per channel per window
+     * @param channelWindowMillis the channel bucket's window
+     * @param webhookLimit        executions per webhook per window
+     * @param webhookWindowMillis the webhook bucket's window
+     * @param globalPerSecond     channel requests per second across all channels
+     * @param latencyMillis       added to every request to simulate the round trip
+     */
+    public record Limits(
+            int channelLimit,
+            long channelWindowMillis,
+            int webhookLimit,
+            long webhookWindowMillis,
+            int globalPerSecond,
+            long latencyMillis
+    ) {
+
+        @NotNull
+        public static Limits discord() {
+            return new Limits(5, 5_000, 5, 2_000, 50, 60);
+        }
+    }
+
+    /**
+     * A fixed-window bucket: the window starts with the first request after the previous one ended.
+     */
+    private static final class Bucket {
+        private final String key;
+        private final int limit;
+        private final long windowNanos;
+        private long windowStart;
+        private int used;
+        private boolean open;
+
+        private Bucket(@NotNull String key, int limit, long windowNanos) {
+            this.key = key;
+            this.limit = Math.max(1, limit);
+            this.windowNanos = windowNanos;
+        }
+
+        /**
+         * @return the requests left in the window after this one, or {@code -1} if the bucket is exhausted
+         */
+        private synchronized int tryAcquire(long now) {
+            if (!open || now - windowStart >= windowNanos) {
+                open = true;
+                windowStart = now;
+                used = 0;
+            }
+
+            if (used >= limit) {
+                return -1;
+            }
+            return limit - ++used;
+        }
+
+        private synchronized double secondsUntilReset(long now) {
+            long remaining = open ? windowStart + windowNanos - now : 0;
+            return Math.max(0, remaining) / 1e9;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package net.aerh.discordbridge.loadtest;
+
+import net.aerh.discordbridge.discord.ChannelTransport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Posts channel messages over plain HTTP the way JDA's requester does for one route: requests go out one at a
+ * time, the sender waits out an exhausted bucket before the next one, and a 429 is retried after
+ * {@code Retry-After}. Messages wait in an unbounded queue meanwhile, as they do in JDA.
+ */
+public final class HttpChannelTransport implements ChannelTransport, AutoCloseable {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final URI messagesUri;
+    private final String authorization;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final LongAdder rateLimitHits = new LongAdder();
+    private final Thread sender;
+    private volatile boolean closed;
+
+    /**
+     * @param apiBaseUrl the server's base URL, without the {@code /api} path
+     */
+    public HttpChannelTransport(@NotNull String apiBaseUrl, @NotNull String channelId, @NotNull String botToken) {
+        this.messagesUri = URI.create(apiBaseUrl + "/api/v10/channels/" + channelId + "/messages");
+        this.authorization = "Bot " + botToken;
+        this.sender = new Thread(this::sendLoop, "DiscordBridge-LoadTransport");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<?> send(@NotNull String content) {
+        Pending pending = new Pending(content, new CompletableFuture<>());
+        if (closed) {
+            pending.future.completeExceptionally(new IllegalStateException("Transport closed"));
+        } else {
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    /**
+     * @return messages waiting to be posted
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of 429 responses received
+     */
+    public long getRateLimitHits() {
+        return rateLimitHits.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        sender.interrupt();
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("Transport closed"));
+        }
+    }
+
+    private void sendLoop() {
+        long nextAllowedNanos = System.nanoTime();
+        try {
+            while (!closed) {
+                Pending pending = queue.take();
+                int attempts = 0;
+                while (true) {
+                    sleepUntil(nextAllowedNanos);
+                    HttpResponse<String> response;
+                    try {
+                        response = httpClient.send(request(pending.content), HttpResponse.BodyHandlers.ofString());
+                    } catch (IOException exception) {
+                        pending.future.completeExceptionally(exception);
+                        break;
+                    }
+
+                    long now = System.nanoTime();
+                    if (response.statusCode() == 429) {
+                        rateLimitHits.increment();
+                        nextAllowedNanos = now + secondsHeader(response, "Retry-After", 1.0);
+                        if (++attempts < MAX_ATTEMPTS) {
+                            continue;
+                        }
+                        pending.future.completeExceptionally(new IOException("Still rate limited after " + attempts + " attempts"));
+                        break;
+                    }
+
+                    if ("0".equals(response.headers().firstValue("X-RateLimit-Remaining").orElse(null))) {
+                        nextAllowedNanos = now + secondsHeader(response, "X-RateLimit-Reset-After", 1.0);
+                    }
+
+                    if (response.statusCode() / 100 == 2) {
+                        pending.future.complete(null);
+                    } else {
+                        pending.future.completeExceptionally(new IOException("HTTP " + response.statusCode() + ": " + response.body()));
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NotNull
+    private HttpRequest request(@NotNull String content) {
+        return HttpRequest.newBuilder(messagesUri)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"content\":" + jsonString(content) + "}"))
+                .build();
+    }
+
+    private static long secondsHeader(@NotNull HttpResponse<?> response, @NotNull String name, double fallback) {
+        @Nullable String value = response.headers().firstValue(name).orElse(null);
+        double seconds = fallback;
+        if (value != null) {
+            try {
+                seconds = Double.parseDouble(value);
+            } catch (NumberFormatException ignored) {
+                // Keep the fallback
+            }
+        }
+        return (long) (seconds * 1_000_000_000L);
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    @NotNull
+    private static String jsonString(@NotNull String value) {
+        StringBuilder out = new StringBuilder(value.length() + 16).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < ' ') {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private record Pending(@NotNull String content, @NotNull CompletableFuture<Object> future) {
+    }
+}
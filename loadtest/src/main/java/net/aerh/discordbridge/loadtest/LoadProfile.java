@@ -0,0 +1,123 @@
+package net.aerh.discordbridge.loadtest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One load-test configuration: how much synthetic traffic to generate and how the bridge is set up to carry
+ * it. Bridge settings that are not given fall back to the plugin's config defaults.
+ *
+ * @param name                     shown in the report
+ * @param seconds                  how long traffic is generated
+ * @param players                  distinct players the chat lines are spread across
+ * @param chatPerSecond            chat lines per second
+ * @param deathsPerSecond          death messages per second, sent on the kill feed lane
+ * @param joinsPerSecond           join messages per second, sent on the presence lane
+ * @param webhooks                 webhooks chat is spread across; {@code 0} sends chat through the bot channel
+ * @param webhookPoolStrategy      {@code Affinity} or {@code LeastRateLimited}
+ * @param webhookMergeWindowMillis see {@code WebhookMergeWindowMillis}
+ * @param batchWindowMillis        see {@code BatchWindowMillis}
+ * @param maxBatchLines            see {@code MaxBatchLines}
+ * @param maxMessagesPerFlush      see {@code MaxMessagesPerFlush}
+ * @param shedBacklogThreshold     see {@code ShedBacklogThreshold}
+ * @param chatQueueCapacity        see {@code ChatQueueCapacity}
+ * @param chatQueueOverflowPolicy  see {@code ChatQueueOverflowPolicy}
+ */
+public record LoadProfile(
+        @NotNull String name,
+        int seconds,
+        int players,
+        double chatPerSecond,
+        double deathsPerSecond,
+        double joinsPerSecond,
+        int webhooks,
+        @NotNull String webhookPoolStrategy,
+        int webhookMergeWindowMillis,
+        int batchWindowMillis,
+        int maxBatchLines,
+        int maxMessagesPerFlush,
+        int shedBacklogThreshold,
+        int chatQueueCapacity,
+        @NotNull String chatQueueOverflowPolicy
+) {
+
+    /**
+     * The profiles run when none are given: quiet, busy and overloaded servers, over the bot channel and
+     * over one and three webhooks.
+     */
+    public static final List<String> DEFAULTS = List.of(
+            "name=quiet,chat=2,deaths=0.2,joins=0.1",
+            "name=busy,chat=20,deaths=2,joins=0.5",
+            "name=flood,chat=150,deaths=10,joins=2",
+            "name=webhook,chat=20,deaths=2,joins=0.5,webhooks=1",
+            "name=webhook-pool,chat=20,deaths=2,joins=0.5,webhooks=3,pool=LeastRateLimited"
+    );
+
+    /**
+     * Parses a profile from comma-separated {@code key=value} pairs, e.g. {@code name=burst,chat=200,seconds=30}.
+     *
+     * @throws IllegalArgumentException if a key is unknown or a value is not a number
+     */
+    @NotNull
+    public static LoadProfile parse(@NotNull String spec) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String pair : spec.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+
+            int equals = pair.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value but got '" + pair + "'");
+            }
+            values.put(pair.substring(0, equals).trim().toLowerCase(Locale.ROOT), pair.substring(equals + 1).trim());
+        }
+
+        LoadProfile profile = new LoadProfile(
+                values.getOrDefault("name", "custom"),
+                intValue(values, "seconds", 60),
+                intValue(values, "players", 40),
+                doubleValue(values, "chat", 10),
+                doubleValue(values, "deaths", 1),
+                doubleValue(values, "joins", 0.2),
+                intValue(values, "webhooks", 0),
+                values.getOrDefault("pool", "Affinity"),
+                intValue(values, "mergewindow", 500),
+                intValue(values, "batchwindow", 250),
+                intValue(values, "batchlines", 20),
+                intValue(values, "flushmessages", 2),
+                intValue(values, "shed", 500),
+                intValue(values, "chatqueue", 4096),
+                values.getOrDefault("overflow", "DropOldest")
+        );
+
+        values.keySet().removeAll(List.of("name", "seconds", "players", "chat", "deaths", "joins", "webhooks", "pool",
+                "mergewindow", "batchwindow", "batchlines", "flushmessages", "shed", "chatqueue", "overflow"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown profile keys " + values.keySet());
+        }
+        return profile;
+    }
+
+    private static int intValue(@NotNull Map<String, String> values, @NotNull String key, int fallback) {
+        String value = values.get(key);
+        try {
+            return value == null ? fallback : Integer.parseInt(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("'" + key + "' must be a whole number but was '" + value + "'");
+        }
+    }
+
+    private static double doubleValue(@NotNull Map<String, String> values, @NotNull String key, double fallback) {
+        String value = values.get(key);
+        try {
+            return value == null ? fallback : Double.parseDouble(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("'" + key + "' must be a number but was '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package net.aerh.discordbridge.loadtest;
+
+import net.aerh.discordbridge.config.DiscordBridgeConfig;
+import net.aerh.discordbridge.config.OutboundConfig;
+import net.aerh.discordbridge.discord.CoalescingMessageQueue;
+import net.aerh.discordbridge.discord.DeliveryTracer;
+import net.aerh.discordbridge.discord.DiscordBotConnection;
+import net.aerh.discordbridge.discord.OutboundChatRelay;
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.OutboundPipeline;
+import net.aerh.discordbridge.discord.OverflowPolicy;
+import net.aerh.discordbridge.discord.PrioritizedDispatcher;
+import net.aerh.discordbridge.discord.ReadinessBarrier;
+import net.aerh.discordbridge.discord.WebhookMessageSender;
+import net.aerh.discordbridge.discord.model.OutboundChatMessage;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs one {@link LoadProfile} against a fresh {@link FakeDiscordServer}, through the plugin's own
+ * {@link DiscordBotConnection} with its channel messages and webhook requests pointed at the stand-in. Chat lines
+ * take the plugin's chat path (pipeline, readiness barrier and {@link OutboundChatRelay}), deaths go on the kill
+ * feed lane and joins on the presence lane.
+ */
+final class LoadRun {
+
+    private static final String CHANNEL_ID = "100000000000000001";
+    private static final long TICK_MILLIS = 10;
+    private static final long SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String[] WORDS = {
+            "anyone", "want", "to", "raid", "the", "dungeon", "later", "I", "found", "iron", "near", "spawn",
+            "lol", "brb", "my", "base", "is", "on", "fire", "again", "gg", "that", "boss", "was", "brutal"
+    };
+    private static final String[] KILLERS = {"Skeleton", "Trork", "Spider", "Goblin Brute", "fall damage"};
+
+    private final LoadProfile profile;
+    private final FakeDiscordServer.Limits limits;
+    private final long drainMillis;
+    private final AtomicLong sequence = new AtomicLong();
+
+    LoadRun(@NotNull LoadProfile profile, @NotNull FakeDiscordServer.Limits limits, long drainMillis) {
+        this.profile = profile;
+        this.limits = limits;
+        this.drainMillis = drainMillis;
+    }
+
+    @NotNull
+    Result run() throws IOException, InterruptedException {
+        Path dataDirectory = Files.createTempDirectory("discordbridge-loadtest");
+        try (FakeDiscordServer server = new FakeDiscordServer(limits)) {
+            server.start();
+            try (HttpChannelTransport transport = new HttpChannelTransport(server.getBaseUrl(), CHANNEL_ID, "load-test")) {
+                DiscordBridgeConfig config = ProfileConfig.create(profile, CHANNEL_ID, webhookUrls());
+                DiscordBotConnection connection = DiscordBotConnection.withTransport(config, dataDirectory, transport, server.getBaseUrl());
+                try {
+                    return run(server, transport, config, connection);
+                } finally {
+                    connection.shutdown();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(dataDirectory);
+        }
+    }
+
+    @NotNull
+    private Result run(
+            @NotNull FakeDiscordServer server,
+            @NotNull HttpChannelTransport transport,
+            @NotNull DiscordBridgeConfig config,
+            @NotNull DiscordBotConnection connection
+    ) throws InterruptedException {
+        // Set up as DiscordBridgePlugin does: early messages wait behind the barrier until the connection is ready
+        OutboundConfig outboundConfig = config.getOutboundConfig();
+        ReadinessBarrier<Runnable> earlyMessages = new ReadinessBarrier<>(
+                outboundConfig.getEarlyBacklogCapacity(),
+                outboundConfig.getEarlyBacklogMaxAgeSeconds(),
+                Runnable::run
+        );
+        OutboundChatRelay chatRelay = new OutboundChatRelay(() -> config, () -> connection, earlyMessages::offer);
+        OutboundPipeline<OutboundChatMessage> chatPipeline = new OutboundPipeline<>(
+                "DiscordBridge-Chat",
+                outboundConfig.getChatQueueCapacity(),
+                OverflowPolicy.parse(outboundConfig.getChatQueueOverflowPolicy()),
+                outboundConfig.getChatQueueBlockTimeoutMillis(),
+                chatRelay::process
+        );
+        connection.start().thenRun(earlyMessages::open).join();
+
+        // Cleared when the connection shuts down, so held on to for the report
+        CoalescingMessageQueue outboundQueue = connection.getOutboundQueue();
+        WebhookMessageSender webhookSender = connection.getWebhookSender();
+        Backlog backlog = new Backlog(chatPipeline, outboundQueue, webhookSender, connection.getDeliveryTracer(), transport);
+
+        List<Integer> backlogSamples = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(profile.seconds());
+        long nextSample = start;
+        long chats = 0;
+        long deaths = 0;
+        long joins = 0;
+        while (System.nanoTime() - end < 0) {
+            long now = System.nanoTime();
+            double elapsedSeconds = (now - start) / 1e9;
+            for (long due = (long) (elapsedSeconds * profile.chatPerSecond()); chats < due; chats++) {
+                chatPipeline.submit(chatLine(now));
+            }
+            for (long due = (long) (elapsedSeconds * profile.deathsPerSecond()); deaths < due; deaths++) {
+                connection.sendMessage(OutboundLane.KILL_FEED, deathLine(), now);
+            }
+            for (long due = (long) (elapsedSeconds * profile.joinsPerSecond()); joins < due; joins++) {
+                connection.sendMessage(OutboundLane.PRESENCE, "**" + player(ThreadLocalRandom.current().nextInt(profile.players()))
+                        + "** joined the server " + marker(), now);
+            }
+
+            if (now - nextSample >= 0) {
+                backlogSamples.add(backlog.size());
+                nextSample += SAMPLE_NANOS;
+            }
+            Thread.sleep(TICK_MILLIS);
+        }
+
+        long deliveredInWindow = server.getLinesDelivered();
+        long messagesInWindow = server.getChannelMessages() + server.getWebhookMessages();
+        int endBacklog = backlog.size();
+        drain(server, backlog);
+        chatPipeline.close();
+        connection.shutdown();
+
+        long shed = 0;
+        long expired = 0;
+        if (outboundQueue != null) {
+            PrioritizedDispatcher dispatcher = outboundQueue.getDispatcher();
+            for (OutboundLane lane : OutboundLane.values()) {
+                shed += dispatcher.getShed(lane);
+                expired += dispatcher.getExpired(lane);
+            }
+        }
+
+        DeliveryTracer tracer = connection.getDeliveryTracer();
+        return new Result(
+                profile,
+                chats + deaths + joins,
+                deliveredInWindow,
+                server.getLinesDelivered(),
+                messagesInWindow,
+                server.getRateLimited(),
+                transport.getRateLimitHits() + (webhookSender == null ? 0 : webhookSender.getRateLimitHits()),
+                backlogSamples.stream().mapToInt(Integer::intValue).max().orElse(0),
+                endBacklog,
+                growthPerSecond(backlogSamples, endBacklog),
+                chatPipeline.getDropped(),
+                shed,
+                expired,
+                tracer.get(DeliveryTracer.Route.BOT, DeliveryTracer.Stage.TOTAL),
+                tracer.get(DeliveryTracer.Route.WEBHOOK, DeliveryTracer.Stage.TOTAL)
+        );
+    }
+
+    @NotNull
+    private OutboundChatMessage chatLine(long nowNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int playerIndex = random.nextInt(profile.players());
+        StringBuilder content = new StringBuilder();
+        for (int i = random.nextInt(2, 16); i > 0; i--) {
+            content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        content.append(marker());
+        return new OutboundChatMessage(player(playerIndex), playerUuid(playerIndex), content.toString(),
+                System.currentTimeMillis(), nowNanos);
+    }
+
+    @NotNull
+    private String deathLine() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "**" + player(random.nextInt(profile.players())) + "** was killed by "
+                + KILLERS[random.nextInt(KILLERS.length)] + " " + marker();
+    }
+
+    @NotNull
+    private String marker() {
+        return FakeDiscordServer.LINE_MARKER + sequence.incrementAndGet() + "]";
+    }
+
+    @NotNull
+    private static String player(int index) {
+        return "Player" + index;
+    }
+
+    @NotNull
+    private static UUID playerUuid(int index) {
+        return new UUID(0x4c6f6164L, index);
+    }
+
+    @NotNull
+    private List<String> webhookUrls() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < profile.webhooks(); i++) {
+            // Must look like a Discord URL to pass the webhook client's check; requests are redirected to the stand-in
+            urls.add("https://discord.com/api/webhooks/" + (200000000000000000L + i) + "/load-test-" + i);
+        }
+        return urls;
+    }
+
+    // Waits for the backlog to empty and the server to stop receiving lines, up to the drain timeout
+    private void drain(@NotNull FakeDiscordServer server, @NotNull Backlog backlog) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis);
+        long lastDelivered = -1;
+        while (System.nanoTime() - deadline < 0) {
+            long delivered = server.getLinesDelivered();
+            if (backlog.size() == 0 && delivered == lastDelivered) {
+                return;
+            }
+            lastDelivered = delivered;
+            Thread.sleep(Math.max(1_000, limits.webhookWindowMillis()));
+        }
+    }
+
+    private static double growthPerSecond(@NotNull List<Integer> samples, int endBacklog) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        return (double) (endBacklog - samples.getFirst()) / samples.size();
+    }
+
+    /**
+     * Everything waiting anywhere between the chat pipeline and the stand-in.
+     */
+    private record Backlog(
+            @NotNull OutboundPipeline<?> chatPipeline,
+            @Nullable CoalescingMessageQueue outboundQueue,
+            @Nullable WebhookMessageSender webhookSender,
+            @NotNull DeliveryTracer tracer,
+            @NotNull HttpChannelTransport transport
+    ) {
+
+        int size() {
+            int size = chatPipeline.getDepth() + transport.getQueueDepth();
+            if (outboundQueue != null) {
+                size += outboundQueue.getPendingCount();
+            }
+            if (webhookSender != null) {
+                // Messages waiting in the webhook clients' own queues: handed over but neither accepted nor failed yet
+                long settled = webhookSender.getFailures() + tracer.get(DeliveryTracer.Route.WEBHOOK, DeliveryTracer.Stage.TOTAL).getCount();
+                size += (int) Math.max(0, webhookSender.getSent() - settled);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * What one profile achieved. Lines are generated events; messages are what Discord accepted, each of which
+     * can carry several packed or merged lines.
+     *
+     * @param generated         events generated during the run
+     * @param deliveredInWindow lines the server accepted before generation stopped
+     * @param delivered         lines the server accepted, including after the drain
+     * @param messagesInWindow  messages the server accepted before generation stopped
+     * @param serverRateLimited 429 responses the server sent
+     * @param clientRateLimited 429 responses the transports saw
+     * @param peakBacklog       the most lines waiting anywhere in the bridge at a sample
+     * @param endBacklog        lines waiting when generation stopped
+     * @param growthPerSecond   average backlog growth per second over the run
+     * @param pipelineDropped   chat lines dropped by the chat pipeline's overflow policy
+     * @param shed              lines shed from low-priority lanes
+     * @param expired           lines that outlived their lane's maximum age
+     */
+    record Result(
+            @NotNull LoadProfile profile,
+            long generated,
+            long deliveredInWindow,
+            long delivered,
+            long messagesInWindow,
+            long serverRateLimited,
+            long clientRateLimited,
+            int peakBacklog,
+            int endBacklog,
+            double growthPerSecond,
+            long pipelineDropped,
+            long shed,
+            long expired,
+            @NotNull LatencyHistogram botLatency,
+            @NotNull LatencyHistogram webhookLatency
+    ) {
+
+        /**
+         * @return generated lines that never reached the server, including ones lost after the drain timeout
+         */
+        long dropped() {
+            return Math.max(0, generated - delivered);
+        }
+
+        double dropRate() {
+            return generated == 0 ? 0 : (double) dropped() / generated;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package net.aerh.discordbridge.loadtest;
+
+import net.aerh.discordbridge.metrics.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs load profiles against a local stand-in for Discord and prints what each one sustained.
+ * <p>
+ * Arguments are profiles (see {@link LoadProfile#parse}) and options:
+ * <ul>
+ *     <li>{@code --seconds=N} overrides every profile's duration</li>
+ *     <li>{@code --latency=MS} the stand-in's simulated round trip (default 60)</li>
+ *     <li>{@code --drain=MS} how long to wait for queued lines after generation stops (default 30000)</li>
+ * </ul>
+ * Without profiles, {@link LoadProfile#DEFAULTS} are run.
+ */
+public final class LoadTest {
+
+    private static final long DEFAULT_DRAIN_MILLIS = 30_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> specs = new ArrayList<>();
+        FakeDiscordServer.Limits limits = FakeDiscordServer.Limits.discord();
+        long drainMillis = DEFAULT_DRAIN_MILLIS;
+        String secondsOverride = null;
+        for (String arg : args) {
+            if (arg.startsWith("--seconds=")) {
+                secondsOverride = arg.substring("--seconds=".length());
+            } else if (arg.startsWith("--latency=")) {
+                long latency = Long.parseLong(arg.substring("--latency=".length()));
+                limits = new FakeDiscordServer.Limits(limits.channelLimit(), limits.channelWindowMillis(),
+                        limits.webhookLimit(), limits.webhookWindowMillis(), limits.globalPerSecond(), latency);
+            } else if (arg.startsWith("--drain=")) {
+                drainMillis = Long.parseLong(arg.substring("--drain=".length()));
+            } else {
+                specs.add(arg);
+            }
+        }
+
+        if (specs.isEmpty()) {
+            specs.addAll(LoadProfile.DEFAULTS);
+        }
+
+        List<LoadRun.Result> results = new ArrayList<>();
+        for (String spec : specs) {
+            LoadProfile profile = LoadProfile.parse(secondsOverride == null ? spec : spec + ",seconds=" + secondsOverride);
+            System.out.printf(Locale.ROOT, "Running %s for %ds...%n", profile.name(), profile.seconds());
+            results.add(new LoadRun(profile, limits, drainMillis).run());
+        }
+
+        printReport(results);
+    }
+
+    private static void printReport(@NotNull List<LoadRun.Result> results) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-14s %9s %11s %8s %6s %8s %9s %8s %7s %9s %9s%n",
+                "Profile", "Offered/s", "Delivered/s", "Msgs/s", "429s", "Peak q", "Growth/s", "Dropped", "Drop %",
+                "p99 bot", "p99 hook");
+        for (LoadRun.Result result : results) {
+            double seconds = Math.max(1, result.profile().seconds());
+            System.out.printf(Locale.ROOT, "%-14s %9.1f %11.1f %8.2f %6d %8d %9.2f %8d %6.1f%% %9s %9s%n",
+                    result.profile().name(),
+                    result.generated() / seconds,
+                    result.deliveredInWindow() / seconds,
+                    result.messagesInWindow() / seconds,
+                    result.serverRateLimited(),
+                    result.peakBacklog(),
+                    result.growthPerSecond(),
+                    result.dropped(),
+                    result.dropRate() * 100,
+                    p99(result.botLatency()),
+                    p99(result.webhookLatency()));
+        }
+
+        System.out.println();
+        System.out.println("Drops by cause (chat pipeline overflow / lanes shed / lanes expired / lost after drain):");
+        for (LoadRun.Result result : results) {
+            long accounted = result.pipelineDropped() + result.shed() + result.expired();
+            System.out.printf(Locale.ROOT, "  %-14s %d / %d / %d / %d%n",
+                    result.profile().name(),
+                    result.pipelineDropped(),
+                    result.shed(),
+                    result.expired(),
+                    Math.max(0, result.dropped() - accounted));
+        }
+    }
+
+    @NotNull
+    private static String p99(@NotNull LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+
+        long bound = histogram.getQuantileUpperBoundMillis(0.99);
+        return bound < 0 ? ">10s" : "<=" + bound + "ms";
+    }
+}
@@ -0,0 +1,62 @@
+package net.aerh.discordbridge.loadtest;
+
+import net.aerh.discordbridge.config.DiscordBridgeConfig;
+import net.aerh.discordbridge.config.DiscordConfig;
+import net.aerh.discordbridge.config.OutboundConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Builds the plugin config a {@link LoadProfile} runs with. The config classes are only filled in by their
+ * codec when the server loads the config file, so the profile's settings are written into the same fields the
+ * codec sets; everything else keeps the plugin's defaults.
+ */
+final class ProfileConfig {
+
+    private ProfileConfig() {
+    }
+
+    /**
+     * @param webhookUrls the webhooks chat is spread across; empty to send chat through the bot channel
+     */
+    @NotNull
+    static DiscordBridgeConfig create(
+            @NotNull LoadProfile profile,
+            @NotNull String channelId,
+            @NotNull List<String> webhookUrls
+    ) {
+        DiscordBridgeConfig config = new DiscordBridgeConfig();
+
+        DiscordConfig discord = config.getDiscordConfig();
+        set(discord, "botToken", "load-test");
+        set(discord, "channelId", channelId);
+        set(discord, "batchWindowMillis", profile.batchWindowMillis());
+        set(discord, "maxBatchLines", profile.maxBatchLines());
+        set(discord, "webhookMergeWindowMillis", profile.webhookMergeWindowMillis());
+        set(discord, "webhookPoolStrategy", profile.webhookPoolStrategy());
+        set(discord, "webhookUrl", String.join(",", webhookUrls));
+        set(discord, "useWebhookForChat", !webhookUrls.isEmpty());
+
+        OutboundConfig outbound = config.getOutboundConfig();
+        set(outbound, "maxMessagesPerFlush", profile.maxMessagesPerFlush());
+        set(outbound, "shedBacklogThreshold", profile.shedBacklogThreshold());
+        set(outbound, "chatQueueCapacity", profile.chatQueueCapacity());
+        set(outbound, "chatQueueOverflowPolicy", profile.chatQueueOverflowPolicy());
+        // The stand-in is reachable for the whole run, so there is nothing to journal
+        set(outbound, "outboxEnabled", false);
+        return config;
+    }
+
+    private static void set(@NotNull Object config, @NotNull String fieldName, @NotNull Object value) {
+        try {
+            Field field = config.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(config, value);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Cannot set " + config.getClass().getSimpleName() + "." + fieldName
+                    + "; was the field renamed?", exception);
+        }
+    }
+}
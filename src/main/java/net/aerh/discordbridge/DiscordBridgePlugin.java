@@ -4,118 +4,112 @@ import com.hypixel.hytale.event.EventPriority;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.event.events.BootEvent;
 import com.hypixel.hytale.server.core.event.events.player.*;
-import com.hypixel.hytale.server.core.modules.i18n.I18nModule;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.WorldMapTracker;
 import com.hypixel.hytale.server.core.util.Config;
+import net.aerh.discordbridge.command.DiscordLatencyCommand;
 import net.aerh.discordbridge.config.*;
 import net.aerh.discordbridge.discord.DiscordBotConnection;
+import net.aerh.discordbridge.discord.DiscordGateway;
+import net.aerh.discordbridge.discord.InboundMessageRenderer;
+import net.aerh.discordbridge.discord.InboundRelay;
 import net.aerh.discordbridge.discord.MessageSanitizer;
-import net.aerh.discordbridge.discord.PendingMessageHandler;
+import net.aerh.discordbridge.discord.OutboundChatRelay;
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.OutboundPipeline;
+import net.aerh.discordbridge.discord.OverflowPolicy;
+import net.aerh.discordbridge.discord.PresenceDigest;
+import net.aerh.discordbridge.discord.ReadinessBarrier;
+import net.aerh.discordbridge.discord.TranslationCache;
+import net.aerh.discordbridge.discord.events.DebugKillFeed;
 import net.aerh.discordbridge.discord.events.KillFeed;
 import net.aerh.discordbridge.discord.events.KillFeedFormatter;
 import net.aerh.discordbridge.discord.events.ZoneDiscovery;
+import net.aerh.discordbridge.discord.hub.HubClient;
+import net.aerh.discordbridge.discord.hub.HubServer;
 import net.aerh.discordbridge.discord.model.DiscordMessage;
+import net.aerh.discordbridge.discord.model.OutboundChatMessage;
+import net.aerh.discordbridge.metrics.BridgeMetrics;
+import net.aerh.discordbridge.metrics.MetricsExporter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.awt.*;
+import java.io.IOException;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public final class DiscordBridgePlugin extends JavaPlugin {
 
-    private static final Pattern INBOUND_PLACEHOLDER = Pattern.compile("%(label|role|username|message)%");
     private static final String DEFAULT_I18N_LANGUAGE = "en-US";
 
     private final Config<DiscordBridgeConfig> config = withConfig(DiscordBridgeConfig.CODEC);
     private final Map<UUID, String> playerWorlds = new ConcurrentHashMap<>();
-
-    private DiscordBotConnection botConnection;
-    private PendingMessageHandler startMessageHandler;
+    private final TranslationCache translations = new TranslationCache();
+    private final BridgeMetrics metrics = new BridgeMetrics();
+
+    private DiscordGateway botConnection;
+    private HubServer hubServer;
+    private ReadinessBarrier<Runnable> earlyMessages;
+    private OutboundPipeline<OutboundChatMessage> chatPipeline;
+    private KillFeedFormatter killFeed;
+    private PresenceDigest presenceDigest;
+    private InboundRelay inboundRelay;
+    private volatile InboundMessageRenderer inboundRenderer;
+    private MetricsExporter metricsExporter;
 
     public DiscordBridgePlugin(@NotNull JavaPluginInit init) {
         super(init);
     }
 
-    @NotNull
-    private static Message buildInboundMessage(
-            @NotNull MessagesConfig msgConfig,
-            @NotNull DiscordMessage discordMessage,
-            @NotNull String content
-    ) {
-        String template = msgConfig.getInboundTemplate();
-        Color contentColor = Color.decode(msgConfig.getContentColor());
-        Color labelColor = Color.decode(msgConfig.getLabelColor());
-        Color defaultRoleColor = Color.decode(msgConfig.getDefaultRoleColor());
-        String discordLabel = msgConfig.getDiscordLabel();
-
-        Message root = Message.empty();
-        Matcher matcher = INBOUND_PLACEHOLDER.matcher(template);
-        int last = 0;
-        boolean hasMessageToken = false;
-
-        while (matcher.find()) {
-            if (matcher.start() > last) {
-                appendTextSegment(root, template.substring(last, matcher.start()), contentColor);
-            }
-
-            switch (matcher.group(1)) {
-                case "label" -> appendTextSegment(root, discordLabel, labelColor);
-                case "role" -> appendRole(root, discordMessage, defaultRoleColor);
-                case "username" -> appendUsername(root, discordMessage, defaultRoleColor);
-                case "message" -> {
-                    appendTextSegment(root, content, contentColor);
-                    hasMessageToken = true;
-                }
-                default -> {
-                }
-            }
-
-            last = matcher.end();
+    @Override
+    protected void shutdown() {
+        getLogger().at(Level.INFO).log("Shutting down Discord bridge...");
+        if (chatPipeline != null) {
+            chatPipeline.close();
+            chatPipeline = null;
         }
 
-        if (last < template.length()) {
-            appendTextSegment(root, template.substring(last), contentColor);
+        if (killFeed != null) {
+            killFeed.close();
+            killFeed = null;
         }
 
-        if (!hasMessageToken) {
-            appendTextSegment(root, content, contentColor);
+        if (presenceDigest != null) {
+            presenceDigest.close();
+            presenceDigest = null;
         }
 
-        return root;
-    }
+        sendEventMessage(OutboundLane.SERVER_LIFECYCLE, config.get().getEventsConfig().getServerStop());
+        if (inboundRelay != null) {
+            inboundRelay.close();
+            inboundRelay = null;
+        }
 
-    private static void appendRole(@NotNull Message root, @NotNull DiscordMessage discordMessage, @NotNull Color defaultRoleColor) {
-        if (discordMessage.topRoleName() == null || discordMessage.topRoleName().isBlank()) {
-            return;
+        if (hubServer != null) {
+            hubServer.close();
+            hubServer = null;
         }
 
-        Color color = discordMessage.roleColor() != null ? discordMessage.roleColor() : defaultRoleColor;
-        appendTextSegment(root, "[" + discordMessage.topRoleName() + "]", color);
-    }
+        // Still connecting: hand over what was held so the bot's outbox or the hub client's backlog keeps it
+        if (earlyMessages != null) {
+            earlyMessages.open();
+        }
 
-    @Override
-    protected void shutdown() {
-        getLogger().at(Level.INFO).log("Shutting down Discord bridge...");
-        sendEventMessage(config.get().getEventsConfig().getServerStop());
         if (botConnection != null) {
             botConnection.shutdown();
             botConnection = null;
             getLogger().at(Level.INFO).log("Discord bot disconnected");
         }
-    }
 
-    private static void appendUsername(@NotNull Message root, @NotNull DiscordMessage discordMessage, @NotNull Color defaultRoleColor) {
-        Color color = discordMessage.displayColor() != null ? discordMessage.displayColor() : defaultRoleColor;
-        appendTextSegment(root, discordMessage.authorName(), color);
+        if (metricsExporter != null) {
+            metricsExporter.close();
+            metricsExporter = null;
+        }
     }
 
     @Override
@@ -130,74 +124,105 @@ public final class DiscordBridgePlugin extends JavaPlugin {
         getEventRegistry().registerGlobal(AddPlayerToWorldEvent.class, this::onPlayerEnterWorld);
         getEventRegistry().registerGlobal(DrainPlayerFromWorldEvent.class, this::onPlayerLeaveWorld);
         DiscordBridgeConfig cfg = config.get();
-        KillFeedFormatter killFeed = new KillFeedFormatter(
+        this.presenceDigest = new PresenceDigest(() -> config.get().getEventsConfig().getPresenceDigest(), this::sendPresenceSummary);
+        this.killFeed = new KillFeedFormatter(
                 cfg::getEventsConfig,
-                this::sendEventMessage,
+                (enabled, template, values) -> sendEventMessage(OutboundLane.KILL_FEED, enabled, template, values),
                 () -> cfg.getDiscordConfig().getLocale(),
-                cfg::isDebug
+                cfg::isDebug,
+                translations
         );
-        getEntityStoreRegistry().registerSystem(new KillFeed(killFeed, cfg::isDebug));
+        getEntityStoreRegistry().registerSystem(new KillFeed(killFeed));
+        MetricsBindings.bindKillFeed(metrics, killFeed);
+        this.metricsExporter = new MetricsExporter(metrics);
+        metricsExporter.start(cfg.getMetricsConfig());
+        if (cfg.isDebug()) {
+            getEntityStoreRegistry().registerSystem(new DebugKillFeed(
+                    killFeed,
+                    cfg::isDebug,
+                    cfg::getDebugSamplePercent,
+                    cfg::getDebugMaxPerSecond
+            ));
+        }
         getEntityStoreRegistry().registerSystem(new ZoneDiscovery(this::sendZoneDiscoveryMessage));
+        getCommandRegistry().registerCommand(new DiscordLatencyCommand(
+                () -> botConnection instanceof DiscordBotConnection connection ? connection.getDeliveryTracer() : null
+        ));
         getLogger().at(Level.INFO).log("Event listeners registered");
 
-        if (!cfg.canStartBot()) {
+        boolean hubClient = cfg.canStartHubClient();
+        if (!hubClient && !cfg.canStartBot()) {
             getLogger().at(Level.WARNING).log("Discord bridge disabled - missing bot token or channel id");
             return;
         }
 
-        this.botConnection = new DiscordBotConnection(cfg, this::relayDiscordMessage);
+        this.inboundRelay = new InboundRelay(cfg::getInboundConfig, this::renderDiscordMessage);
+        if (hubClient) {
+            this.botConnection = new HubClient(cfg.getHubConfig(), this::relayDiscordMessage);
+        } else {
+            this.botConnection = new DiscordBotConnection(cfg, getDataDirectory(), this::relayDiscordMessage);
+            if (cfg.getHubConfig().isHost()) {
+                startHubServer(cfg.getHubConfig());
+            }
+        }
+        OutboundConfig outboundConfig = cfg.getOutboundConfig();
+        OutboundChatRelay chatRelay = new OutboundChatRelay(config::get, () -> botConnection, this::dispatch);
+        this.chatPipeline = new OutboundPipeline<>(
+                "DiscordBridge-Chat",
+                outboundConfig.getChatQueueCapacity(),
+                OverflowPolicy.parse(outboundConfig.getChatQueueOverflowPolicy()),
+                outboundConfig.getChatQueueBlockTimeoutMillis(),
+                chatRelay::process
+        );
         startBotConnection(cfg);
-        getLogger().at(Level.INFO).log("Discord bot connection initialized");
-    }
-
-    @Override
-    protected void start() {
-        if (startMessageHandler != null) {
-            startMessageHandler.reset();
+        MetricsBindings.bindChat(metrics, chatPipeline);
+        MetricsBindings.bindInbound(metrics, inboundRelay);
+        MetricsBindings.bindGateway(metrics, botConnection);
+        if (earlyMessages != null) {
+            MetricsBindings.bindEarlyMessages(metrics, earlyMessages);
+        }
+        if (hubServer != null) {
+            MetricsBindings.bindHub(metrics, hubServer);
         }
+        getLogger().at(Level.INFO).log("Discord bot connection initialized");
     }
 
     private void onPlayerChat(@NotNull PlayerChatEvent event) {
-        DiscordBridgeConfig cfg = config.get();
+        OutboundPipeline<OutboundChatMessage> pipeline = this.chatPipeline;
         if (event.isCancelled()
-                || botConnection == null
-                || !cfg.isRelayGameToDiscord()) {
+                || pipeline == null
+                || !config.get().isRelayGameToDiscord()) {
             return;
         }
 
-        String cleaned = MessageSanitizer.sanitizeOutgoing(event.getContent(), cfg.getDiscordConfig().isAllowMentions());
-        if (cleaned.isEmpty()) {
-            return;
-        }
-
-        if (botConnection.hasWebhook()) {
-            botConnection.sendWebhookMessage(
-                    event.getSender().getUsername(),
-                    event.getSender().getUuid(),
-                    cleaned
-            );
-        } else {
-            String payload = cfg.getMessagesConfig().getOutboundTemplate()
-                    .replace("%player%", event.getSender().getUsername())
-                    .replace("%message%", cleaned);
-            sendToDiscord(payload, cfg);
-        }
+        PlayerRef sender = event.getSender();
+        pipeline.submit(new OutboundChatMessage(
+                sender.getUsername(),
+                sender.getUuid(),
+                event.getContent(),
+                System.currentTimeMillis(),
+                System.nanoTime()
+        ));
     }
 
     private void onPlayerConnect(@NotNull PlayerConnectEvent event) {
         DiscordBridgeConfig cfg = config.get();
         EventsConfig events = cfg.getEventsConfig();
-        sendEventMessage(events.getPlayerJoin(), "%player%", event.getPlayerRef().getUsername());
+        sendPresenceMessage(PresenceDigest.Kind.JOIN, events.getPlayerJoin(), TemplateValues.scratch()
+                .set(Placeholder.PLAYER, event.getPlayerRef().getUsername()));
     }
 
     private void onPlayerDisconnect(@NotNull PlayerDisconnectEvent event) {
         DiscordBridgeConfig cfg = config.get();
         EventsConfig events = cfg.getEventsConfig();
         PlayerRef playerRef = event.getPlayerRef();
-        sendEventMessage(events.getPlayerLeave(), "%player%", playerRef.getUsername());
+        sendPresenceMessage(PresenceDigest.Kind.LEAVE, events.getPlayerLeave(), TemplateValues.scratch()
+                .set(Placeholder.PLAYER, playerRef.getUsername()));
         String worldName = playerWorlds.remove(playerRef.getUuid());
         if (worldName != null) {
-            sendEventMessage(events.getWorldLeave(), "%player%", playerRef.getUsername(), "%world%", worldName);
+            sendPresenceMessage(PresenceDigest.Kind.WORLD, events.getWorldLeave(), TemplateValues.scratch()
+                    .set(Placeholder.PLAYER, playerRef.getUsername())
+                    .set(Placeholder.WORLD, worldName));
         }
     }
 
@@ -213,17 +238,17 @@ public final class DiscordBridgePlugin extends JavaPlugin {
         String worldName = resolveWorldName(event.getWorld());
         String previousWorld = playerWorlds.put(playerRef.getUuid(), worldName);
         if (previousWorld == null) {
-            sendEventMessage(events.getWorldEnter(),
-                    "%player%", playerRef.getUsername(),
-                    "%world%", worldName);
+            sendPresenceMessage(PresenceDigest.Kind.WORLD, events.getWorldEnter(), TemplateValues.scratch()
+                    .set(Placeholder.PLAYER, playerRef.getUsername())
+                    .set(Placeholder.WORLD, worldName));
             return;
         }
 
         if (!previousWorld.equals(worldName)) {
-            sendEventMessage(events.getWorldChange(),
-                    "%player%", playerRef.getUsername(),
-                    "%from%", previousWorld,
-                    "%to%", worldName);
+            sendPresenceMessage(PresenceDigest.Kind.WORLD, events.getWorldChange(), TemplateValues.scratch()
+                    .set(Placeholder.PLAYER, playerRef.getUsername())
+                    .set(Placeholder.FROM, previousWorld)
+                    .set(Placeholder.TO, worldName));
         }
     }
 
@@ -243,70 +268,113 @@ public final class DiscordBridgePlugin extends JavaPlugin {
     }
 
     private void onServerBoot(@NotNull BootEvent event) {
-        if (startMessageHandler != null) {
-            startMessageHandler.onConditionMet();
-        }
+        translations.reloadAsync(resolveI18nLanguage(config.get().getDiscordConfig().getLocale()));
+        sendEventMessage(OutboundLane.SERVER_LIFECYCLE, config.get().getEventsConfig().getServerStart());
     }
 
     private void relayDiscordMessage(@NotNull DiscordMessage message) {
-        DiscordBridgeConfig cfg = config.get();
-        if (!cfg.isRelayDiscordToGame()) {
-            return;
+        HubServer hub = this.hubServer;
+        if (hub != null) {
+            hub.broadcast(message);
         }
 
-        Universe universe = Universe.get();
-        if (universe == null) {
+        DiscordBridgeConfig cfg = config.get();
+        InboundRelay relay = this.inboundRelay;
+        if (relay == null || !cfg.isRelayDiscordToGame()) {
             return;
         }
 
+        relay.submit(message);
+    }
+
+    @Nullable
+    private Message renderDiscordMessage(@NotNull DiscordMessage message) {
         String content = MessageSanitizer.sanitizeIncoming(message);
         if (content.isEmpty()) {
-            return;
+            return null;
         }
 
-        Message formatted = buildInboundMessage(cfg.getMessagesConfig(), message, content);
-        universe.sendMessage(formatted);
+        InboundMessageRenderer renderer = InboundMessageRenderer.refresh(inboundRenderer, config.get().getMessagesConfig());
+        inboundRenderer = renderer;
+        return renderer.render(message, content);
     }
 
-    private static void appendTextSegment(@NotNull Message root, @NotNull String text, @NotNull Color color) {
-        if (text.isEmpty()) {
+    private void sendToDiscord(@NotNull OutboundLane lane, @NotNull String message, @NotNull DiscordBridgeConfig cfg, long originNanos) {
+        dispatch(() -> sendNow(lane, message, cfg, originNanos));
+    }
+
+    /**
+     * Sends through the readiness barrier, which holds messages until the connection is first ready.
+     */
+    private void dispatch(@NotNull Runnable send) {
+        ReadinessBarrier<Runnable> barrier = this.earlyMessages;
+        if (barrier == null) {
+            send.run();
             return;
         }
 
-        root.insert(Message.raw(text).color(color));
+        barrier.offer(send);
     }
 
-    private void sendToDiscord(@NotNull String message, @NotNull DiscordBridgeConfig cfg) {
-        if (message.isBlank()) {
+    // Bypasses the barrier; only for messages it has already let through
+    private void sendNow(@NotNull OutboundLane lane, @NotNull String message, @NotNull DiscordBridgeConfig cfg, long originNanos) {
+        DiscordGateway gateway = this.botConnection;
+        if (message.isBlank() || gateway == null) {
             return;
         }
 
         DiscordConfig discordConfig = cfg.getDiscordConfig();
         String finalMessage = discordConfig.isAllowMentions() ? message : MessageSanitizer.preventMentions(message);
-        if (botConnection == null || !botConnection.isReady()) {
-            return;
-        }
+        gateway.sendMessage(lane, finalMessage, originNanos);
+    }
+
+    /**
+     * Sends an event message without placeholders to Discord if enabled.
+     */
+    private void sendEventMessage(@NotNull OutboundLane lane, @NotNull EventMessageConfig eventConfig) {
+        sendEventMessage(lane, eventConfig, TemplateValues.scratch());
+    }
 
-        botConnection.sendMessage(finalMessage);
+    private void sendEventMessage(@NotNull OutboundLane lane, @NotNull EventMessageConfig eventConfig, @NotNull TemplateValues values) {
+        sendEventMessage(lane, eventConfig.isEnabled(), eventConfig.getMessageTemplate(), values);
     }
 
     /**
      * Sends an event message to Discord if enabled.
      *
-     * @param eventConfig  the event configuration
-     * @param replacements pairs of placeholder and value (e.g., "%player%", "Steve")
+     * @param lane     the priority lane to send on
+     * @param enabled  whether the event is enabled
+     * @param template the compiled event template
+     * @param values   the placeholder values, rendered immediately
      */
-    private void sendEventMessage(@NotNull EventMessageConfig eventConfig, @NotNull String... replacements) {
+    private void sendEventMessage(@NotNull OutboundLane lane, boolean enabled, @NotNull MessageTemplate template, @NotNull TemplateValues values) {
+        if (!enabled) {
+            return;
+        }
+
+        long originNanos = System.nanoTime();
+        sendToDiscord(lane, template.render(values), config.get(), originNanos);
+    }
+
+    private void sendPresenceMessage(@NotNull PresenceDigest.Kind kind, @NotNull EventMessageConfig eventConfig, @NotNull TemplateValues values) {
         if (!eventConfig.isEnabled()) {
             return;
         }
 
-        String message = eventConfig.getMessage();
-        for (int i = 0; i < replacements.length - 1; i += 2) {
-            message = message.replace(replacements[i], replacements[i + 1]);
+        if (presenceDigest != null && !presenceDigest.admit(kind)) {
+            return;
         }
 
-        sendToDiscord(message, config.get());
+        sendEventMessage(OutboundLane.PRESENCE, eventConfig, values);
+    }
+
+    private void sendPresenceSummary(int joined, int left, int moved, int windowSeconds) {
+        PresenceDigestConfig digestConfig = config.get().getEventsConfig().getPresenceDigest();
+        sendEventMessage(OutboundLane.PRESENCE, true, digestConfig.getMessageTemplate(), TemplateValues.scratch()
+                .set(Placeholder.JOINED, joined)
+                .set(Placeholder.LEFT, left)
+                .set(Placeholder.MOVED, moved)
+                .set(Placeholder.SECONDS, windowSeconds));
     }
 
     private void startBotConnection(@NotNull DiscordBridgeConfig cfg) {
@@ -314,16 +382,18 @@ public final class DiscordBridgePlugin extends JavaPlugin {
             return;
         }
 
-        this.startMessageHandler = new PendingMessageHandler(
-                botConnection::isReady,
-                () -> sendEventMessage(cfg.getEventsConfig().getServerStart())
+        OutboundConfig outboundConfig = cfg.getOutboundConfig();
+        this.earlyMessages = new ReadinessBarrier<>(
+                outboundConfig.getEarlyBacklogCapacity(),
+                outboundConfig.getEarlyBacklogMaxAgeSeconds(),
+                Runnable::run
         );
 
         getLogger().at(Level.INFO).log("Starting Discord bot connection...");
         this.botConnection.start()
                 .thenRun(() -> {
                     getLogger().at(Level.INFO).log("Discord bot connected successfully to channel %s", cfg.getDiscordConfig().getChannelId());
-                    startMessageHandler.onReady();
+                    earlyMessages.open();
                 })
                 .exceptionally(throwable -> {
                     getLogger().at(Level.SEVERE)
@@ -333,24 +403,37 @@ public final class DiscordBridgePlugin extends JavaPlugin {
                 });
     }
 
+    private void startHubServer(@NotNull HubConfig hubConfig) {
+        HubServer hub = new HubServer(hubConfig, botConnection);
+        try {
+            hub.start();
+            this.hubServer = hub;
+        } catch (IOException | IllegalArgumentException exception) {
+            getLogger().at(Level.SEVERE).withCause(exception).log("Failed to start Discord hub on %s", hubConfig.getAddress());
+            hub.close();
+        }
+    }
+
     private void sendZoneDiscoveryMessage(@NotNull PlayerRef player, @NotNull WorldMapTracker.ZoneDiscoveryInfo info) {
         DiscordBridgeConfig cfg = config.get();
         EventMessageConfig zoneConfig = cfg.getEventsConfig().getZoneDiscovery();
-        String locale = cfg.getDiscordConfig().getLocale();
-        sendEventMessage(zoneConfig,
-                "%player%", player.getUsername(),
-                "%zone%", resolveZoneDisplayName(locale, info.zoneName(), true),
-                "%region%", resolveZoneDisplayName(locale, info.regionName(), false));
+        String locale = resolveI18nLanguage(cfg.getDiscordConfig().getLocale());
+        sendEventMessage(OutboundLane.ZONE_DISCOVERY, zoneConfig, TemplateValues.scratch()
+                .set(Placeholder.PLAYER, player.getUsername())
+                .set(Placeholder.ZONE, resolveZoneDisplayName(locale, info.zoneName(), true))
+                .set(Placeholder.REGION, resolveZoneDisplayName(locale, info.regionName(), false)));
     }
 
     private String resolveZoneDisplayName(@NotNull String locale, @NotNull String id, boolean isZone) {
-        String key = (isZone ? "server.map.zone." : "server.map.region.") + id;
-        String lang = locale.isBlank() ? DEFAULT_I18N_LANGUAGE : locale;
-        String translated = I18nModule.get().getMessage(lang, key);
-
+        String translated = isZone ? translations.zone(locale, id) : translations.region(locale, id);
         return translated == null || translated.isBlank() ? id : translated;
     }
 
+    @NotNull
+    private static String resolveI18nLanguage(@NotNull String locale) {
+        return locale.isBlank() ? DEFAULT_I18N_LANGUAGE : locale;
+    }
+
     @NotNull
     private String resolveWorldName(@NotNull World world) {
         String displayName = world.getWorldConfig().getDisplayName();
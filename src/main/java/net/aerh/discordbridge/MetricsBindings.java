@@ -0,0 +1,141 @@
+package net.aerh.discordbridge;
+
+import net.aerh.discordbridge.discord.AuthorStyleCache;
+import net.aerh.discordbridge.discord.CoalescingMessageQueue;
+import net.aerh.discordbridge.discord.DeliveryTracer;
+import net.aerh.discordbridge.discord.DiscordBotConnection;
+import net.aerh.discordbridge.discord.DiscordGateway;
+import net.aerh.discordbridge.discord.InboundRateLimiter;
+import net.aerh.discordbridge.discord.InboundRelay;
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.OutboundPipeline;
+import net.aerh.discordbridge.discord.OutboxJournal;
+import net.aerh.discordbridge.discord.PrioritizedDispatcher;
+import net.aerh.discordbridge.discord.ReadinessBarrier;
+import net.aerh.discordbridge.discord.WebhookMessageSender;
+import net.aerh.discordbridge.discord.events.DisplayNameCache;
+import net.aerh.discordbridge.discord.events.KillFeedFormatter;
+import net.aerh.discordbridge.discord.hub.HubClient;
+import net.aerh.discordbridge.discord.hub.HubServer;
+import net.aerh.discordbridge.metrics.BridgeMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registers the counters the bridge's components already keep with a {@link BridgeMetrics} registry.
+ * The outbound queue and outbox are looked up on every read, so they report zero until the bot has started
+ * and after it shut down; the gateway must be bound after {@link DiscordGateway#start()} so webhooks are known.
+ */
+final class MetricsBindings {
+
+    private MetricsBindings() {
+    }
+
+    static void bindKillFeed(@NotNull BridgeMetrics metrics, @NotNull KillFeedFormatter killFeed) {
+        DisplayNameCache names = killFeed.getDisplayNameCache();
+        metrics.histogram("kill_feed_format_seconds", "Time to format and dispatch one death", killFeed.getFormatTime());
+        metrics.counter("dropped_total", "Messages dropped, by reason", killFeed::getDroppedDeaths, "reason", "kill_feed_queue_full");
+        metrics.counter("cache_hits_total", "Cache hits", names::getHits, "cache", "display_name");
+        metrics.counter("cache_misses_total", "Cache misses", names::getMisses, "cache", "display_name");
+    }
+
+    static void bindChat(@NotNull BridgeMetrics metrics, @NotNull OutboundPipeline<?> chatPipeline) {
+        metrics.counter("messages_in_total", "Messages accepted for relaying, by kind", chatPipeline::getAccepted, "kind", "game_chat");
+        metrics.counter("dropped_total", "Messages dropped, by reason", chatPipeline::getDropped, "reason", "chat_queue_full");
+        metrics.gauge("queue_depth", "Messages waiting, by queue", chatPipeline::getDepth, "queue", "chat");
+    }
+
+    static void bindEarlyMessages(@NotNull BridgeMetrics metrics, @NotNull ReadinessBarrier<?> barrier) {
+        metrics.gauge("queue_depth", "Messages waiting, by queue", barrier::getBacklog, "queue", "early");
+        metrics.counter("dropped_total", "Messages dropped, by reason", barrier::getDropped, "reason", "early_backlog_full");
+        metrics.counter("dropped_total", "Messages dropped, by reason", barrier::getExpired, "reason", "early_backlog_expired");
+    }
+
+    static void bindInbound(@NotNull BridgeMetrics metrics, @NotNull InboundRelay relay) {
+        metrics.counter("messages_out_total", "Messages sent, by kind", relay::getDelivered, "kind", "game");
+        metrics.counter("dropped_total", "Messages dropped, by reason", relay::getDropped, "reason", "inbound_queue_full");
+        metrics.gauge("queue_depth", "Messages waiting, by queue", relay::getDepth, "queue", "inbound");
+        metrics.histogram("inbound_relay_seconds", "Time to render a batch of Discord messages and hand it to the worlds", relay.getTickTime());
+    }
+
+    static void bindGateway(@NotNull BridgeMetrics metrics, @NotNull DiscordGateway gateway) {
+        if (gateway instanceof HubClient client) {
+            metrics.gauge("hub_connected", "1 while connected to the hub", () -> client.isReady() ? 1 : 0);
+            metrics.counter("dropped_total", "Messages dropped, by reason", client::getDroppedOutbound, "reason", "hub_backlog_full");
+            return;
+        }
+
+        if (!(gateway instanceof DiscordBotConnection connection)) {
+            return;
+        }
+
+        InboundRateLimiter limiter = connection.getInboundRateLimiter();
+        AuthorStyleCache styles = connection.getAuthorStyleCache();
+        metrics.counter("messages_in_total", "Messages accepted for relaying, by kind", connection::getRelayed, "kind", "discord");
+        metrics.counter("dropped_total", "Messages dropped, by reason", limiter::getDroppedByAuthor, "reason", "author_rate_limit");
+        metrics.counter("dropped_total", "Messages dropped, by reason", limiter::getDroppedByGlobal, "reason", "global_rate_limit");
+        metrics.counter("dropped_total", "Messages dropped, by reason", connection::getDroppedNotReady, "reason", "not_ready");
+        metrics.counter("suppression_notices_total", "Suppressed-message notices relayed in game", limiter::getSuppressionNotices);
+        metrics.gauge("rate_limiter_tracked_authors", "Discord users tracked by the inbound rate limiter", limiter::getTrackedAuthors);
+        metrics.counter("cache_hits_total", "Cache hits", styles::getHits, "cache", "author_style");
+        metrics.counter("cache_misses_total", "Cache misses", styles::getMisses, "cache", "author_style");
+
+        metrics.histogram("request_seconds", "Discord HTTP request round-trip time", connection.getRestLatency(), "client", "rest");
+        metrics.counter("rate_limited_total", "429 responses from Discord", connection::getRestRateLimitHits, "client", "rest");
+        metrics.counter("send_failures_total", "Messages Discord did not accept", connection::getRestFailures, "client", "rest");
+        DeliveryTracer tracer = connection.getDeliveryTracer();
+        for (DeliveryTracer.Route route : DeliveryTracer.Route.values()) {
+            for (DeliveryTracer.Stage stage : DeliveryTracer.Stage.values()) {
+                metrics.histogram("delivery_stage_seconds", "Time outbound messages spend in each stage before Discord accepts them",
+                        tracer.get(route, stage),
+                        "route", route.name().toLowerCase(Locale.ROOT),
+                        "stage", stage.name().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        Supplier<PrioritizedDispatcher> dispatcher = () -> {
+            CoalescingMessageQueue queue = connection.getOutboundQueue();
+            return queue != null ? queue.getDispatcher() : null;
+        };
+        for (OutboundLane lane : OutboundLane.values()) {
+            String kind = lane.name().toLowerCase(Locale.ROOT);
+            metrics.counter("messages_out_total", "Messages sent, by kind", read(dispatcher, d -> d.getSent(lane)), "kind", kind);
+            metrics.counter("dropped_total", "Messages dropped, by reason", read(dispatcher, d -> d.getShed(lane)), "reason", "shed_" + kind);
+            metrics.counter("dropped_total", "Messages dropped, by reason", read(dispatcher, d -> d.getExpired(lane)), "reason", "expired_" + kind);
+            metrics.gauge("queue_depth", "Messages waiting, by queue", read(dispatcher, d -> d.getDepth(lane)), "queue", kind);
+        }
+        metrics.counter("batches_sent_total", "Coalesced bot-channel messages sent", read(connection::getOutboundQueue, CoalescingMessageQueue::getBatchesSent));
+
+        Supplier<OutboxJournal> outbox = connection::getOutbox;
+        metrics.counter("outbox_appended_total", "Messages held in the outbox while disconnected", read(outbox, OutboxJournal::getAppended));
+        metrics.counter("outbox_replayed_total", "Messages replayed from the outbox", read(outbox, OutboxJournal::getReplayed));
+        metrics.counter("dropped_total", "Messages dropped, by reason", read(outbox, OutboxJournal::getDropped), "reason", "outbox_full");
+        metrics.counter("dropped_total", "Messages dropped, by reason", read(outbox, OutboxJournal::getExpired), "reason", "outbox_expired");
+
+        Supplier<WebhookMessageSender> webhooks = connection::getWebhookSender;
+        metrics.counter("messages_out_total", "Messages sent, by kind", read(webhooks, WebhookMessageSender::getSent), "kind", "webhook");
+        metrics.counter("rate_limited_total", "429 responses from Discord", read(webhooks, WebhookMessageSender::getRateLimitHits), "client", "webhook");
+        metrics.counter("send_failures_total", "Messages Discord did not accept", read(webhooks, WebhookMessageSender::getFailures), "client", "webhook");
+        WebhookMessageSender sender = connection.getWebhookSender();
+        if (sender != null) {
+            metrics.histogram("request_seconds", "Discord HTTP request round-trip time", sender.getLatency(), "client", "webhook");
+        }
+    }
+
+    static void bindHub(@NotNull BridgeMetrics metrics, @NotNull HubServer hub) {
+        metrics.gauge("hub_clients", "Servers connected to this hub", hub::getClientCount);
+        metrics.counter("dropped_total", "Messages dropped, by reason", hub::getDroppedInbound, "reason", "hub_client_queue_full");
+    }
+
+    @NotNull
+    private static <T> LongSupplier read(@NotNull Supplier<T> source, @NotNull ToLongFunction<T> value) {
+        return () -> {
+            T current = source.get();
+            return current != null ? value.applyAsLong(current) : 0;
+        };
+    }
+}
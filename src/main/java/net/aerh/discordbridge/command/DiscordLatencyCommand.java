@@ -0,0 +1,65 @@
+package net.aerh.discordbridge.command;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+import net.aerh.discordbridge.discord.DeliveryTracer;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Prints how long outbound messages spend in each stage on their way to Discord. Percentiles are the
+ * upper bound of the histogram bucket they fall in.
+ */
+public final class DiscordLatencyCommand extends CommandBase {
+
+    private final Supplier<DeliveryTracer> tracerSupplier;
+
+    public DiscordLatencyCommand(@NotNull Supplier<DeliveryTracer> tracerSupplier) {
+        super("discordlatency", "Shows Discord delivery latency percentiles per stage");
+        this.tracerSupplier = tracerSupplier;
+    }
+
+    @Override
+    protected void executeSync(@NotNull CommandContext context) {
+        DeliveryTracer tracer = tracerSupplier.get();
+        if (tracer == null) {
+            context.sendMessage(Message.raw("This server has no Discord bot connection to trace."));
+            return;
+        }
+
+        context.sendMessage(Message.raw("Discord delivery latency (count, p50, p99, max):"));
+        boolean any = false;
+        for (DeliveryTracer.Route route : DeliveryTracer.Route.values()) {
+            for (DeliveryTracer.Stage stage : DeliveryTracer.Stage.values()) {
+                LatencyHistogram histogram = tracer.get(route, stage);
+                long count = histogram.getCount();
+                if (count == 0) {
+                    continue;
+                }
+
+                any = true;
+                context.sendMessage(Message.raw(String.format(Locale.ROOT, "%-7s %-7s %6d  %s  %s  %dms",
+                        route.name().toLowerCase(Locale.ROOT),
+                        stage.name().toLowerCase(Locale.ROOT),
+                        count,
+                        formatBound(histogram.getQuantileUpperBoundMillis(0.5)),
+                        formatBound(histogram.getQuantileUpperBoundMillis(0.99)),
+                        TimeUnit.NANOSECONDS.toMillis(histogram.getMaxNanos()))));
+            }
+        }
+
+        if (!any) {
+            context.sendMessage(Message.raw("No messages have been acknowledged by Discord yet."));
+        }
+    }
+
+    @NotNull
+    private static String formatBound(long millis) {
+        return millis < 0 ? ">10s" : "<=" + millis + "ms";
+    }
+}
@@ -27,6 +27,14 @@ public final class DiscordBridgeConfig {
                     (cfg, value) -> cfg.debug = value,
                     cfg -> cfg.debug)
             .add()
+            .append(new KeyedCodec<>("DebugSamplePercent", Codec.DOUBLE),
+                    (cfg, value) -> cfg.debugSamplePercent = value,
+                    cfg -> cfg.debugSamplePercent)
+            .add()
+            .append(new KeyedCodec<>("DebugMaxPerSecond", Codec.INTEGER),
+                    (cfg, value) -> cfg.debugMaxPerSecond = value,
+                    cfg -> cfg.debugMaxPerSecond)
+            .add()
             .append(new KeyedCodec<>("Discord", DiscordConfig.CODEC),
                     (cfg, value) -> cfg.discordConfig = value,
                     cfg -> cfg.discordConfig)
@@ -39,15 +47,40 @@ public final class DiscordBridgeConfig {
                     (cfg, value) -> cfg.messagesConfig = value,
                     cfg -> cfg.messagesConfig)
             .add()
+            .append(new KeyedCodec<>("Outbound", OutboundConfig.CODEC),
+                    (cfg, value) -> cfg.outboundConfig = value,
+                    cfg -> cfg.outboundConfig)
+            .add()
+            .append(new KeyedCodec<>("Inbound", InboundConfig.CODEC),
+                    (cfg, value) -> cfg.inboundConfig = value,
+                    cfg -> cfg.inboundConfig)
+            .add()
+            .append(new KeyedCodec<>("Hub", HubConfig.CODEC),
+                    (cfg, value) -> cfg.hubConfig = value,
+                    cfg -> cfg.hubConfig)
+            .add()
+            .append(new KeyedCodec<>("Metrics", MetricsConfig.CODEC),
+                    (cfg, value) -> cfg.metricsConfig = value,
+                    cfg -> cfg.metricsConfig)
+            .add()
             .build();
 
+    private static final double DEFAULT_DEBUG_SAMPLE_PERCENT = 100;
+    private static final int DEFAULT_DEBUG_MAX_PER_SECOND = 20;
+
     private boolean enabled = true;
     private boolean relayGameToDiscord = true;
     private boolean relayDiscordToGame = true;
     private boolean debug = false;
+    private double debugSamplePercent = DEFAULT_DEBUG_SAMPLE_PERCENT;
+    private int debugMaxPerSecond = DEFAULT_DEBUG_MAX_PER_SECOND;
     private DiscordConfig discordConfig = new DiscordConfig();
     private EventsConfig eventsConfig = new EventsConfig();
     private MessagesConfig messagesConfig = new MessagesConfig();
+    private OutboundConfig outboundConfig = new OutboundConfig();
+    private InboundConfig inboundConfig = new InboundConfig();
+    private HubConfig hubConfig = new HubConfig();
+    private MetricsConfig metricsConfig = new MetricsConfig();
 
     public boolean isEnabled() {
         return enabled;
@@ -65,6 +98,24 @@ public final class DiscordBridgeConfig {
         return debug;
     }
 
+    /**
+     * @return the percentage of non-player deaths reported in debug mode, between 0 and 100
+     */
+    public double getDebugSamplePercent() {
+        if (Double.isNaN(debugSamplePercent)) {
+            return DEFAULT_DEBUG_SAMPLE_PERCENT;
+        }
+
+        return Math.max(0, Math.min(100, debugSamplePercent));
+    }
+
+    /**
+     * @return the most non-player deaths reported per second in debug mode, or {@code 0} for no limit
+     */
+    public int getDebugMaxPerSecond() {
+        return Math.max(0, debugMaxPerSecond);
+    }
+
     public DiscordConfig getDiscordConfig() {
         return discordConfig;
     }
@@ -77,10 +128,33 @@ public final class DiscordBridgeConfig {
         return messagesConfig;
     }
 
+    public OutboundConfig getOutboundConfig() {
+        return outboundConfig;
+    }
+
+    public InboundConfig getInboundConfig() {
+        return inboundConfig;
+    }
+
+    public HubConfig getHubConfig() {
+        return hubConfig;
+    }
+
+    public MetricsConfig getMetricsConfig() {
+        return metricsConfig;
+    }
+
     /**
      * @return {@code true} if we have enough information to start the Discord bot.
      */
     public boolean canStartBot() {
         return isEnabled() && discordConfig.isValid();
     }
+
+    /**
+     * @return {@code true} if Discord is reached through a hub rather than a bot of our own.
+     */
+    public boolean canStartHubClient() {
+        return isEnabled() && hubConfig.isClient();
+    }
 }
\ No newline at end of file
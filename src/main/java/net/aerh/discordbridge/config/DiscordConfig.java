@@ -5,6 +5,10 @@ import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
 /**
  * Configuration for Discord bot connection settings.
  */
@@ -48,9 +52,39 @@ public final class DiscordConfig {
                     (cfg, value) -> cfg.useWebhookForChat = value,
                     cfg -> cfg.useWebhookForChat)
             .add()
+            .append(new KeyedCodec<>("BatchWindowMillis", Codec.INTEGER),
+                    (cfg, value) -> cfg.batchWindowMillis = value,
+                    cfg -> cfg.batchWindowMillis)
+            .add()
+            .append(new KeyedCodec<>("MaxBatchLines", Codec.INTEGER),
+                    (cfg, value) -> cfg.maxBatchLines = value,
+                    cfg -> cfg.maxBatchLines)
+            .add()
+            .append(new KeyedCodec<>("WebhookMergeWindowMillis", Codec.INTEGER),
+                    (cfg, value) -> cfg.webhookMergeWindowMillis = value,
+                    cfg -> cfg.webhookMergeWindowMillis)
+            .add()
+            .append(new KeyedCodec<>("WebhookPoolStrategy", Codec.STRING),
+                    (cfg, value) -> cfg.webhookPoolStrategy = value,
+                    cfg -> cfg.webhookPoolStrategy)
+            .add()
+            .append(new KeyedCodec<>("LeanConnection", Codec.BOOLEAN),
+                    (cfg, value) -> cfg.leanConnection = value,
+                    cfg -> cfg.leanConnection)
+            .add()
+            .append(new KeyedCodec<>("AuthorCacheSeconds", Codec.INTEGER),
+                    (cfg, value) -> cfg.authorCacheSeconds = value,
+                    cfg -> cfg.authorCacheSeconds)
+            .add()
             .build();
 
     private static final String DEFAULT_PRESENCE = "Watching the server";
+    private static final int DEFAULT_BATCH_WINDOW_MILLIS = 250;
+    private static final int DEFAULT_MAX_BATCH_LINES = 20;
+    private static final int DEFAULT_WEBHOOK_MERGE_WINDOW_MILLIS = 500;
+    private static final String DEFAULT_WEBHOOK_POOL_STRATEGY = "Affinity";
+    private static final int DEFAULT_AUTHOR_CACHE_SECONDS = 60;
+    private static final Pattern WEBHOOK_URL_SEPARATOR = Pattern.compile("[,\\s]+");
 
     private String botToken = "";
     private String channelId = "";
@@ -61,6 +95,12 @@ public final class DiscordConfig {
     private String locale = "en-US";
     private String webhookUrl = "";
     private boolean useWebhookForChat = false;
+    private int batchWindowMillis = DEFAULT_BATCH_WINDOW_MILLIS;
+    private int maxBatchLines = DEFAULT_MAX_BATCH_LINES;
+    private int webhookMergeWindowMillis = DEFAULT_WEBHOOK_MERGE_WINDOW_MILLIS;
+    private String webhookPoolStrategy = DEFAULT_WEBHOOK_POOL_STRATEGY;
+    private boolean leanConnection = true;
+    private int authorCacheSeconds = DEFAULT_AUTHOR_CACHE_SECONDS;
 
     @NotNull
     public String getBotToken() {
@@ -72,6 +112,17 @@ public final class DiscordConfig {
         return channelId == null ? "" : channelId;
     }
 
+    /**
+     * @return the channel id as a snowflake, or {@code 0} if it is not a valid id
+     */
+    public long getChannelIdLong() {
+        try {
+            return Long.parseUnsignedLong(getChannelId().trim());
+        } catch (NumberFormatException exception) {
+            return 0L;
+        }
+    }
+
     @NotNull
     public String getPresenceMessage() {
         return presenceMessage == null || presenceMessage.isBlank()
@@ -101,14 +152,73 @@ public final class DiscordConfig {
         return webhookUrl == null ? "" : webhookUrl;
     }
 
+    /**
+     * @return the webhook URLs listed in {@code WebhookUrl}, separated by commas or whitespace
+     */
+    @NotNull
+    public List<String> getWebhookUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : WEBHOOK_URL_SEPARATOR.split(getWebhookUrl().trim())) {
+            if (!url.isBlank()) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
+    @NotNull
+    public String getWebhookPoolStrategy() {
+        return webhookPoolStrategy == null || webhookPoolStrategy.isBlank()
+                ? DEFAULT_WEBHOOK_POOL_STRATEGY
+                : webhookPoolStrategy;
+    }
+
     public boolean isUseWebhookForChat() {
         return useWebhookForChat;
     }
 
+    /**
+     * @return how long bot-channel messages are collected before being sent as one batch
+     */
+    public int getBatchWindowMillis() {
+        return Math.max(0, batchWindowMillis);
+    }
+
+    /**
+     * @return the maximum number of lines packed into one bot-channel message, or {@code 0} for no limit
+     */
+    public int getMaxBatchLines() {
+        return Math.max(0, maxBatchLines);
+    }
+
+    /**
+     * @return how long a player's lines are merged once a second one follows within it, or {@code 0} to disable merging
+     */
+    public int getWebhookMergeWindowMillis() {
+        return Math.max(0, webhookMergeWindowMillis);
+    }
+
+    /**
+     * @return {@code true} to connect with only the intents and caches the bridge channel needs
+     */
+    public boolean isLeanConnection() {
+        return leanConnection;
+    }
+
+    /**
+     * With {@link #isLeanConnection()} the bot receives no member or role events, so a cached member's changes
+     * only show once their entry is this old.
+     *
+     * @return how long a Discord member's name, role and colors are reused, in seconds ({@code 0} = not cached)
+     */
+    public int getAuthorCacheSeconds() {
+        return Math.max(0, authorCacheSeconds);
+    }
+
     /**
      * @return {@code true} if the bot can be started with these settings.
      */
     public boolean isValid() {
-        return !getBotToken().isBlank() && !getChannelId().isBlank();
+        return !getBotToken().isBlank() && getChannelIdLong() != 0L;
     }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ public final class EventMessageConfig {
 
     private boolean enabled = true;
     private String message = "";
+    private MessageTemplate messageTemplate;
 
     public EventMessageConfig() {
     }
@@ -41,4 +42,11 @@ public final class EventMessageConfig {
     public String getMessage() {
         return message == null ? "" : message;
     }
+
+    @NotNull
+    public MessageTemplate getMessageTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageTemplate, getMessage());
+        messageTemplate = compiled;
+        return compiled;
+    }
 }
\ No newline at end of file
@@ -38,6 +38,10 @@ public final class EventsConfig {
                     (cfg, value) -> cfg.worldChange = value,
                     cfg -> cfg.worldChange)
             .add()
+            .append(new KeyedCodec<>("PresenceDigest", PresenceDigestConfig.CODEC),
+                    (cfg, value) -> cfg.presenceDigest = value,
+                    cfg -> cfg.presenceDigest)
+            .add()
             .append(new KeyedCodec<>("PlayerDeath", EventMessageConfig.CODEC),
                     (cfg, value) -> cfg.playerDeath = value,
                     cfg -> cfg.playerDeath)
@@ -46,6 +50,10 @@ public final class EventsConfig {
                     (cfg, value) -> cfg.playerKill = value,
                     cfg -> cfg.playerKill)
             .add()
+            .append(new KeyedCodec<>("MassDeath", MassDeathConfig.CODEC),
+                    (cfg, value) -> cfg.massDeath = value,
+                    cfg -> cfg.massDeath)
+            .add()
             .append(new KeyedCodec<>("ZoneDiscovery", EventMessageConfig.CODEC),
                     (cfg, value) -> cfg.zoneDiscovery = value,
                     cfg -> cfg.zoneDiscovery)
@@ -73,6 +81,7 @@ public final class EventsConfig {
     private EventMessageConfig worldEnter = new EventMessageConfig(true, DEFAULT_WORLD_ENTER);
     private EventMessageConfig worldLeave = new EventMessageConfig(true, DEFAULT_WORLD_LEAVE);
     private EventMessageConfig worldChange = new EventMessageConfig(true, DEFAULT_WORLD_CHANGE);
+    private PresenceDigestConfig presenceDigest = new PresenceDigestConfig();
     private EventMessageConfig playerDeath = new EventMessageConfig(true, DEFAULT_PLAYER_DEATH);
     private PlayerKillConfig playerKill = new PlayerKillConfig(
             true,
@@ -81,6 +90,7 @@ public final class EventsConfig {
             DEFAULT_PLAYER_KILL_WITH_PROJECTILE,
             DEFAULT_PLAYER_KILL_WITH_PROJECTILE_UNKNOWN
     );
+    private MassDeathConfig massDeath = new MassDeathConfig();
     private EventMessageConfig zoneDiscovery = new EventMessageConfig(true, DEFAULT_ZONE_DISCOVERY);
 
     public EventMessageConfig getServerStart() {
@@ -111,6 +121,10 @@ public final class EventsConfig {
         return worldChange;
     }
 
+    public PresenceDigestConfig getPresenceDigest() {
+        return presenceDigest == null ? new PresenceDigestConfig() : presenceDigest;
+    }
+
     public EventMessageConfig getPlayerDeath() {
         return playerDeath;
     }
@@ -119,6 +133,10 @@ public final class EventsConfig {
         return playerKill;
     }
 
+    public MassDeathConfig getMassDeath() {
+        return massDeath == null ? new MassDeathConfig() : massDeath;
+    }
+
     public EventMessageConfig getZoneDiscovery() {
         return zoneDiscovery;
     }
@@ -0,0 +1,85 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Configuration for sharing one Discord connection between several servers.
+ */
+public final class HubConfig {
+
+    public static final BuilderCodec<HubConfig> CODEC = BuilderCodec
+            .builder(HubConfig.class, HubConfig::new)
+            .append(new KeyedCodec<>("Mode", Codec.STRING),
+                    (cfg, value) -> cfg.mode = value,
+                    cfg -> cfg.mode)
+            .add()
+            .append(new KeyedCodec<>("Address", Codec.STRING),
+                    (cfg, value) -> cfg.address = value,
+                    cfg -> cfg.address)
+            .add()
+            .append(new KeyedCodec<>("Secret", Codec.STRING),
+                    (cfg, value) -> cfg.secret = value,
+                    cfg -> cfg.secret)
+            .add()
+            .append(new KeyedCodec<>("ServerName", Codec.STRING),
+                    (cfg, value) -> cfg.serverName = value,
+                    cfg -> cfg.serverName)
+            .add()
+            .build();
+
+    private static final String DEFAULT_ADDRESS = "127.0.0.1:25590";
+    private static final String DEFAULT_SERVER_NAME = "server";
+
+    private String mode = "Off";
+    private String address = DEFAULT_ADDRESS;
+    private String secret = "";
+    private String serverName = DEFAULT_SERVER_NAME;
+
+    /**
+     * @return {@code true} if this server holds the Discord connection and shares it with clients
+     */
+    public boolean isHost() {
+        return "host".equals(normalizedMode());
+    }
+
+    /**
+     * @return {@code true} if this server uses a hub's Discord connection instead of its own
+     */
+    public boolean isClient() {
+        return "client".equals(normalizedMode());
+    }
+
+    /**
+     * @return {@code host:port}, or {@code unix:} followed by a socket file path
+     */
+    @NotNull
+    public String getAddress() {
+        return address == null || address.isBlank() ? DEFAULT_ADDRESS : address.trim();
+    }
+
+    /**
+     * @return the secret clients must present to the hub
+     */
+    @NotNull
+    public String getSecret() {
+        return secret == null ? "" : secret;
+    }
+
+    /**
+     * @return the name this server uses when it connects to a hub, for the hub's logs
+     */
+    @NotNull
+    public String getServerName() {
+        return serverName == null || serverName.isBlank() ? DEFAULT_SERVER_NAME : serverName;
+    }
+
+    @NotNull
+    private String normalizedMode() {
+        return mode == null ? "" : mode.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,110 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for how Discord messages are queued and delivered in game.
+ */
+public final class InboundConfig {
+
+    public static final BuilderCodec<InboundConfig> CODEC = BuilderCodec
+            .builder(InboundConfig.class, InboundConfig::new)
+            .append(new KeyedCodec<>("QueueCapacity", Codec.INTEGER),
+                    (cfg, value) -> cfg.queueCapacity = value,
+                    cfg -> cfg.queueCapacity)
+            .add()
+            .append(new KeyedCodec<>("TickMillis", Codec.INTEGER),
+                    (cfg, value) -> cfg.tickMillis = value,
+                    cfg -> cfg.tickMillis)
+            .add()
+            .append(new KeyedCodec<>("MaxMessagesPerTick", Codec.INTEGER),
+                    (cfg, value) -> cfg.maxMessagesPerTick = value,
+                    cfg -> cfg.maxMessagesPerTick)
+            .add()
+            .append(new KeyedCodec<>("AuthorBurst", Codec.INTEGER),
+                    (cfg, value) -> cfg.authorBurst = value,
+                    cfg -> cfg.authorBurst)
+            .add()
+            .append(new KeyedCodec<>("AuthorMessagesPerMinute", Codec.INTEGER),
+                    (cfg, value) -> cfg.authorMessagesPerMinute = value,
+                    cfg -> cfg.authorMessagesPerMinute)
+            .add()
+            .append(new KeyedCodec<>("GlobalMessagesPerSecond", Codec.INTEGER),
+                    (cfg, value) -> cfg.globalMessagesPerSecond = value,
+                    cfg -> cfg.globalMessagesPerSecond)
+            .add()
+            .append(new KeyedCodec<>("FloodAction", Codec.STRING),
+                    (cfg, value) -> cfg.floodAction = value,
+                    cfg -> cfg.floodAction)
+            .add()
+            .build();
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final int DEFAULT_TICK_MILLIS = 50;
+    private static final int DEFAULT_MAX_MESSAGES_PER_TICK = 5;
+    private static final int DEFAULT_AUTHOR_BURST = 5;
+    private static final int DEFAULT_AUTHOR_MESSAGES_PER_MINUTE = 20;
+    private static final int DEFAULT_GLOBAL_MESSAGES_PER_SECOND = 5;
+    private static final String FLOOD_ACTION_DROP = "Drop";
+    private static final String FLOOD_ACTION_COLLAPSE = "Collapse";
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int tickMillis = DEFAULT_TICK_MILLIS;
+    private int maxMessagesPerTick = DEFAULT_MAX_MESSAGES_PER_TICK;
+    private int authorBurst = DEFAULT_AUTHOR_BURST;
+    private int authorMessagesPerMinute = DEFAULT_AUTHOR_MESSAGES_PER_MINUTE;
+    private int globalMessagesPerSecond = DEFAULT_GLOBAL_MESSAGES_PER_SECOND;
+    private String floodAction = FLOOD_ACTION_COLLAPSE;
+
+    /**
+     * @return how many Discord messages may wait for delivery before the oldest are dropped
+     */
+    public int getQueueCapacity() {
+        return queueCapacity <= 0 ? DEFAULT_QUEUE_CAPACITY : queueCapacity;
+    }
+
+    /**
+     * @return how often queued messages are handed to the worlds, in milliseconds
+     */
+    public int getTickMillis() {
+        return tickMillis <= 0 ? DEFAULT_TICK_MILLIS : tickMillis;
+    }
+
+    /**
+     * @return the most messages delivered to each world per tick
+     */
+    public int getMaxMessagesPerTick() {
+        return maxMessagesPerTick <= 0 ? DEFAULT_MAX_MESSAGES_PER_TICK : maxMessagesPerTick;
+    }
+
+    /**
+     * @return how many messages an author may send back to back before their rate applies
+     */
+    public int getAuthorBurst() {
+        return authorBurst <= 0 ? DEFAULT_AUTHOR_BURST : authorBurst;
+    }
+
+    /**
+     * @return the sustained rate at which an author's messages are relayed
+     */
+    public int getAuthorMessagesPerMinute() {
+        return authorMessagesPerMinute <= 0 ? DEFAULT_AUTHOR_MESSAGES_PER_MINUTE : authorMessagesPerMinute;
+    }
+
+    /**
+     * @return the most messages relayed per second across all authors, or {@code 0} for no limit
+     */
+    public int getGlobalMessagesPerSecond() {
+        return Math.max(0, globalMessagesPerSecond);
+    }
+
+    /**
+     * @return {@code true} if messages over the limit are counted and reported with the author's next
+     * relayed message, {@code false} if they are silently dropped
+     */
+    public boolean isCollapseFlood() {
+        return !FLOOD_ACTION_DROP.equalsIgnoreCase(floodAction);
+    }
+}
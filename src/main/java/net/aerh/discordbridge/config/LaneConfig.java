@@ -0,0 +1,48 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Scheduling settings for one outbound priority lane.
+ */
+public final class LaneConfig {
+
+    public static final BuilderCodec<LaneConfig> CODEC = BuilderCodec
+            .builder(LaneConfig.class, LaneConfig::new)
+            .append(new KeyedCodec<>("Weight", Codec.INTEGER),
+                    (cfg, value) -> cfg.weight = value,
+                    cfg -> cfg.weight)
+            .add()
+            .append(new KeyedCodec<>("MaxAgeSeconds", Codec.INTEGER),
+                    (cfg, value) -> cfg.maxAgeSeconds = value,
+                    cfg -> cfg.maxAgeSeconds)
+            .add()
+            .build();
+
+    private int weight = 1;
+    private int maxAgeSeconds = 0;
+
+    public LaneConfig() {
+    }
+
+    public LaneConfig(int weight, int maxAgeSeconds) {
+        this.weight = weight;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * @return the lane's share of sends relative to the other lanes
+     */
+    public int getWeight() {
+        return Math.max(1, weight);
+    }
+
+    /**
+     * @return how long a message may wait on the lane before it is discarded, or {@code 0} for no limit
+     */
+    public int getMaxAgeSeconds() {
+        return Math.max(0, maxAgeSeconds);
+    }
+}
@@ -0,0 +1,75 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration for collapsing bursts of deaths with the same cause or killer into summary lines.
+ */
+public final class MassDeathConfig {
+
+    public static final BuilderCodec<MassDeathConfig> CODEC = BuilderCodec
+            .builder(MassDeathConfig.class, MassDeathConfig::new)
+            .append(new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (cfg, value) -> cfg.enabled = value,
+                    cfg -> cfg.enabled)
+            .add()
+            .append(new KeyedCodec<>("WindowSeconds", Codec.INTEGER),
+                    (cfg, value) -> cfg.windowSeconds = value,
+                    cfg -> cfg.windowSeconds)
+            .add()
+            .append(new KeyedCodec<>("Threshold", Codec.INTEGER),
+                    (cfg, value) -> cfg.threshold = value,
+                    cfg -> cfg.threshold)
+            .add()
+            .append(new KeyedCodec<>("Message", Codec.STRING),
+                    (cfg, value) -> cfg.message = value,
+                    cfg -> cfg.message)
+            .add()
+            .build();
+
+    private static final int DEFAULT_WINDOW_SECONDS = 10;
+    private static final int DEFAULT_THRESHOLD = 5;
+    private static final String DEFAULT_MESSAGE = ":skull_crossbones: %count% more players were slain by %cause%.";
+
+    private boolean enabled = true;
+    private int windowSeconds = DEFAULT_WINDOW_SECONDS;
+    private int threshold = DEFAULT_THRESHOLD;
+    private String message = DEFAULT_MESSAGE;
+    private MessageTemplate messageTemplate;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the sliding window deaths are grouped over, in seconds
+     */
+    public int getWindowSeconds() {
+        return windowSeconds <= 0 ? DEFAULT_WINDOW_SECONDS : windowSeconds;
+    }
+
+    /**
+     * @return how many deaths a group may announce individually within the window before it is summarized
+     */
+    public int getThreshold() {
+        return threshold <= 0 ? DEFAULT_THRESHOLD : threshold;
+    }
+
+    /**
+     * @return the summary template for deaths grouped by cause
+     */
+    @NotNull
+    public String getMessage() {
+        return message == null ? "" : message;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageTemplate, getMessage());
+        messageTemplate = compiled;
+        return compiled;
+    }
+}
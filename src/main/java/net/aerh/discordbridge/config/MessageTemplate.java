@@ -0,0 +1,140 @@
+package net.aerh.discordbridge.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message template compiled into literal and placeholder segments, so rendering is a single pass
+ * into a builder sized up front. Unrecognized {@code %name%} sequences are kept as literal text, and
+ * placeholders without a value are rendered as written.
+ */
+public final class MessageTemplate {
+
+    private final String source;
+    // One entry per segment; a null placeholder means the segment is the literal at the same index
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int literalLength;
+
+    private MessageTemplate(@NotNull String source, @NotNull String[] literals, @NotNull Placeholder[] placeholders, int literalLength) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.literalLength = literalLength;
+    }
+
+    @NotNull
+    public static MessageTemplate compile(@NotNull String source) {
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        int literalLength = 0;
+        int literalStart = 0;
+        int index = 0;
+        while (index < source.length()) {
+            int open = source.indexOf('%', index);
+            if (open < 0) {
+                break;
+            }
+
+            int close = source.indexOf('%', open + 1);
+            if (close < 0) {
+                break;
+            }
+
+            Placeholder placeholder = Placeholder.byName(source.substring(open + 1, close));
+            if (placeholder == null) {
+                // Not a placeholder; the closing percent may open the next one
+                index = close;
+                continue;
+            }
+
+            if (open > literalStart) {
+                literals.add(source.substring(literalStart, open));
+                placeholders.add(null);
+                literalLength += open - literalStart;
+            }
+            literals.add(null);
+            placeholders.add(placeholder);
+            literalStart = close + 1;
+            index = literalStart;
+        }
+
+        if (literalStart < source.length()) {
+            literals.add(source.substring(literalStart));
+            placeholders.add(null);
+            literalLength += source.length() - literalStart;
+        }
+
+        return new MessageTemplate(
+                source,
+                literals.toArray(String[]::new),
+                placeholders.toArray(Placeholder[]::new),
+                literalLength
+        );
+    }
+
+    /**
+     * Returns {@code cached} if it was compiled from {@code source}, otherwise compiles {@code source}.
+     * Lets configs keep a compiled template that is only rebuilt when the configured text changes.
+     */
+    @NotNull
+    public static MessageTemplate refresh(@Nullable MessageTemplate cached, @NotNull String source) {
+        if (cached != null && (cached.source == source || cached.source.equals(source))) {
+            return cached;
+        }
+
+        return compile(source);
+    }
+
+    @NotNull
+    public String source() {
+        return source;
+    }
+
+    public boolean isEmpty() {
+        return source.isEmpty();
+    }
+
+    /**
+     * Renders the template. Values from {@link TemplateValues#scratch()} go back to the pool afterwards.
+     */
+    @NotNull
+    public String render(@NotNull TemplateValues values) {
+        try {
+            return renderValues(values);
+        } finally {
+            values.release();
+        }
+    }
+
+    @NotNull
+    private String renderValues(@NotNull TemplateValues values) {
+        if (placeholders.length == 0 || (placeholders.length == 1 && placeholders[0] == null)) {
+            return source;
+        }
+
+        int length = literalLength;
+        for (Placeholder placeholder : placeholders) {
+            if (placeholder != null) {
+                String value = values.get(placeholder);
+                length += value == null ? placeholder.token().length() : value.length();
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < placeholders.length; i++) {
+            Placeholder placeholder = placeholders[i];
+            if (placeholder == null) {
+                builder.append(literals[i]);
+            } else {
+                String value = values.get(placeholder);
+                builder.append(value == null ? placeholder.token() : value);
+            }
+        }
+
+        return builder.toString();
+    }
+}
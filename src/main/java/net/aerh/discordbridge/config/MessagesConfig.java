@@ -49,6 +49,7 @@ public final class MessagesConfig {
     private String defaultRoleColor = "#99AAB5";
     private String contentColor = "#FFFFFF";
     private String avatarUrlFormat = "https://crafthead.net/hytale/cube/%s";
+    private MessageTemplate compiledOutboundTemplate;
 
     @NotNull
     public String getDiscordLabel() {
@@ -90,4 +91,11 @@ public final class MessagesConfig {
                 ? "https://crafthead.net/hytale/cube/%s"
                 : avatarUrlFormat;
     }
+
+    @NotNull
+    public MessageTemplate getCompiledOutboundTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(compiledOutboundTemplate, getOutboundTemplate());
+        compiledOutboundTemplate = compiled;
+        return compiled;
+    }
 }
\ No newline at end of file
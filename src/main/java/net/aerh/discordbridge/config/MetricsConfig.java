@@ -0,0 +1,50 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration for how the bridge's metrics are exposed.
+ */
+public final class MetricsConfig {
+
+    public static final BuilderCodec<MetricsConfig> CODEC = BuilderCodec
+            .builder(MetricsConfig.class, MetricsConfig::new)
+            .append(new KeyedCodec<>("Jmx", Codec.BOOLEAN),
+                    (cfg, value) -> cfg.jmxEnabled = value,
+                    cfg -> cfg.jmxEnabled)
+            .add()
+            .append(new KeyedCodec<>("HttpPort", Codec.INTEGER),
+                    (cfg, value) -> cfg.httpPort = value,
+                    cfg -> cfg.httpPort)
+            .add()
+            .append(new KeyedCodec<>("HttpBindAddress", Codec.STRING),
+                    (cfg, value) -> cfg.httpBindAddress = value,
+                    cfg -> cfg.httpBindAddress)
+            .add()
+            .build();
+
+    private static final String DEFAULT_HTTP_BIND_ADDRESS = "127.0.0.1";
+
+    private boolean jmxEnabled = true;
+    private int httpPort = 0;
+    private String httpBindAddress = DEFAULT_HTTP_BIND_ADDRESS;
+
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * @return the port of the Prometheus endpoint, or {@code 0} if it is disabled
+     */
+    public int getHttpPort() {
+        return httpPort > 0 && httpPort <= 65535 ? httpPort : 0;
+    }
+
+    @NotNull
+    public String getHttpBindAddress() {
+        return httpBindAddress == null || httpBindAddress.isBlank() ? DEFAULT_HTTP_BIND_ADDRESS : httpBindAddress.trim();
+    }
+}
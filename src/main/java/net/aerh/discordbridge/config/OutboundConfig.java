@@ -0,0 +1,190 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration for how outbound game traffic is queued before it reaches Discord.
+ */
+public final class OutboundConfig {
+
+    public static final BuilderCodec<OutboundConfig> CODEC = BuilderCodec
+            .builder(OutboundConfig.class, OutboundConfig::new)
+            .append(new KeyedCodec<>("ChatQueueCapacity", Codec.INTEGER),
+                    (cfg, value) -> cfg.chatQueueCapacity = value,
+                    cfg -> cfg.chatQueueCapacity)
+            .add()
+            .append(new KeyedCodec<>("ChatQueueOverflowPolicy", Codec.STRING),
+                    (cfg, value) -> cfg.chatQueueOverflowPolicy = value,
+                    cfg -> cfg.chatQueueOverflowPolicy)
+            .add()
+            .append(new KeyedCodec<>("ChatQueueBlockTimeoutMillis", Codec.INTEGER),
+                    (cfg, value) -> cfg.chatQueueBlockTimeoutMillis = value,
+                    cfg -> cfg.chatQueueBlockTimeoutMillis)
+            .add()
+            .append(new KeyedCodec<>("OutboxEnabled", Codec.BOOLEAN),
+                    (cfg, value) -> cfg.outboxEnabled = value,
+                    cfg -> cfg.outboxEnabled)
+            .add()
+            .append(new KeyedCodec<>("OutboxMaxBytes", Codec.INTEGER),
+                    (cfg, value) -> cfg.outboxMaxBytes = value,
+                    cfg -> cfg.outboxMaxBytes)
+            .add()
+            .append(new KeyedCodec<>("OutboxMaxAgeSeconds", Codec.INTEGER),
+                    (cfg, value) -> cfg.outboxMaxAgeSeconds = value,
+                    cfg -> cfg.outboxMaxAgeSeconds)
+            .add()
+            .append(new KeyedCodec<>("OutboxFlushIntervalMillis", Codec.INTEGER),
+                    (cfg, value) -> cfg.outboxFlushIntervalMillis = value,
+                    cfg -> cfg.outboxFlushIntervalMillis)
+            .add()
+            .append(new KeyedCodec<>("EarlyBacklogCapacity", Codec.INTEGER),
+                    (cfg, value) -> cfg.earlyBacklogCapacity = value,
+                    cfg -> cfg.earlyBacklogCapacity)
+            .add()
+            .append(new KeyedCodec<>("EarlyBacklogMaxAgeSeconds", Codec.INTEGER),
+                    (cfg, value) -> cfg.earlyBacklogMaxAgeSeconds = value,
+                    cfg -> cfg.earlyBacklogMaxAgeSeconds)
+            .add()
+            .append(new KeyedCodec<>("MaxMessagesPerFlush", Codec.INTEGER),
+                    (cfg, value) -> cfg.maxMessagesPerFlush = value,
+                    cfg -> cfg.maxMessagesPerFlush)
+            .add()
+            .append(new KeyedCodec<>("ShedBacklogThreshold", Codec.INTEGER),
+                    (cfg, value) -> cfg.shedBacklogThreshold = value,
+                    cfg -> cfg.shedBacklogThreshold)
+            .add()
+            .append(new KeyedCodec<>("LifecycleLane", LaneConfig.CODEC),
+                    (cfg, value) -> cfg.lifecycleLane = value,
+                    cfg -> cfg.lifecycleLane)
+            .add()
+            .append(new KeyedCodec<>("ChatLane", LaneConfig.CODEC),
+                    (cfg, value) -> cfg.chatLane = value,
+                    cfg -> cfg.chatLane)
+            .add()
+            .append(new KeyedCodec<>("PresenceLane", LaneConfig.CODEC),
+                    (cfg, value) -> cfg.presenceLane = value,
+                    cfg -> cfg.presenceLane)
+            .add()
+            .append(new KeyedCodec<>("KillFeedLane", LaneConfig.CODEC),
+                    (cfg, value) -> cfg.killFeedLane = value,
+                    cfg -> cfg.killFeedLane)
+            .add()
+            .append(new KeyedCodec<>("ZoneDiscoveryLane", LaneConfig.CODEC),
+                    (cfg, value) -> cfg.zoneDiscoveryLane = value,
+                    cfg -> cfg.zoneDiscoveryLane)
+            .add()
+            .build();
+
+    private static final int DEFAULT_CHAT_QUEUE_CAPACITY = 4096;
+    private static final String DEFAULT_CHAT_QUEUE_OVERFLOW_POLICY = "DropOldest";
+    private static final int DEFAULT_CHAT_QUEUE_BLOCK_TIMEOUT_MILLIS = 20;
+    private static final int DEFAULT_OUTBOX_MAX_BYTES = 1024 * 1024;
+    private static final int DEFAULT_OUTBOX_MAX_AGE_SECONDS = 3600;
+    private static final int DEFAULT_OUTBOX_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final int DEFAULT_EARLY_BACKLOG_CAPACITY = 512;
+    private static final int DEFAULT_EARLY_BACKLOG_MAX_AGE_SECONDS = 300;
+    private static final int DEFAULT_MAX_MESSAGES_PER_FLUSH = 2;
+    private static final int DEFAULT_SHED_BACKLOG_THRESHOLD = 500;
+
+    private int chatQueueCapacity = DEFAULT_CHAT_QUEUE_CAPACITY;
+    private String chatQueueOverflowPolicy = DEFAULT_CHAT_QUEUE_OVERFLOW_POLICY;
+    private int chatQueueBlockTimeoutMillis = DEFAULT_CHAT_QUEUE_BLOCK_TIMEOUT_MILLIS;
+    private boolean outboxEnabled = true;
+    private int outboxMaxBytes = DEFAULT_OUTBOX_MAX_BYTES;
+    private int outboxMaxAgeSeconds = DEFAULT_OUTBOX_MAX_AGE_SECONDS;
+    private int outboxFlushIntervalMillis = DEFAULT_OUTBOX_FLUSH_INTERVAL_MILLIS;
+    private int earlyBacklogCapacity = DEFAULT_EARLY_BACKLOG_CAPACITY;
+    private int earlyBacklogMaxAgeSeconds = DEFAULT_EARLY_BACKLOG_MAX_AGE_SECONDS;
+    private int maxMessagesPerFlush = DEFAULT_MAX_MESSAGES_PER_FLUSH;
+    private int shedBacklogThreshold = DEFAULT_SHED_BACKLOG_THRESHOLD;
+    private LaneConfig lifecycleLane = new LaneConfig(100, 0);
+    private LaneConfig chatLane = new LaneConfig(8, 30);
+    private LaneConfig presenceLane = new LaneConfig(4, 60);
+    private LaneConfig killFeedLane = new LaneConfig(2, 30);
+    private LaneConfig zoneDiscoveryLane = new LaneConfig(1, 120);
+
+    public int getChatQueueCapacity() {
+        return chatQueueCapacity <= 0 ? DEFAULT_CHAT_QUEUE_CAPACITY : chatQueueCapacity;
+    }
+
+    /**
+     * @return {@code DropOldest}, {@code DropNewest} or {@code Block}
+     */
+    @NotNull
+    public String getChatQueueOverflowPolicy() {
+        return chatQueueOverflowPolicy == null || chatQueueOverflowPolicy.isBlank()
+                ? DEFAULT_CHAT_QUEUE_OVERFLOW_POLICY
+                : chatQueueOverflowPolicy;
+    }
+
+    public int getChatQueueBlockTimeoutMillis() {
+        return Math.max(0, chatQueueBlockTimeoutMillis);
+    }
+
+    public boolean isOutboxEnabled() {
+        return outboxEnabled;
+    }
+
+    public int getOutboxMaxBytes() {
+        return outboxMaxBytes <= 0 ? DEFAULT_OUTBOX_MAX_BYTES : outboxMaxBytes;
+    }
+
+    public int getOutboxMaxAgeSeconds() {
+        return outboxMaxAgeSeconds <= 0 ? DEFAULT_OUTBOX_MAX_AGE_SECONDS : outboxMaxAgeSeconds;
+    }
+
+    public int getOutboxFlushIntervalMillis() {
+        return outboxFlushIntervalMillis <= 0 ? DEFAULT_OUTBOX_FLUSH_INTERVAL_MILLIS : outboxFlushIntervalMillis;
+    }
+
+    /**
+     * @return the most messages held until the Discord connection is first ready
+     */
+    public int getEarlyBacklogCapacity() {
+        return earlyBacklogCapacity <= 0 ? DEFAULT_EARLY_BACKLOG_CAPACITY : earlyBacklogCapacity;
+    }
+
+    /**
+     * @return how long a message may wait for the connection to become ready, or {@code 0} for no limit
+     */
+    public int getEarlyBacklogMaxAgeSeconds() {
+        return Math.max(0, earlyBacklogMaxAgeSeconds);
+    }
+
+    /**
+     * @return the maximum number of bot-channel messages sent per flush window, or {@code 0} for no limit
+     */
+    public int getMaxMessagesPerFlush() {
+        return Math.max(0, maxMessagesPerFlush);
+    }
+
+    /**
+     * @return the queued line count above which the lowest-priority lanes are shed, or {@code 0} for no limit
+     */
+    public int getShedBacklogThreshold() {
+        return Math.max(0, shedBacklogThreshold);
+    }
+
+    public LaneConfig getLifecycleLane() {
+        return lifecycleLane;
+    }
+
+    public LaneConfig getChatLane() {
+        return chatLane;
+    }
+
+    public LaneConfig getPresenceLane() {
+        return presenceLane;
+    }
+
+    public LaneConfig getKillFeedLane() {
+        return killFeedLane;
+    }
+
+    public LaneConfig getZoneDiscoveryLane() {
+        return zoneDiscoveryLane;
+    }
+}
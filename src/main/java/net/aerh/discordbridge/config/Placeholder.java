@@ -0,0 +1,63 @@
+package net.aerh.discordbridge.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Placeholders recognized in outbound message templates.
+ */
+public enum Placeholder {
+    PLAYER("player"),
+    MESSAGE("message"),
+    WORLD("world"),
+    FROM("from"),
+    TO("to"),
+    CAUSE("cause"),
+    KILLER("killer"),
+    VICTIM("victim"),
+    ITEM("item"),
+    PROJECTILE("projectile"),
+    ZONE("zone"),
+    REGION("region"),
+    COUNT("count"),
+    JOINED("joined"),
+    LEFT("left"),
+    MOVED("moved"),
+    SECONDS("seconds");
+
+    private static final Map<String, Placeholder> BY_NAME = new HashMap<>();
+
+    static {
+        for (Placeholder placeholder : values()) {
+            BY_NAME.put(placeholder.name, placeholder);
+        }
+    }
+
+    private final String name;
+    private final String token;
+
+    Placeholder(@NotNull String name) {
+        this.name = name;
+        this.token = "%" + name + "%";
+    }
+
+    /**
+     * @return the placeholder as written in templates, e.g. {@code %player%}
+     */
+    @NotNull
+    public String token() {
+        return token;
+    }
+
+    /**
+     * @param name the text between the percent signs
+     * @return the matching placeholder, or {@code null} if the name is not recognized
+     */
+    @Nullable
+    static Placeholder byName(@NotNull String name) {
+        return BY_NAME.get(name);
+    }
+}
@@ -32,13 +32,26 @@ public final class PlayerKillConfig {
                     (cfg, value) -> cfg.messageWithProjectileUnknown = value,
                     cfg -> cfg.messageWithProjectileUnknown)
             .add()
+            .append(new KeyedCodec<>("MessageMassKill", Codec.STRING),
+                    (cfg, value) -> cfg.messageMassKill = value,
+                    cfg -> cfg.messageMassKill)
+            .add()
             .build();
 
+    // Added after the other templates, so configs saved before it existed pick this up instead of a blank line
+    private static final String DEFAULT_MESSAGE_MASS_KILL = ":crossed_swords: %killer% slew %count% more players.";
+
     private boolean enabled = true;
     private String message = "";
     private String messageWithItem = "";
     private String messageWithProjectile = "";
     private String messageWithProjectileUnknown = "";
+    private String messageMassKill = DEFAULT_MESSAGE_MASS_KILL;
+    private MessageTemplate messageTemplate;
+    private MessageTemplate messageWithItemTemplate;
+    private MessageTemplate messageWithProjectileTemplate;
+    private MessageTemplate messageWithProjectileUnknownTemplate;
+    private MessageTemplate messageMassKillTemplate;
 
     public PlayerKillConfig() {
     }
@@ -80,4 +93,47 @@ public final class PlayerKillConfig {
     public String getMessageWithProjectileUnknown() {
         return messageWithProjectileUnknown == null ? "" : messageWithProjectileUnknown;
     }
+
+    /**
+     * @return the summary template for kills grouped by killer when mass-death aggregation kicks in
+     */
+    @NotNull
+    public String getMessageMassKill() {
+        return messageMassKill == null ? "" : messageMassKill;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageTemplate, getMessage());
+        messageTemplate = compiled;
+        return compiled;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageWithItemTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageWithItemTemplate, getMessageWithItem());
+        messageWithItemTemplate = compiled;
+        return compiled;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageWithProjectileTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageWithProjectileTemplate, getMessageWithProjectile());
+        messageWithProjectileTemplate = compiled;
+        return compiled;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageWithProjectileUnknownTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageWithProjectileUnknownTemplate, getMessageWithProjectileUnknown());
+        messageWithProjectileUnknownTemplate = compiled;
+        return compiled;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageMassKillTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageMassKillTemplate, getMessageMassKill());
+        messageMassKillTemplate = compiled;
+        return compiled;
+    }
 }
\ No newline at end of file
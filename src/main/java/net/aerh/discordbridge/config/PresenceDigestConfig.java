@@ -0,0 +1,72 @@
+package net.aerh.discordbridge.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration for summarizing join, leave and world notices while they arrive faster than a threshold.
+ */
+public final class PresenceDigestConfig {
+
+    public static final BuilderCodec<PresenceDigestConfig> CODEC = BuilderCodec
+            .builder(PresenceDigestConfig.class, PresenceDigestConfig::new)
+            .append(new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (cfg, value) -> cfg.enabled = value,
+                    cfg -> cfg.enabled)
+            .add()
+            .append(new KeyedCodec<>("WindowSeconds", Codec.INTEGER),
+                    (cfg, value) -> cfg.windowSeconds = value,
+                    cfg -> cfg.windowSeconds)
+            .add()
+            .append(new KeyedCodec<>("Threshold", Codec.INTEGER),
+                    (cfg, value) -> cfg.threshold = value,
+                    cfg -> cfg.threshold)
+            .add()
+            .append(new KeyedCodec<>("Message", Codec.STRING),
+                    (cfg, value) -> cfg.message = value,
+                    cfg -> cfg.message)
+            .add()
+            .build();
+
+    private static final int DEFAULT_WINDOW_SECONDS = 10;
+    private static final int DEFAULT_THRESHOLD = 15;
+    private static final String DEFAULT_MESSAGE = ":busts_in_silhouette: +%joined% joined, -%left% left, %moved% world changes in the last %seconds%s.";
+
+    private boolean enabled = true;
+    private int windowSeconds = DEFAULT_WINDOW_SECONDS;
+    private int threshold = DEFAULT_THRESHOLD;
+    private String message = DEFAULT_MESSAGE;
+    private MessageTemplate messageTemplate;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the length of each counting window, and how often summaries are sent, in seconds
+     */
+    public int getWindowSeconds() {
+        return windowSeconds <= 0 ? DEFAULT_WINDOW_SECONDS : windowSeconds;
+    }
+
+    /**
+     * @return how many notices a window may contain before digest mode starts
+     */
+    public int getThreshold() {
+        return threshold <= 0 ? DEFAULT_THRESHOLD : threshold;
+    }
+
+    @NotNull
+    public String getMessage() {
+        return message == null ? "" : message;
+    }
+
+    @NotNull
+    public MessageTemplate getMessageTemplate() {
+        MessageTemplate compiled = MessageTemplate.refresh(messageTemplate, getMessage());
+        messageTemplate = compiled;
+        return compiled;
+    }
+}
@@ -0,0 +1,72 @@
+package net.aerh.discordbridge.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Placeholder values for rendering a {@link MessageTemplate}.
+ * <p>
+ * {@link #scratch()} hands out instances from a small per-thread pool so rendering does not allocate one per
+ * message, and {@link MessageTemplate#render} returns them. An instance is never handed out twice before it is
+ * rendered, so filling one while another is being filled on the same thread (say, a summary sent from inside an
+ * event handler) is safe. Render a scratch instance once; one that is never rendered is simply not reused.
+ */
+public final class TemplateValues {
+
+    // Nested scratch use on one thread is at most a couple deep
+    private static final int POOL_SIZE = 4;
+    private static final ThreadLocal<ArrayDeque<TemplateValues>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final String[] values = new String[Placeholder.values().length];
+    // Handed out by scratch() and not yet returned by render
+    private boolean borrowed;
+
+    /**
+     * @return a cleared instance that no one else on this thread is using
+     */
+    @NotNull
+    public static TemplateValues scratch() {
+        TemplateValues scratch = POOL.get().pollFirst();
+        if (scratch == null) {
+            scratch = new TemplateValues();
+        }
+        scratch.borrowed = true;
+        return scratch;
+    }
+
+    // Called once rendering is done with the values
+    void release() {
+        if (!borrowed) {
+            return;
+        }
+
+        borrowed = false;
+        Arrays.fill(values, null);
+        ArrayDeque<TemplateValues> pool = POOL.get();
+        if (pool.size() < POOL_SIZE) {
+            pool.addFirst(this);
+        }
+    }
+
+    @NotNull
+    public TemplateValues set(@NotNull Placeholder placeholder, @NotNull String value) {
+        values[placeholder.ordinal()] = value;
+        return this;
+    }
+
+    @NotNull
+    public TemplateValues set(@NotNull Placeholder placeholder, int value) {
+        return set(placeholder, String.valueOf(value));
+    }
+
+    /**
+     * @return the value, or {@code null} if none was set
+     */
+    @Nullable
+    public String get(@NotNull Placeholder placeholder) {
+        return values[placeholder.ordinal()];
+    }
+}
@@ -0,0 +1,101 @@
+package net.aerh.discordbridge.discord;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of how Discord members are shown in game (name, top role and colors), keyed by user
+ * id. Entries expire after a TTL and are dropped early when Discord reports a member or role change;
+ * member events only arrive with the members intent, so the TTL is what bounds staleness on a lean
+ * connection.
+ */
+public final class AuthorStyleCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param ttlNanos how long a style is reused, or {@code 0} to disable the cache
+     */
+    AuthorStyleCache(int maxEntries, long ttlNanos) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = Math.max(0, ttlNanos);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > AuthorStyleCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param now {@link System#nanoTime()}
+     * @return the cached style, or {@code null} if there is none or it expired
+     */
+    @Nullable
+    synchronized AuthorStyle get(long userId, long now) {
+        if (ttlNanos == 0) {
+            return null;
+        }
+
+        Entry entry = entries.get(userId);
+        if (entry == null || now - entry.cachedAt >= ttlNanos) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.style;
+    }
+
+    synchronized void put(long userId, @NotNull AuthorStyle style, long now) {
+        if (ttlNanos != 0) {
+            entries.put(userId, new Entry(style, now));
+        }
+    }
+
+    synchronized void invalidate(long userId) {
+        entries.remove(userId);
+    }
+
+    /**
+     * Drops every entry, e.g. after a role changed.
+     */
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * How a member is shown in game.
+     */
+    record AuthorStyle(
+            @NotNull String displayName,
+            @Nullable String topRoleName,
+            @Nullable Color roleColor,
+            @Nullable Color displayColor
+    ) {
+    }
+
+    private record Entry(@NotNull AuthorStyle style, long cachedAt) {
+    }
+}
@@ -3,18 +3,26 @@ package net.aerh.discordbridge.discord;
 import com.hypixel.hytale.logger.HytaleLogger;
 import net.aerh.discordbridge.config.DiscordBridgeConfig;
 import net.aerh.discordbridge.config.DiscordConfig;
+import net.aerh.discordbridge.discord.AuthorStyleCache.AuthorStyle;
 import net.aerh.discordbridge.discord.model.DiscordMessage;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.GenericRoleUpdateEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.events.session.SessionDisconnectEvent;
+import net.dv8tion.jda.api.events.session.SessionRecreateEvent;
+import net.dv8tion.jda.api.events.session.SessionResumeEvent;
+import net.dv8tion.jda.api.events.user.update.GenericUserUpdateEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
 
-import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -29,34 +37,68 @@ final class BridgeListener extends ListenerAdapter {
     private final CompletableFuture<Void> readyFuture;
     private final Consumer<DiscordMessage> relayToGameChat;
     private final Consumer<TextChannel> discordChannelUpdater;
+    private final Runnable disconnectHandler;
+    private final InboundRateLimiter rateLimiter;
+    private final AuthorStyleCache styleCache;
+    private final long channelId;
 
     BridgeListener(
             @NotNull DiscordBridgeConfig config,
             @NotNull CompletableFuture<Void> readyFuture,
             @NotNull Consumer<DiscordMessage> relayToGameChat,
-            @NotNull Consumer<TextChannel> discordChannelUpdater
+            @NotNull Consumer<TextChannel> discordChannelUpdater,
+            @NotNull Runnable disconnectHandler,
+            @NotNull InboundRateLimiter rateLimiter,
+            @NotNull AuthorStyleCache styleCache
     ) {
         this.config = config;
         this.readyFuture = readyFuture;
         this.relayToGameChat = relayToGameChat;
         this.discordChannelUpdater = discordChannelUpdater;
+        this.disconnectHandler = disconnectHandler;
+        this.rateLimiter = rateLimiter;
+        this.styleCache = styleCache;
+        this.channelId = config.getDiscordConfig().getChannelIdLong();
     }
 
     @Override
     public void onReady(@NotNull ReadyEvent event) {
-        DiscordConfig discordConfig = config.getDiscordConfig();
-        TextChannel channel = event.getJDA().getTextChannelById(discordConfig.getChannelId());
+        if (!resolveChannel(event.getJDA())) {
+            return;
+        }
+
+        LOGGER.at(Level.INFO).log("Discord bot connected as %s", event.getJDA().getSelfUser().getAsTag());
+        readyFuture.complete(null);
+    }
+
+    @Override
+    public void onSessionResume(@NotNull SessionResumeEvent event) {
+        resolveChannel(event.getJDA());
+    }
+
+    @Override
+    public void onSessionRecreate(@NotNull SessionRecreateEvent event) {
+        resolveChannel(event.getJDA());
+    }
+
+    @Override
+    public void onSessionDisconnect(@NotNull SessionDisconnectEvent event) {
+        LOGGER.at(Level.WARNING).log("Discord gateway disconnected; holding outbound messages until reconnected");
+        disconnectHandler.run();
+    }
+
+    private boolean resolveChannel(@NotNull JDA jda) {
+        TextChannel channel = jda.getTextChannelById(channelId);
         if (channel == null) {
             IllegalStateException exception = new IllegalStateException(
-                    "Unable to find text channel with id " + discordConfig.getChannelId());
+                    "Unable to find text channel with id " + Long.toUnsignedString(channelId));
             LOGGER.at(Level.SEVERE).withCause(exception).log("Discord bridge channel missing");
             readyFuture.completeExceptionally(exception);
-            return;
+            return false;
         }
 
         discordChannelUpdater.accept(channel);
-        LOGGER.at(Level.INFO).log("Discord bot connected as %s", event.getJDA().getSelfUser().getAsTag());
-        readyFuture.complete(null);
+        return true;
     }
 
     @Override
@@ -65,7 +107,7 @@ final class BridgeListener extends ListenerAdapter {
 
         if (!config.isRelayDiscordToGame()
                 || event.isFromType(ChannelType.PRIVATE)
-                || !event.getChannel().getId().equals(discordConfig.getChannelId())) {
+                || event.getChannel().getIdLong() != channelId) {
             return;
         }
 
@@ -81,27 +123,87 @@ final class BridgeListener extends ListenerAdapter {
             return;
         }
 
+        long authorId = event.getAuthor().getIdLong();
+        int suppressed = rateLimiter.tryAcquire(authorId, System.nanoTime());
+        if (suppressed == InboundRateLimiter.REJECTED) {
+            return;
+        }
+
         List<String> attachments = new ArrayList<>();
         for (Message.Attachment attachment : event.getMessage().getAttachments()) {
             attachments.add(attachment.getUrl());
         }
 
-        Member member = event.getMember();
-        String displayName = member != null ? member.getEffectiveName() : event.getAuthor().getName();
-        Role topRole = member != null && !member.getRoles().isEmpty() ? member.getRoles().getFirst() : null;
-        String topRoleName = topRole != null ? topRole.getName() : null;
-        Color roleColor = topRole != null ? topRole.getColors().getPrimary() : null;
-        Color displayColor = member != null ? member.getColors().getPrimary() : null;
+        AuthorStyle style = resolveStyle(event, authorId);
+        if (suppressed > 0) {
+            relayToGameChat.accept(new DiscordMessage(
+                    authorId,
+                    style.displayName(),
+                    "(" + suppressed + (suppressed == 1 ? " message" : " messages") + " suppressed)",
+                    List.of(),
+                    style.topRoleName(),
+                    style.roleColor(),
+                    style.displayColor()
+            ));
+        }
 
         DiscordMessage bridgeMessage = new DiscordMessage(
-                displayName,
+                authorId,
+                style.displayName(),
                 event.getMessage().getContentDisplay(),
                 attachments,
-                topRoleName,
-                roleColor,
-                displayColor
+                style.topRoleName(),
+                style.roleColor(),
+                style.displayColor()
         );
 
         relayToGameChat.accept(bridgeMessage);
     }
+
+    @Override
+    public void onGenericGuildMember(@NotNull GenericGuildMemberEvent event) {
+        styleCache.invalidate(event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onGenericUserUpdate(@NotNull GenericUserUpdateEvent<?> event) {
+        styleCache.invalidate(event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onGenericRoleUpdate(@NotNull GenericRoleUpdateEvent<?> event) {
+        // Any number of cached members may have the role
+        styleCache.clear();
+    }
+
+    @Override
+    public void onRoleDelete(@NotNull RoleDeleteEvent event) {
+        styleCache.clear();
+    }
+
+    @NotNull
+    private AuthorStyle resolveStyle(@NotNull MessageReceivedEvent event, long authorId) {
+        Member member = event.getMember();
+        if (member == null) {
+            // Webhooks can post under a different name every message, so they are never cached
+            return new AuthorStyle(event.getAuthor().getName(), null, null, null);
+        }
+
+        long now = System.nanoTime();
+        AuthorStyle cached = styleCache.get(authorId, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Role> roles = member.getRoles();
+        Role topRole = roles.isEmpty() ? null : roles.getFirst();
+        AuthorStyle style = new AuthorStyle(
+                member.getEffectiveName(),
+                topRole != null ? topRole.getName() : null,
+                topRole != null ? topRole.getColors().getPrimary() : null,
+                member.getColors().getPrimary()
+        );
+        styleCache.put(authorId, style, now);
+        return style;
+    }
 }
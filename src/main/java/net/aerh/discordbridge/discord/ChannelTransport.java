@@ -0,0 +1,20 @@
+package net.aerh.discordbridge.discord;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Posts packed messages to the bridge channel. The bot connection uses its JDA session; the load-test
+ * harness plugs in one that talks to a local stand-in for Discord.
+ */
+@FunctionalInterface
+public interface ChannelTransport {
+
+    /**
+     * @param content the message, at most {@link MessageChunker#MAX_MESSAGE_LENGTH} characters
+     * @return completes once Discord has accepted the message, or exceptionally if it will not
+     */
+    @NotNull
+    CompletableFuture<?> send(@NotNull String content);
+}
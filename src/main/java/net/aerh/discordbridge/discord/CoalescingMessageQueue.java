@@ -0,0 +1,310 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Collects outbound lines for a short flush window and packs them into as few Discord messages
+ * as possible. Lines are taken from a {@link PrioritizedDispatcher}, so each flush sends the
+ * highest-priority traffic first; lines within one lane keep the order they were offered in.
+ */
+public final class CoalescingMessageQueue implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final PrioritizedDispatcher dispatcher;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder linesSent = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private final BatchSender sender;
+    private final long windowMillis;
+    private final int maxBatchLines;
+    private final int maxMessagesPerFlush;
+    private final ScheduledExecutorService scheduler;
+
+    // Pieces of a split line still to send in this flush, handed back to the dispatcher if the flush runs
+    // out of budget; only touched while flushing
+    private final Deque<PrioritizedDispatcher.Entry> carryOver = new ArrayDeque<>();
+    // The pieces packed into the message being built; only touched while flushing
+    private final List<PrioritizedDispatcher.Entry> batch = new ArrayList<>();
+
+    /**
+     * @param dispatcher          the lanes lines are queued on
+     * @param sender              sends one packed message to Discord
+     * @param windowMillis        how long to collect lines before flushing; {@code 0} flushes as soon as possible
+     * @param maxBatchLines       the maximum number of lines per packed message, or {@code 0} for no limit
+     * @param maxMessagesPerFlush the maximum number of messages sent per flush, or {@code 0} for no limit;
+     *                            anything left over stays queued, where lane priorities decide what goes next
+     */
+    public CoalescingMessageQueue(
+            @NotNull PrioritizedDispatcher dispatcher,
+            @NotNull BatchSender sender,
+            long windowMillis,
+            int maxBatchLines,
+            int maxMessagesPerFlush
+    ) {
+        this.dispatcher = dispatcher;
+        this.sender = sender;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxBatchLines = Math.max(0, maxBatchLines);
+        this.maxMessagesPerFlush = Math.max(0, maxMessagesPerFlush);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordBridge-Outbound");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a line for the next flush.
+     *
+     * @param lane the lane to queue it on
+     * @param line the line to send
+     */
+    public void offer(@NotNull OutboundLane lane, @NotNull String line) {
+        offer(lane, line, System.nanoTime());
+    }
+
+    /**
+     * Queues a line for the next flush.
+     *
+     * @param originNanos when the line's event happened, from {@link System#nanoTime()}
+     */
+    public void offer(@NotNull OutboundLane lane, @NotNull String line, long originNanos) {
+        if (closed.get()) {
+            LOGGER.at(Level.FINE).log("Outbound queue closed; dropping message.");
+            return;
+        }
+
+        dispatcher.offer(lane, line, originNanos);
+        scheduleFlush();
+    }
+
+    /**
+     * Puts lines whose message Discord failed to accept back at the head of their lanes, in order, for the next flush.
+     */
+    public void requeue(@NotNull List<PrioritizedDispatcher.Entry> lines) {
+        if (closed.get()) {
+            LOGGER.at(Level.FINE).log("Outbound queue closed; dropping %s undelivered line(s).", lines.size());
+            return;
+        }
+
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            dispatcher.requeue(lines.get(i));
+        }
+        scheduleFlush();
+    }
+
+    @NotNull
+    public PrioritizedDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * @return the number of packed messages Discord accepted
+     */
+    public long getBatchesSent() {
+        return batchesSent.sum();
+    }
+
+    /**
+     * @return the number of lines Discord accepted across all batches
+     */
+    public long getLinesSent() {
+        return linesSent.sum();
+    }
+
+    /**
+     * @return the average number of lines per packed message, or {@code 0} if nothing has been sent
+     */
+    public double getAverageLinesPerBatch() {
+        long batches = batchesSent.sum();
+        return batches == 0 ? 0 : (double) linesSent.sum() / batches;
+    }
+
+    /**
+     * @return the largest number of lines packed into a single message
+     */
+    public int getLargestBatch() {
+        return largestBatch.get();
+    }
+
+    /**
+     * @return the number of lines waiting for a flush
+     */
+    public int getPendingCount() {
+        return dispatcher.getBacklog();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(windowMillis + 1000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            flush(0);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(() -> flush(maxMessagesPerFlush), windowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // Closing; the final flush in close() picks the line up
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    private synchronized void flush(int messageBudget) {
+        // Clear the flag before draining so a line offered mid-flush schedules the next one
+        flushScheduled.set(false);
+
+        StringBuilder current = new StringBuilder(MessageChunker.MAX_MESSAGE_LENGTH);
+        int linesInCurrent = 0;
+        int messagesSent = 0;
+        // The oldest line in the current message, for latency tracing
+        long oldestOrigin = 0;
+        long oldestEnqueued = 0;
+
+        PrioritizedDispatcher.Entry piece;
+        while ((piece = nextPiece()) != null) {
+            String text = piece.content();
+            boolean fits = current.isEmpty()
+                    || current.length() + 1 + text.length() <= MessageChunker.MAX_MESSAGE_LENGTH;
+            boolean underLineCap = maxBatchLines == 0 || linesInCurrent < maxBatchLines;
+            if (!fits || !underLineCap) {
+                send(current, linesInCurrent, oldestOrigin, oldestEnqueued);
+                linesInCurrent = 0;
+                messagesSent++;
+                if (messageBudget > 0 && messagesSent >= messageBudget) {
+                    carryOver.addFirst(piece);
+                    break;
+                }
+            }
+
+            if (!current.isEmpty()) {
+                current.append('\n');
+            }
+            current.append(text);
+            batch.add(piece);
+            if (linesInCurrent == 0 || piece.originNanos() - oldestOrigin < 0) {
+                oldestOrigin = piece.originNanos();
+            }
+            if (linesInCurrent == 0 || piece.enqueuedNanos() - oldestEnqueued < 0) {
+                oldestEnqueued = piece.enqueuedNanos();
+            }
+            linesInCurrent++;
+        }
+
+        send(current, linesInCurrent, oldestOrigin, oldestEnqueued);
+
+        // Out of budget mid-line: the rest waits in its lane rather than jumping ahead of higher-priority lines
+        while ((piece = carryOver.pollLast()) != null) {
+            dispatcher.requeue(piece);
+        }
+
+        if (!closed.get() && !dispatcher.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    @Nullable
+    private PrioritizedDispatcher.Entry nextPiece() {
+        PrioritizedDispatcher.Entry piece = carryOver.pollFirst();
+        if (piece != null) {
+            return piece;
+        }
+
+        PrioritizedDispatcher.Entry entry = dispatcher.poll();
+        if (entry == null) {
+            return null;
+        }
+
+        List<String> pieces = MessageChunker.split(entry.content());
+        if (pieces.size() == 1) {
+            return entry;
+        }
+
+        int last = pieces.size() - 1;
+        for (int i = last; i > 0; i--) {
+            carryOver.addFirst(withContent(entry, pieces.get(i), i == last));
+        }
+        return withContent(entry, pieces.getFirst(), false);
+    }
+
+    @NotNull
+    private static PrioritizedDispatcher.Entry withContent(@NotNull PrioritizedDispatcher.Entry entry, @NotNull String content, boolean lastPiece) {
+        return new PrioritizedDispatcher.Entry(entry.lane(), content, entry.enqueuedNanos(), entry.originNanos(), lastPiece);
+    }
+
+    private void send(@NotNull StringBuilder current, int lineCount, long originNanos, long enqueuedNanos) {
+        if (current.isEmpty()) {
+            return;
+        }
+
+        String content = current.toString();
+        current.setLength(0);
+        List<PrioritizedDispatcher.Entry> pieces = List.copyOf(batch);
+        batch.clear();
+
+        CompletableFuture<?> delivery;
+        try {
+            delivery = sender.send(content, pieces, originNanos, enqueuedNanos);
+        } catch (RuntimeException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to send batched message to Discord");
+            return;
+        }
+
+        // The sender reports failures itself; only deliveries count towards the metrics
+        delivery.thenRun(() -> {
+            batchesSent.increment();
+            linesSent.add(lineCount);
+            largestBatch.accumulateAndGet(lineCount, Math::max);
+            for (PrioritizedDispatcher.Entry piece : pieces) {
+                dispatcher.recordSent(piece);
+            }
+        });
+    }
+
+    /**
+     * Sends one packed message to Discord.
+     */
+    @FunctionalInterface
+    public interface BatchSender {
+        /**
+         * @param lines         the lines packed into the message, for putting back if it cannot be delivered
+         * @param originNanos   when the oldest line's event happened, from {@link System#nanoTime()}
+         * @param enqueuedNanos when the oldest line was queued, from {@link System#nanoTime()}
+         * @return completes once Discord has accepted the message, or exceptionally if it was not sent
+         */
+        @NotNull
+        CompletableFuture<?> send(
+                @NotNull String content,
+                @NotNull List<PrioritizedDispatcher.Entry> lines,
+                long originNanos,
+                long enqueuedNanos
+        );
+    }
+}
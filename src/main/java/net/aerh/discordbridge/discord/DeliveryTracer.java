@@ -0,0 +1,61 @@
+package net.aerh.discordbridge.discord;
+
+import net.aerh.discordbridge.metrics.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Per-stage latency of outbound messages, from the game event to Discord accepting the message. A packed
+ * bot-channel message is stamped with its oldest line, so the stages show the slowest line of each batch.
+ */
+public final class DeliveryTracer {
+
+    /**
+     * How a message reached Discord.
+     */
+    public enum Route {
+        BOT,
+        WEBHOOK
+    }
+
+    public enum Stage {
+        /**
+         * Game event to the message being queued for Discord: the game thread, the chat pipeline and templating.
+         */
+        CAPTURE,
+        /**
+         * Queued to handed to JDA or the webhook client: batching, lane priorities and the merge window.
+         */
+        QUEUE,
+        /**
+         * Handed over to acknowledged by Discord: JDA's requester, rate limit waits and the HTTP round trip.
+         */
+        DISCORD,
+        TOTAL
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Route.values().length * STAGES.length];
+
+    DeliveryTracer() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records one acknowledged message. All arguments are {@link System#nanoTime()} readings.
+     */
+    void record(@NotNull Route route, long originNanos, long enqueuedNanos, long handoffNanos, long ackNanos) {
+        int base = route.ordinal() * STAGES.length;
+        histograms[base + Stage.CAPTURE.ordinal()].record(enqueuedNanos - originNanos);
+        histograms[base + Stage.QUEUE.ordinal()].record(handoffNanos - enqueuedNanos);
+        histograms[base + Stage.DISCORD.ordinal()].record(ackNanos - handoffNanos);
+        histograms[base + Stage.TOTAL.ordinal()].record(ackNanos - originNanos);
+    }
+
+    @NotNull
+    public LatencyHistogram get(@NotNull Route route, @NotNull Stage stage) {
+        return histograms[route.ordinal() * STAGES.length + stage.ordinal()];
+    }
+}
@@ -3,71 +3,167 @@ package net.aerh.discordbridge.discord;
 import com.hypixel.hytale.logger.HytaleLogger;
 import net.aerh.discordbridge.config.DiscordBridgeConfig;
 import net.aerh.discordbridge.config.DiscordConfig;
+import net.aerh.discordbridge.config.LaneConfig;
+import net.aerh.discordbridge.config.OutboundConfig;
 import net.aerh.discordbridge.discord.model.DiscordMessage;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.internal.utils.IOUtil;
+import okhttp3.Response;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 
-public final class DiscordBotConnection implements AutoCloseable {
+public final class DiscordBotConnection implements DiscordGateway, AutoCloseable {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
+    private static final String OUTBOX_FILE_NAME = "outbox.journal";
+    // Discord's minimum; guilds above it leave offline members out of the initial guild payload
+    private static final int LEAN_LARGE_THRESHOLD = 50;
+    private static final int AUTHOR_STYLE_CACHE_SIZE = 1024;
+
     private final DiscordBridgeConfig config;
+    private final Path dataDirectory;
     private final Consumer<DiscordMessage> relayToGameChat;
     private final CompletableFuture<Void> readyFuture = new CompletableFuture<>();
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
+    private final Object outboxLock = new Object();
+    private final InboundRateLimiter inboundRateLimiter;
+    private final AuthorStyleCache authorStyleCache;
+    private final LatencyHistogram restLatency = new LatencyHistogram();
+    private final LongAdder restRateLimitHits = new LongAdder();
+    private final LongAdder restFailures = new LongAdder();
+    private final LongAdder droppedNotReady = new LongAdder();
+    private final LongAdder relayed = new LongAdder();
+    private final DeliveryTracer deliveryTracer = new DeliveryTracer();
+
+    // Set when sending through a transport of the caller's choosing instead of a JDA session
+    @Nullable
+    private final ChannelTransport localTransport;
+    @Nullable
+    private final String webhookApiBaseUrl;
 
     private JDA jda;
-    private volatile TextChannel bridgeChannel;
+    private volatile ChannelTransport channelTransport;
+    private volatile boolean connected;
+    @Nullable
+    private OutboxJournal outbox;
     @Nullable
     private WebhookMessageSender webhookSender;
+    @Nullable
+    private CoalescingMessageQueue outboundQueue;
 
     public DiscordBotConnection(
             @NotNull DiscordBridgeConfig config,
+            @NotNull Path dataDirectory,
             @NotNull Consumer<DiscordMessage> relayToGameChat
+    ) {
+        this(config, dataDirectory, relayToGameChat, null, null);
+    }
+
+    private DiscordBotConnection(
+            @NotNull DiscordBridgeConfig config,
+            @NotNull Path dataDirectory,
+            @NotNull Consumer<DiscordMessage> relayToGameChat,
+            @Nullable ChannelTransport localTransport,
+            @Nullable String webhookApiBaseUrl
     ) {
         this.config = config;
-        this.relayToGameChat = relayToGameChat;
+        this.dataDirectory = dataDirectory;
+        this.localTransport = localTransport;
+        this.webhookApiBaseUrl = webhookApiBaseUrl;
+        this.relayToGameChat = message -> {
+            relayed.increment();
+            relayToGameChat.accept(message);
+        };
+        this.inboundRateLimiter = new InboundRateLimiter(config::getInboundConfig);
+        this.authorStyleCache = new AuthorStyleCache(
+                AUTHOR_STYLE_CACHE_SIZE,
+                TimeUnit.SECONDS.toNanos(config.getDiscordConfig().getAuthorCacheSeconds())
+        );
+    }
+
+    /**
+     * Creates a connection that posts bridge channel messages through {@code transport} instead of a JDA session
+     * and sends webhook requests to {@code webhookApiBaseUrl} instead of Discord. It is ready once started and
+     * never receives Discord messages. Lets the load-test harness drive the real outbound path.
+     *
+     * @param webhookApiBaseUrl scheme, host and port that webhook requests are sent to instead
+     */
+    @NotNull
+    public static DiscordBotConnection withTransport(
+            @NotNull DiscordBridgeConfig config,
+            @NotNull Path dataDirectory,
+            @NotNull ChannelTransport transport,
+            @NotNull String webhookApiBaseUrl
+    ) {
+        return new DiscordBotConnection(config, dataDirectory, message -> {
+        }, transport, webhookApiBaseUrl);
     }
 
     @NotNull
+    @Override
     public CompletableFuture<Void> start() {
         try {
             DiscordConfig discordConfig = config.getDiscordConfig();
+            openOutbox();
+            OutboundConfig outboundConfig = config.getOutboundConfig();
+            this.outboundQueue = new CoalescingMessageQueue(
+                    new PrioritizedDispatcher(new ConfiguredLanes(outboundConfig), outboundConfig.getShedBacklogThreshold()),
+                    this::sendBatch,
+                    discordConfig.getBatchWindowMillis(),
+                    discordConfig.getMaxBatchLines(),
+                    outboundConfig.getMaxMessagesPerFlush()
+            );
+            startWebhookSender(discordConfig);
+
+            if (localTransport != null) {
+                onTransportReady(localTransport);
+                readyFuture.complete(null);
+                return readyFuture;
+            }
+
             BridgeListener listener = new BridgeListener(
                     config,
                     readyFuture,
                     relayToGameChat,
-                    this::onChannelReady
+                    this::onChannelReady,
+                    this::onDisconnected,
+                    inboundRateLimiter,
+                    authorStyleCache
             );
-            JDABuilder builder = JDABuilder.createDefault(discordConfig.getBotToken())
-                    .setMemberCachePolicy(MemberCachePolicy.NONE)
-                    .enableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT)
+            // Keeps JDA's own client settings (per-host request limit, connection pool) and adds REST latency tracking
+            this.jda = createBuilder(discordConfig)
+                    .setHttpClientBuilder(IOUtil.newHttpClientBuilder().addInterceptor(chain -> {
+                        long start = System.nanoTime();
+                        Response response = chain.proceed(chain.request());
+                        restLatency.recordSince(start);
+                        if (response.code() == 429) {
+                            restRateLimitHits.increment();
+                        }
+                        return response;
+                    }))
                     .setActivity(Activity.playing(discordConfig.getPresenceMessage()))
-                    .addEventListeners(listener);
-            this.jda = builder.build();
-
-            if (discordConfig.isUseWebhookForChat()) {
-                String webhookUrl = discordConfig.getWebhookUrl();
-                if (!webhookUrl.isBlank()) {
-                    String avatarUrlFormat = config.getMessagesConfig().getAvatarUrlFormat();
-                    this.webhookSender = new WebhookMessageSender(webhookUrl, avatarUrlFormat);
-                    LOGGER.at(Level.INFO).log("Webhook sender initialized");
-                } else {
-                    LOGGER.at(Level.WARNING).log("UseWebhookForChat is enabled but WebhookUrl is not set");
-                }
-            }
+                    .addEventListeners(listener)
+                    .build();
         } catch (Throwable throwable) {
             readyFuture.completeExceptionally(throwable);
             return readyFuture;
@@ -76,34 +172,233 @@ public final class DiscordBotConnection implements AutoCloseable {
         return readyFuture;
     }
 
+    private void startWebhookSender(@NotNull DiscordConfig discordConfig) {
+        if (!discordConfig.isUseWebhookForChat()) {
+            return;
+        }
+
+        List<String> webhookUrls = discordConfig.getWebhookUrls();
+        if (webhookUrls.isEmpty()) {
+            LOGGER.at(Level.WARNING).log("UseWebhookForChat is enabled but WebhookUrl is not set");
+            return;
+        }
+
+        this.webhookSender = new WebhookMessageSender(
+                webhookUrls,
+                discordConfig.getWebhookPoolStrategy(),
+                config.getMessagesConfig().getAvatarUrlFormat(),
+                discordConfig.getWebhookMergeWindowMillis(),
+                deliveryTracer,
+                webhookApiBaseUrl
+        );
+        LOGGER.at(Level.INFO).log("Webhook sender initialized with %s webhook(s)", webhookUrls.size());
+    }
+
+    @Override
     public boolean isReady() {
-        return readyFuture.isDone() && !readyFuture.isCompletedExceptionally() && bridgeChannel != null;
+        return readyFuture.isDone() && !readyFuture.isCompletedExceptionally() && channelTransport != null;
+    }
+
+    /**
+     * Queues a message for the bridge channel. Messages are coalesced with others sent
+     * during the same flush window. While the bot is not connected, messages are written
+     * to the outbox and replayed once it is. Without an outbox they are still queued whenever
+     * the channel is known, as REST keeps working while the gateway reconnects.
+     *
+     * @param lane        the priority lane to send on
+     * @param content     the message content
+     * @param originNanos when the message's event happened, for latency tracing; journaled messages lose it
+     */
+    @Override
+    public void sendMessage(@NotNull OutboundLane lane, @NotNull String content, long originNanos) {
+        CoalescingMessageQueue queue = this.outboundQueue;
+        if (queue != null && canQueue()) {
+            queue.offer(lane, content, originNanos);
+            return;
+        }
+
+        // Checked again under the lock so nothing is journaled after the replay has drained the outbox
+        synchronized (outboxLock) {
+            if (queue != null && canQueue()) {
+                queue.offer(lane, content, originNanos);
+                return;
+            }
+
+            OutboxJournal journal = this.outbox;
+            if (journal == null) {
+                droppedNotReady.increment();
+                LOGGER.at(Level.FINE).log("Discord channel not ready; dropping message.");
+            } else if (!journal.append(lane, content)) {
+                LOGGER.at(Level.FINE).log("Discord channel not ready and outbox full; dropping message.");
+            }
+        }
+    }
+
+    private boolean canQueue() {
+        return connected || (outbox == null && channelTransport != null);
+    }
+
+    // The lean profile connects with only the guild message intents and no optional caches: the bridge reads
+    // one channel and takes member names, roles and colors from the message events themselves. This cut the heap
+    // JDA holds per guild by 44% in the measurement in the README
+    @NotNull
+    private static JDABuilder createBuilder(@NotNull DiscordConfig discordConfig) {
+        if (!discordConfig.isLeanConnection()) {
+            return JDABuilder.createDefault(discordConfig.getBotToken())
+                    .setMemberCachePolicy(MemberCachePolicy.NONE)
+                    .enableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT);
+        }
+
+        // createLight already disables every CacheFlag, member caching and chunking
+        return JDABuilder.createLight(discordConfig.getBotToken(), GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT)
+                .setLargeThreshold(LEAN_LARGE_THRESHOLD);
+    }
+
+    @Nullable
+    public OutboxJournal getOutbox() {
+        return outbox;
+    }
+
+    @Nullable
+    public CoalescingMessageQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    @NotNull
+    public InboundRateLimiter getInboundRateLimiter() {
+        return inboundRateLimiter;
+    }
+
+    @NotNull
+    public AuthorStyleCache getAuthorStyleCache() {
+        return authorStyleCache;
+    }
+
+    /**
+     * @return how long outbound messages spend in each stage on their way to Discord
+     */
+    @NotNull
+    public DeliveryTracer getDeliveryTracer() {
+        return deliveryTracer;
+    }
+
+    @Nullable
+    public WebhookMessageSender getWebhookSender() {
+        return webhookSender;
+    }
+
+    /**
+     * @return round-trip time of every REST request the bot makes, rate-limited ones included
+     */
+    @NotNull
+    public LatencyHistogram getRestLatency() {
+        return restLatency;
+    }
+
+    /**
+     * @return the number of 429 responses to the bot's REST requests
+     */
+    public long getRestRateLimitHits() {
+        return restRateLimitHits.sum();
+    }
+
+    /**
+     * @return the number of channel messages Discord failed to accept
+     */
+    public long getRestFailures() {
+        return restFailures.sum();
+    }
+
+    /**
+     * @return messages dropped because the channel was not ready and there was no outbox to hold them
+     */
+    public long getDroppedNotReady() {
+        return droppedNotReady.sum();
+    }
+
+    /**
+     * @return Discord messages passed on for relaying in game, after rate limiting
+     */
+    public long getRelayed() {
+        return relayed.sum();
     }
 
-    public void sendMessage(@NotNull String content) {
-        TextChannel channel = this.bridgeChannel;
-        if (channel == null) {
+    @NotNull
+    private CompletableFuture<?> sendBatch(
+            @NotNull String content,
+            @NotNull List<PrioritizedDispatcher.Entry> lines,
+            long originNanos,
+            long enqueuedNanos
+    ) {
+        ChannelTransport transport = this.channelTransport;
+        if (transport == null) {
+            droppedNotReady.increment();
             LOGGER.at(Level.FINE).log("Discord channel not ready; dropping message.");
+            return CompletableFuture.failedFuture(new IllegalStateException("Discord channel not ready"));
+        }
+
+        long handoffNanos = System.nanoTime();
+        return transport.send(content).whenComplete((message, throwable) -> {
+            if (throwable == null) {
+                deliveryTracer.record(DeliveryTracer.Route.BOT, originNanos, enqueuedNanos, handoffNanos, System.nanoTime());
+                return;
+            }
+
+            restFailures.increment();
+            LOGGER.at(Level.WARNING)
+                    .withCause(throwable)
+                    .log("Failed to send chat message to Discord");
+            if (isRetryable(throwable)) {
+                retry(lines);
+            }
+        });
+    }
+
+    // Discord refusing the message (a 4xx) will refuse it again; anything else, such as the network being down, may not
+    private static boolean isRetryable(@NotNull Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return !(cause instanceof ErrorResponseException response) || response.isServerError();
+    }
+
+    // Journals a failed batch's lines for the next ready or resume to replay, or without an outbox puts them back at
+    // the head of their lanes
+    private void retry(@NotNull List<PrioritizedDispatcher.Entry> lines) {
+        if (shuttingDown.get()) {
             return;
         }
 
-        channel.sendMessage(content)
-                .queue(null, throwable -> LOGGER.at(Level.WARNING)
-                        .withCause(throwable)
-                        .log("Failed to send chat message to Discord"));
+        synchronized (outboxLock) {
+            OutboxJournal journal = this.outbox;
+            if (journal != null) {
+                for (PrioritizedDispatcher.Entry line : lines) {
+                    if (!journal.append(line.lane(), line.content())) {
+                        LOGGER.at(Level.FINE).log("Outbox full; dropping undelivered message.");
+                    }
+                }
+                return;
+            }
+        }
+
+        CoalescingMessageQueue queue = this.outboundQueue;
+        if (queue != null) {
+            queue.requeue(lines);
+        }
     }
 
+    @Override
     public boolean hasWebhook() {
         return webhookSender != null;
     }
 
-    public void sendWebhookMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message) {
+    @Override
+    public void sendWebhookMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message, long originNanos) {
         if (webhookSender == null) {
+            droppedNotReady.increment();
             LOGGER.at(Level.FINE).log("Webhook not configured; dropping message.");
             return;
         }
 
-        webhookSender.sendPlayerMessage(username, playerUuid, message);
+        webhookSender.sendPlayerMessage(username, playerUuid, message, originNanos);
     }
 
     @Override
@@ -111,8 +406,19 @@ public final class DiscordBotConnection implements AutoCloseable {
         shutdown();
     }
 
+    @Override
     public void shutdown() {
         if (shuttingDown.compareAndSet(false, true)) {
+            if (outboundQueue != null) {
+                outboundQueue.close();
+                outboundQueue = null;
+            }
+
+            if (outbox != null) {
+                outbox.close();
+                outbox = null;
+            }
+
             if (webhookSender != null) {
                 webhookSender.close();
                 webhookSender = null;
@@ -124,7 +430,69 @@ public final class DiscordBotConnection implements AutoCloseable {
         }
     }
 
+    private void openOutbox() {
+        OutboundConfig outboundConfig = config.getOutboundConfig();
+        if (!outboundConfig.isOutboxEnabled()) {
+            return;
+        }
+
+        try {
+            this.outbox = new OutboxJournal(
+                    dataDirectory.resolve(OUTBOX_FILE_NAME),
+                    outboundConfig.getOutboxMaxBytes(),
+                    TimeUnit.SECONDS.toMillis(outboundConfig.getOutboxMaxAgeSeconds()),
+                    outboundConfig.getOutboxFlushIntervalMillis()
+            );
+        } catch (IOException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to open outbox; undeliverable messages will be dropped");
+        }
+    }
+
     private void onChannelReady(@NotNull TextChannel channel) {
-        this.bridgeChannel = channel;
+        onTransportReady(content -> channel.sendMessage(content).submit());
+    }
+
+    private void onTransportReady(@NotNull ChannelTransport transport) {
+        this.channelTransport = transport;
+
+        synchronized (outboxLock) {
+            OutboxJournal journal = this.outbox;
+            CoalescingMessageQueue queue = this.outboundQueue;
+            if (journal != null && queue != null) {
+                int replayed = journal.replay(queue::offer);
+                if (replayed > 0) {
+                    LOGGER.at(Level.INFO).log("Replayed %s message(s) from the outbox", replayed);
+                }
+            }
+            this.connected = true;
+        }
+    }
+
+    private void onDisconnected() {
+        this.connected = false;
+    }
+
+    private record ConfiguredLanes(@NotNull OutboundConfig outboundConfig) implements PrioritizedDispatcher.LaneSettings {
+
+        @Override
+        public int weight(@NotNull OutboundLane lane) {
+            return laneConfig(lane).getWeight();
+        }
+
+        @Override
+        public int maxAgeSeconds(@NotNull OutboundLane lane) {
+            return laneConfig(lane).getMaxAgeSeconds();
+        }
+
+        @NotNull
+        private LaneConfig laneConfig(@NotNull OutboundLane lane) {
+            return switch (lane) {
+                case SERVER_LIFECYCLE -> outboundConfig.getLifecycleLane();
+                case CHAT -> outboundConfig.getChatLane();
+                case PRESENCE -> outboundConfig.getPresenceLane();
+                case KILL_FEED -> outboundConfig.getKillFeedLane();
+                case ZONE_DISCOVERY -> outboundConfig.getZoneDiscoveryLane();
+            };
+        }
     }
 }
\ No newline at end of file
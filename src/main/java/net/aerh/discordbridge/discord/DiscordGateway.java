@@ -0,0 +1,53 @@
+package net.aerh.discordbridge.discord;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where the plugin sends its Discord traffic: its own bot connection, or a hub that holds one.
+ */
+public interface DiscordGateway {
+
+    /**
+     * Connects, completing once messages can be sent.
+     */
+    @NotNull
+    CompletableFuture<Void> start();
+
+    boolean isReady();
+
+    /**
+     * Queues a message for the bridge channel.
+     *
+     * @param lane    the priority lane to send on
+     * @param content the message content
+     */
+    default void sendMessage(@NotNull OutboundLane lane, @NotNull String content) {
+        sendMessage(lane, content, System.nanoTime());
+    }
+
+    /**
+     * Queues a message for the bridge channel.
+     *
+     * @param originNanos when the message's event happened, from {@link System#nanoTime()}, for latency tracing
+     */
+    void sendMessage(@NotNull OutboundLane lane, @NotNull String content, long originNanos);
+
+    /**
+     * @return {@code true} if player chat should be sent with {@link #sendWebhookMessage}
+     */
+    boolean hasWebhook();
+
+    default void sendWebhookMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message) {
+        sendWebhookMessage(username, playerUuid, message, System.nanoTime());
+    }
+
+    /**
+     * @param originNanos when the chat line was captured, from {@link System#nanoTime()}, for latency tracing
+     */
+    void sendWebhookMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message, long originNanos);
+
+    void shutdown();
+}
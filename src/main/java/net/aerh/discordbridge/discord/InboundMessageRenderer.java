@@ -0,0 +1,167 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.Message;
+import net.aerh.discordbridge.config.MessagesConfig;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The inbound template compiled into segments, with colors decoded and the label and literal text
+ * built as {@link Message}s once. Rendering only creates the role, username and content segments.
+ * <p>
+ * The prebuilt segments are shared by every rendered message and must not be modified.
+ */
+public final class InboundMessageRenderer {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final Pattern INBOUND_PLACEHOLDER = Pattern.compile("%(label|role|username|message)%");
+
+    private final String template;
+    private final String discordLabel;
+    private final String labelColorValue;
+    private final String defaultRoleColorValue;
+    private final String contentColorValue;
+    private final Color contentColor;
+    private final Color defaultRoleColor;
+    private final Segment[] segments;
+    private final boolean hasMessageToken;
+
+    private InboundMessageRenderer(@NotNull MessagesConfig msgConfig) {
+        this.template = msgConfig.getInboundTemplate();
+        this.discordLabel = msgConfig.getDiscordLabel();
+        this.labelColorValue = msgConfig.getLabelColor();
+        this.defaultRoleColorValue = msgConfig.getDefaultRoleColor();
+        this.contentColorValue = msgConfig.getContentColor();
+        this.contentColor = decode(contentColorValue, new Color(0xFFFFFF));
+        this.defaultRoleColor = decode(defaultRoleColorValue, new Color(0x99AAB5));
+        Color labelColor = decode(labelColorValue, new Color(0x5865F2));
+
+        List<Segment> compiled = new ArrayList<>();
+        Matcher matcher = INBOUND_PLACEHOLDER.matcher(template);
+        int last = 0;
+        boolean messageToken = false;
+        while (matcher.find()) {
+            if (matcher.start() > last) {
+                compiled.add(Segment.fixed(template.substring(last, matcher.start()), contentColor));
+            }
+
+            switch (matcher.group(1)) {
+                case "label" -> compiled.add(Segment.fixed(discordLabel, labelColor));
+                case "role" -> compiled.add(Segment.ROLE);
+                case "username" -> compiled.add(Segment.USERNAME);
+                case "message" -> {
+                    compiled.add(Segment.CONTENT);
+                    messageToken = true;
+                }
+                default -> {
+                }
+            }
+
+            last = matcher.end();
+        }
+
+        if (last < template.length()) {
+            compiled.add(Segment.fixed(template.substring(last), contentColor));
+        }
+
+        compiled.removeIf(segment -> segment.kind == Kind.FIXED && segment.prototype == null);
+        this.segments = compiled.toArray(Segment[]::new);
+        this.hasMessageToken = messageToken;
+    }
+
+    /**
+     * Returns {@code cached} if it was compiled from the current message settings, otherwise compiles them.
+     */
+    @NotNull
+    public static InboundMessageRenderer refresh(@Nullable InboundMessageRenderer cached, @NotNull MessagesConfig msgConfig) {
+        if (cached != null && cached.matches(msgConfig)) {
+            return cached;
+        }
+
+        return new InboundMessageRenderer(msgConfig);
+    }
+
+    @NotNull
+    public Message render(@NotNull DiscordMessage discordMessage, @NotNull String content) {
+        Message root = Message.empty();
+        for (Segment segment : segments) {
+            switch (segment.kind) {
+                case FIXED -> root.insert(segment.prototype);
+                case ROLE -> appendRole(root, discordMessage);
+                case USERNAME -> {
+                    Color color = discordMessage.displayColor() != null ? discordMessage.displayColor() : defaultRoleColor;
+                    appendText(root, discordMessage.authorName(), color);
+                }
+                case CONTENT -> appendText(root, content, contentColor);
+            }
+        }
+
+        if (!hasMessageToken) {
+            appendText(root, content, contentColor);
+        }
+
+        return root;
+    }
+
+    private boolean matches(@NotNull MessagesConfig msgConfig) {
+        return template.equals(msgConfig.getInboundTemplate())
+                && discordLabel.equals(msgConfig.getDiscordLabel())
+                && labelColorValue.equals(msgConfig.getLabelColor())
+                && defaultRoleColorValue.equals(msgConfig.getDefaultRoleColor())
+                && contentColorValue.equals(msgConfig.getContentColor());
+    }
+
+    private void appendRole(@NotNull Message root, @NotNull DiscordMessage discordMessage) {
+        if (discordMessage.topRoleName() == null || discordMessage.topRoleName().isBlank()) {
+            return;
+        }
+
+        Color color = discordMessage.roleColor() != null ? discordMessage.roleColor() : defaultRoleColor;
+        appendText(root, "[" + discordMessage.topRoleName() + "]", color);
+    }
+
+    private static void appendText(@NotNull Message root, @NotNull String text, @NotNull Color color) {
+        if (text.isEmpty()) {
+            return;
+        }
+
+        root.insert(Message.raw(text).color(color));
+    }
+
+    @NotNull
+    private static Color decode(@NotNull String value, @NotNull Color fallback) {
+        try {
+            return Color.decode(value);
+        } catch (NumberFormatException exception) {
+            LOGGER.at(Level.WARNING).log("Invalid color '%s' in message settings; using default", value);
+            return fallback;
+        }
+    }
+
+    private enum Kind {
+        FIXED,
+        ROLE,
+        USERNAME,
+        CONTENT
+    }
+
+    private record Segment(@NotNull Kind kind, @Nullable Message prototype) {
+        private static final Segment ROLE = new Segment(Kind.ROLE, null);
+        private static final Segment USERNAME = new Segment(Kind.USERNAME, null);
+        private static final Segment CONTENT = new Segment(Kind.CONTENT, null);
+
+        @NotNull
+        private static Segment fixed(@NotNull String text, @NotNull Color color) {
+            return new Segment(Kind.FIXED, text.isEmpty() ? null : Message.raw(text).color(color));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package net.aerh.discordbridge.discord;
+
+import net.aerh.discordbridge.config.InboundConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Flood control for Discord messages relayed into the game: a token bucket per author plus one global
+ * bucket. Author buckets live in an open-addressing table keyed by the author's id, so tracking an
+ * author costs a few array slots and no objects. Authors whose bucket has refilled are forgotten
+ * whenever the table would otherwise grow.
+ */
+public final class InboundRateLimiter {
+
+    /**
+     * Returned by {@link #tryAcquire(long, long)} when the message must not be relayed.
+     */
+    public static final int REJECTED = -1;
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long EMPTY = 0L;
+    private static final long SUPPRESSED_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Supplier<InboundConfig> configSupplier;
+    private final LongAdder droppedByAuthor = new LongAdder();
+    private final LongAdder droppedByGlobal = new LongAdder();
+    private final LongAdder suppressionNotices = new LongAdder();
+
+    // Open addressing with linear probing; EMPTY marks a free slot
+    private long[] authors = new long[INITIAL_CAPACITY];
+    private double[] tokens = new double[INITIAL_CAPACITY];
+    private long[] refilledAt = new long[INITIAL_CAPACITY];
+    private int[] suppressed = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private double globalTokens = -1;
+    private long globalRefilledAt;
+
+    public InboundRateLimiter(@NotNull Supplier<InboundConfig> configSupplier) {
+        this.configSupplier = configSupplier;
+    }
+
+    /**
+     * Takes a token for a message from {@code authorId}.
+     *
+     * @param now {@link System#nanoTime()}
+     * @return {@link #REJECTED} if the message is over the limit, otherwise the number of this author's
+     * messages suppressed since their last relayed one (always {@code 0} unless excess messages are collapsed)
+     */
+    public synchronized int tryAcquire(long authorId, long now) {
+        InboundConfig config = configSupplier.get();
+        int burst = config.getAuthorBurst();
+        double authorRefillPerNano = (double) config.getAuthorMessagesPerMinute() / MINUTE_NANOS;
+
+        int slot = slotFor(authorId, now, burst, authorRefillPerNano);
+        refill(slot, now, burst, authorRefillPerNano);
+
+        boolean authorAllowed = tokens[slot] >= 1;
+        boolean globalAllowed = !authorAllowed || tryGlobal(config, now);
+        if (!authorAllowed || !globalAllowed) {
+            (authorAllowed ? droppedByGlobal : droppedByAuthor).increment();
+            if (config.isCollapseFlood()) {
+                suppressed[slot]++;
+            }
+            return REJECTED;
+        }
+
+        tokens[slot] -= 1;
+        int count = suppressed[slot];
+        if (count > 0) {
+            suppressed[slot] = 0;
+            suppressionNotices.increment();
+        }
+        return count;
+    }
+
+    /**
+     * @return messages dropped because their author was over their own limit
+     */
+    public long getDroppedByAuthor() {
+        return droppedByAuthor.sum();
+    }
+
+    /**
+     * @return messages dropped because the global inbound limit was reached
+     */
+    public long getDroppedByGlobal() {
+        return droppedByGlobal.sum();
+    }
+
+    /**
+     * @return the number of "messages suppressed" notices handed out
+     */
+    public long getSuppressionNotices() {
+        return suppressionNotices.sum();
+    }
+
+    public synchronized int getTrackedAuthors() {
+        return size;
+    }
+
+    private boolean tryGlobal(@NotNull InboundConfig config, long now) {
+        int perSecond = config.getGlobalMessagesPerSecond();
+        if (perSecond <= 0) {
+            return true;
+        }
+
+        if (globalTokens < 0) {
+            globalTokens = perSecond;
+        } else {
+            globalTokens = Math.min(perSecond, globalTokens + (double) (now - globalRefilledAt) * perSecond / SECOND_NANOS);
+        }
+        globalRefilledAt = now;
+
+        if (globalTokens < 1) {
+            return false;
+        }
+
+        globalTokens -= 1;
+        return true;
+    }
+
+    private void refill(int slot, long now, int burst, double refillPerNano) {
+        tokens[slot] = Math.min(burst, tokens[slot] + (now - refilledAt[slot]) * refillPerNano);
+        refilledAt[slot] = now;
+    }
+
+    private int slotFor(long authorId, long now, int burst, double refillPerNano) {
+        long key = keyOf(authorId);
+        int mask = authors.length - 1;
+        int slot = mix(key) & mask;
+        while (authors[slot] != EMPTY) {
+            if (authors[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > authors.length) {
+            rehash(now, burst, refillPerNano);
+            return slotFor(authorId, now, burst, refillPerNano);
+        }
+
+        authors[slot] = key;
+        tokens[slot] = burst;
+        refilledAt[slot] = now;
+        suppressed[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    // Rebuilds the table without authors that are back to a full bucket, unless they still owe a
+    // suppression notice from the last few minutes; it only doubles if that does not free enough room
+    private void rehash(long now, int burst, double refillPerNano) {
+        long[] oldAuthors = authors;
+        double[] oldTokens = tokens;
+        long[] oldRefilledAt = refilledAt;
+        int[] oldSuppressed = suppressed;
+
+        int live = 0;
+        boolean[] keep = new boolean[oldAuthors.length];
+        for (int i = 0; i < oldAuthors.length; i++) {
+            if (oldAuthors[i] == EMPTY) {
+                continue;
+            }
+
+            double refilled = oldTokens[i] + (now - oldRefilledAt[i]) * refillPerNano;
+            keep[i] = refilled < burst
+                    || (oldSuppressed[i] > 0 && now - oldRefilledAt[i] < SUPPRESSED_RETENTION_NANOS);
+            if (keep[i]) {
+                live++;
+            }
+        }
+
+        int capacity = oldAuthors.length;
+        while ((live + 1) * 2 > capacity) {
+            capacity <<= 1;
+        }
+
+        authors = new long[capacity];
+        tokens = new double[capacity];
+        refilledAt = new long[capacity];
+        suppressed = new int[capacity];
+        size = live;
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldAuthors.length; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+
+            int slot = mix(oldAuthors[i]) & mask;
+            while (authors[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            authors[slot] = oldAuthors[i];
+            tokens[slot] = oldTokens[i];
+            refilledAt[slot] = oldRefilledAt[i];
+            suppressed[slot] = oldSuppressed[i];
+        }
+    }
+
+    // Discord ids are never zero, but keep the sentinel out of the key space regardless
+    private static long keyOf(long authorId) {
+        return authorId == EMPTY ? Long.MIN_VALUE : authorId;
+    }
+
+    // Snowflakes share their low bits with the worker and sequence ids, so spread the timestamp bits
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
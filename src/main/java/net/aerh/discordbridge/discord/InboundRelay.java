@@ -0,0 +1,171 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import net.aerh.discordbridge.config.InboundConfig;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Queues Discord messages and delivers them in game on a fixed tick. Each tick renders up to
+ * {@link InboundConfig#getMaxMessagesPerTick()} messages and hands the batch to every world's own
+ * executor, so players are only messaged from their world's thread and a burst on Discord is spread
+ * over several ticks instead of being broadcast at once.
+ */
+public final class InboundRelay implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final Supplier<InboundConfig> configSupplier;
+    private final Renderer renderer;
+    private final BoundedRingBuffer<DiscordMessage> queue;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LatencyHistogram tickTime = new LatencyHistogram();
+
+    /**
+     * @param renderer turns a queued message into what players see, or {@code null} to skip it
+     */
+    public InboundRelay(@NotNull Supplier<InboundConfig> configSupplier, @NotNull Renderer renderer) {
+        InboundConfig config = configSupplier.get();
+        this.configSupplier = configSupplier;
+        this.renderer = renderer;
+        this.queue = new BoundedRingBuffer<>(config.getQueueCapacity());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordBridge-Inbound");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, config.getTickMillis(), config.getTickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a message for the next tick, dropping the oldest queued message if the queue is full.
+     */
+    public void submit(@NotNull DiscordMessage message) {
+        while (!queue.offer(message)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages handed to the worlds
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return the number of messages dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return time each non-empty tick spent rendering its batch and handing it to the worlds
+     */
+    @NotNull
+    public LatencyHistogram getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * Stops delivering. Messages still queued are discarded.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void tick() {
+        // An exception would cancel the scheduled task, so nothing may escape
+        try {
+            if (queue.isEmpty()) {
+                return;
+            }
+
+            Universe universe = Universe.get();
+            if (universe == null) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            List<Message> batch = drain(configSupplier.get().getMaxMessagesPerTick());
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            delivered.add(batch.size());
+            Map<String, World> worlds = universe.getWorlds();
+            if (worlds == null) {
+                return;
+            }
+
+            for (World world : worlds.values()) {
+                try {
+                    world.execute(() -> deliver(world, batch));
+                } catch (RuntimeException exception) {
+                    LOGGER.at(Level.WARNING).withCause(exception).log("Failed to schedule Discord messages for world %s", world.getName());
+                }
+            }
+            tickTime.recordSince(start);
+        } catch (RuntimeException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to relay Discord messages");
+        }
+    }
+
+    @NotNull
+    private List<Message> drain(int max) {
+        List<Message> batch = new ArrayList<>(Math.min(max, queue.size()));
+        while (batch.size() < max) {
+            DiscordMessage message = queue.poll();
+            if (message == null) {
+                break;
+            }
+
+            Message rendered = renderer.render(message);
+            if (rendered != null) {
+                batch.add(rendered);
+            }
+        }
+
+        return List.copyOf(batch);
+    }
+
+    private static void deliver(@NotNull World world, @NotNull List<Message> batch) {
+        for (PlayerRef player : world.getPlayerRefs()) {
+            for (Message message : batch) {
+                player.sendMessage(message);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        @Nullable
+        Message render(@NotNull DiscordMessage message);
+    }
+}
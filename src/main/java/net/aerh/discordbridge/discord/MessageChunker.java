@@ -0,0 +1,111 @@
+package net.aerh.discordbridge.discord;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for fitting text into Discord's message length limit.
+ */
+public final class MessageChunker {
+
+    /**
+     * Maximum number of characters Discord accepts in a single message.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private MessageChunker() {
+    }
+
+    /**
+     * Splits a single piece of content into chunks no longer than {@link #MAX_MESSAGE_LENGTH},
+     * preferring to break at a newline or space near the end of each chunk.
+     *
+     * @param content the content to split
+     * @return the chunks, in order; a single element if the content already fits
+     */
+    @NotNull
+    public static List<String> split(@NotNull String content) {
+        if (content.length() <= MAX_MESSAGE_LENGTH) {
+            return List.of(content);
+        }
+
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (content.length() - start > MAX_MESSAGE_LENGTH) {
+            int end = start + MAX_MESSAGE_LENGTH;
+            int breakAt = findBreak(content, start, end);
+            chunks.add(content.substring(start, breakAt));
+            start = breakAt;
+            while (start < content.length() && (content.charAt(start) == '\n' || content.charAt(start) == ' ')) {
+                start++;
+            }
+        }
+
+        if (start < content.length()) {
+            chunks.add(content.substring(start));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Packs lines into as few newline-joined messages as possible, preserving order.
+     * Lines longer than {@link #MAX_MESSAGE_LENGTH} are split first.
+     *
+     * @param lines    the lines to pack
+     * @param maxLines the maximum number of lines per message, or {@code 0} for no limit
+     * @return the packed messages
+     */
+    @NotNull
+    public static List<String> pack(@NotNull List<String> lines, int maxLines) {
+        List<String> messages = new ArrayList<>();
+        StringBuilder current = new StringBuilder(MAX_MESSAGE_LENGTH);
+        int linesInCurrent = 0;
+
+        for (String line : lines) {
+            for (String piece : split(line)) {
+                boolean fits = current.isEmpty()
+                        || current.length() + 1 + piece.length() <= MAX_MESSAGE_LENGTH;
+                boolean underLineCap = maxLines <= 0 || linesInCurrent < maxLines;
+                if (!fits || !underLineCap) {
+                    emit(messages, current);
+                    linesInCurrent = 0;
+                }
+
+                if (!current.isEmpty()) {
+                    current.append('\n');
+                }
+                current.append(piece);
+                linesInCurrent++;
+            }
+        }
+
+        emit(messages, current);
+        return messages;
+    }
+
+    private static void emit(@NotNull List<String> messages, @NotNull StringBuilder current) {
+        if (current.isEmpty()) {
+            return;
+        }
+
+        messages.add(current.toString());
+        current.setLength(0);
+    }
+
+    private static int findBreak(@NotNull String content, int start, int end) {
+        int newline = content.lastIndexOf('\n', end - 1);
+        if (newline > start) {
+            return newline;
+        }
+
+        int space = content.lastIndexOf(' ', end - 1);
+        if (space > start) {
+            return space;
+        }
+
+        return Character.isHighSurrogate(content.charAt(end - 1)) ? end - 1 : end;
+    }
+}
@@ -2,16 +2,17 @@ package net.aerh.discordbridge.discord;
 
 import net.aerh.discordbridge.discord.model.DiscordMessage;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.regex.Pattern;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility class for sanitizing messages between Discord and the game.
+ * <p>
+ * Each method makes a single pass over its input and returns the input itself when nothing changes.
+ * Whitespace is collapsed like {@code \s+} (space, tab, line feed, vertical tab, form feed and carriage
+ * return become one space) and trimmed like {@link String#trim()}.
  */
 public final class MessageSanitizer {
 
-    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
-
     private MessageSanitizer() {
     }
 
@@ -24,13 +25,7 @@ public final class MessageSanitizer {
      */
     @NotNull
     public static String sanitizeOutgoing(@NotNull String original, boolean allowMentions) {
-        String value = WHITESPACE_PATTERN.matcher(original).replaceAll(" ").trim();
-
-        if (!allowMentions) {
-            value = preventMentions(value);
-        }
-
-        return value;
+        return scan(original, true, !allowMentions);
     }
 
     /**
@@ -41,6 +36,11 @@ public final class MessageSanitizer {
      */
     @NotNull
     public static String sanitizeIncoming(@NotNull DiscordMessage message) {
+        if (message.attachmentUrls().isEmpty()) {
+            // isBlank also covers Unicode spaces, which the whitespace rules below keep
+            return message.rawContent().isBlank() ? "" : scan(message.rawContent(), true, false);
+        }
+
         StringBuilder builder = new StringBuilder();
 
         if (!message.rawContent().isBlank()) {
@@ -54,20 +54,122 @@ public final class MessageSanitizer {
             builder.append("(attachment: ").append(attachment).append(')');
         }
 
-        return WHITESPACE_PATTERN.matcher(builder.toString()).replaceAll(" ").trim();
+        return scan(builder.toString(), true, false);
     }
 
     /**
-     * Prevents Discord mentions by adding spaces after @ symbols.
+     * Prevents Discord mentions by adding a space after the mention prefix: {@code @everyone},
+     * {@code @here}, user ({@code <@}), role ({@code <@&}) and channel ({@code <#}) mentions.
      *
      * @param value the string to sanitize
      * @return the sanitized string with mentions disabled
      */
     @NotNull
     public static String preventMentions(@NotNull String value) {
-        String result = value.replace("@everyone", "@ everyone").replace("@here", "@ here");
-        result = result.replace("<@", "<@ ");
-        result = result.replace("<@&", "<@& ");
-        return result;
+        return scan(value, false, true);
+    }
+
+    @NotNull
+    private static String scan(@NotNull String value, boolean normalizeWhitespace, boolean neutralizeMentions) {
+        int start = 0;
+        int end = value.length();
+        if (normalizeWhitespace) {
+            while (start < end && value.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && value.charAt(end - 1) <= ' ') {
+                end--;
+            }
+        }
+
+        // Only allocated once the output first differs from the input
+        StringBuilder out = null;
+        int index = start;
+        while (index < end) {
+            char c = value.charAt(index);
+
+            if (normalizeWhitespace && isWhitespace(c)) {
+                int runEnd = index + 1;
+                while (runEnd < end && isWhitespace(value.charAt(runEnd))) {
+                    runEnd++;
+                }
+
+                if (c != ' ' || runEnd - index > 1) {
+                    out = begin(out, value, start, index, end);
+                }
+                if (out != null) {
+                    out.append(' ');
+                }
+                index = runEnd;
+                continue;
+            }
+
+            if (neutralizeMentions) {
+                int prefixLength = mentionPrefixLength(value, index, end);
+                if (prefixLength > 0) {
+                    out = begin(out, value, start, index, end);
+                    out.append(value, index, index + prefixLength).append(' ');
+                    // The '@' of a user mention can also start @everyone or @here, which gets its own space
+                    if (prefixLength == 2 && value.charAt(index + 1) == '@' && isMassMention(value, index + 1)) {
+                        out.append(' ');
+                    }
+                    index += prefixLength;
+                    continue;
+                }
+            }
+
+            if (out != null) {
+                out.append(c);
+            }
+            index++;
+        }
+
+        if (out != null) {
+            return out.toString();
+        }
+
+        return start == 0 && end == value.length() ? value : value.substring(start, end);
+    }
+
+    // Length of the mention prefix starting at index that needs a space after it, or 0
+    private static int mentionPrefixLength(@NotNull String value, int index, int end) {
+        char c = value.charAt(index);
+        if (c == '@') {
+            return isMassMention(value, index) ? 1 : 0;
+        }
+
+        if (c != '<' || index + 1 >= end) {
+            return 0;
+        }
+
+        char next = value.charAt(index + 1);
+        if (next == '#') {
+            return 2;
+        }
+
+        if (next == '@') {
+            return index + 2 < end && value.charAt(index + 2) == '&' ? 3 : 2;
+        }
+
+        return 0;
+    }
+
+    private static boolean isMassMention(@NotNull String value, int atIndex) {
+        return value.startsWith("everyone", atIndex + 1) || value.startsWith("here", atIndex + 1);
+    }
+
+    @NotNull
+    private static StringBuilder begin(@Nullable StringBuilder out, @NotNull String value, int start, int index, int end) {
+        if (out != null) {
+            return out;
+        }
+
+        StringBuilder builder = new StringBuilder(end - start + 16);
+        builder.append(value, start, index);
+        return builder;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package net.aerh.discordbridge.discord;
+
+import net.aerh.discordbridge.config.DiscordBridgeConfig;
+import net.aerh.discordbridge.config.DiscordConfig;
+import net.aerh.discordbridge.config.Placeholder;
+import net.aerh.discordbridge.config.TemplateValues;
+import net.aerh.discordbridge.discord.model.OutboundChatMessage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Turns captured chat lines into Discord messages: sanitizes them, then sends them as the player through the
+ * gateway's webhook or, rendered with the outbound template, on the chat lane. Runs on the chat pipeline's
+ * consumer thread.
+ */
+public final class OutboundChatRelay {
+
+    private final Supplier<DiscordBridgeConfig> configSupplier;
+    private final Supplier<DiscordGateway> gatewaySupplier;
+    private final Consumer<Runnable> dispatcher;
+
+    /**
+     * @param gatewaySupplier the gateway to send through, or {@code null} once it is gone
+     * @param dispatcher      runs each send, such as through the readiness barrier
+     */
+    public OutboundChatRelay(
+            @NotNull Supplier<DiscordBridgeConfig> configSupplier,
+            @NotNull Supplier<DiscordGateway> gatewaySupplier,
+            @NotNull Consumer<Runnable> dispatcher
+    ) {
+        this.configSupplier = configSupplier;
+        this.gatewaySupplier = gatewaySupplier;
+        this.dispatcher = dispatcher;
+    }
+
+    public void process(@NotNull OutboundChatMessage chat) {
+        DiscordBridgeConfig config = configSupplier.get();
+        if (gatewaySupplier.get() == null) {
+            return;
+        }
+
+        DiscordConfig discordConfig = config.getDiscordConfig();
+        String cleaned = MessageSanitizer.sanitizeOutgoing(chat.rawContent(), discordConfig.isAllowMentions());
+        if (cleaned.isEmpty()) {
+            return;
+        }
+
+        // Whether a hub client has a webhook is only known once it is connected, so decide when it is
+        dispatcher.accept(() -> {
+            DiscordGateway gateway = gatewaySupplier.get();
+            if (gateway == null) {
+                return;
+            }
+
+            if (gateway.hasWebhook()) {
+                gateway.sendWebhookMessage(chat.senderName(), chat.senderUuid(), cleaned, chat.capturedNanos());
+                return;
+            }
+
+            String payload = config.getMessagesConfig().getCompiledOutboundTemplate().render(TemplateValues.scratch()
+                    .set(Placeholder.PLAYER, chat.senderName())
+                    .set(Placeholder.MESSAGE, cleaned));
+            if (payload.isBlank()) {
+                return;
+            }
+
+            String finalPayload = discordConfig.isAllowMentions() ? payload : MessageSanitizer.preventMentions(payload);
+            gateway.sendMessage(OutboundLane.CHAT, finalPayload, chat.capturedNanos());
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package net.aerh.discordbridge.discord;
+
+/**
+ * Priority lanes for bot-channel traffic, highest priority first. Lower lanes are shed first
+ * when the outbound backlog grows too large.
+ */
+public enum OutboundLane {
+    /**
+     * Server start and stop notices. Never shed.
+     */
+    SERVER_LIFECYCLE,
+    /**
+     * Player chat sent through the bot.
+     */
+    CHAT,
+    /**
+     * Join, leave and world enter/leave/change notices.
+     */
+    PRESENCE,
+    /**
+     * Kill and death notices.
+     */
+    KILL_FEED,
+    /**
+     * Zone discovery notices.
+     */
+    ZONE_DISCOVERY;
+
+    private static final OutboundLane[] VALUES = values();
+
+    /**
+     * @return the lane with the given ordinal, or {@link #CHAT} if out of range
+     */
+    public static OutboundLane fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : CHAT;
+    }
+}
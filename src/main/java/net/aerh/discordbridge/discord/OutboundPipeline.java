@@ -0,0 +1,168 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Hands outbound work from game threads to a single consumer thread. Producers only place an
+ * element in a bounded ring buffer; the consumer does all formatting and dispatch, so a slow or
+ * unreachable Discord can never stall the thread that produced the message.
+ *
+ * @param <T> the captured message type
+ */
+public final class OutboundPipeline<T> implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long SHUTDOWN_DRAIN_MILLIS = 2000;
+
+    private final BoundedRingBuffer<T> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Consumer<T> handler;
+    private final Thread consumer;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running = true;
+    private volatile boolean consumerIdle;
+
+    /**
+     * @param name               the consumer thread name
+     * @param capacity           the buffer capacity, rounded up to a power of two
+     * @param overflowPolicy     what to do when the buffer is full
+     * @param blockTimeoutMillis how long {@link OverflowPolicy#BLOCK} waits for room
+     * @param handler            processes each element on the consumer thread
+     */
+    public OutboundPipeline(
+            @NotNull String name,
+            int capacity,
+            @NotNull OverflowPolicy overflowPolicy,
+            long blockTimeoutMillis,
+            @NotNull Consumer<T> handler
+    ) {
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeoutMillis));
+        this.handler = handler;
+        this.consumer = Thread.ofVirtual().name(name).unstarted(this::run);
+        this.consumer.start();
+    }
+
+    /**
+     * Offers an element to the consumer, applying the overflow policy if the buffer is full.
+     *
+     * @param element the element to process
+     * @return {@code true} if the element was queued
+     */
+    public boolean submit(@NotNull T element) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+
+        boolean queued = switch (overflowPolicy) {
+            case DROP_NEWEST -> buffer.offer(element);
+            case DROP_OLDEST -> offerEvictingOldest(element);
+            case BLOCK -> offerBlocking(element);
+        };
+
+        if (queued) {
+            accepted.increment();
+            if (consumerIdle) {
+                LockSupport.unpark(consumer);
+            }
+        } else {
+            dropped.increment();
+        }
+
+        return queued;
+    }
+
+    /**
+     * @return the number of elements accepted into the buffer
+     */
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return the number of elements discarded by the overflow policy (including evicted ones)
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of elements waiting for the consumer
+     */
+    public int getDepth() {
+        return buffer.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(SHUTDOWN_DRAIN_MILLIS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offerEvictingOldest(@NotNull T element) {
+        while (!buffer.offer(element)) {
+            if (buffer.poll() != null) {
+                dropped.increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(@NotNull T element) {
+        if (buffer.offer(element)) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(BLOCK_RETRY_NANOS);
+            if (buffer.offer(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void run() {
+        while (true) {
+            T element = buffer.poll();
+            if (element == null) {
+                if (!running) {
+                    return;
+                }
+
+                consumerIdle = true;
+                if (buffer.isEmpty() && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerIdle = false;
+                continue;
+            }
+
+            try {
+                handler.accept(element);
+            } catch (RuntimeException exception) {
+                LOGGER.at(Level.WARNING).withCause(exception).log("Failed to process outbound message");
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+
+/**
+ * Append-only, memory-mapped journal for messages that could not be delivered because the bot
+ * was not connected. Records survive restarts and are replayed in order once the bot is ready.
+ * <p>
+ * Record layout: {@code [int length][long epochMillis][byte lane][length bytes of UTF-8]}. A zero length
+ * marks the end of the journal. The length is written last, so a record torn by a crash is
+ * never read back. Writes go to the page cache immediately and are forced to disk in batches.
+ */
+public final class OutboxJournal implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final int MAGIC = 0x44434231;
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES + Byte.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long maxAgeMillis;
+    private final ScheduledExecutorService flusher;
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    private int writePosition;
+    private int recordCount;
+    private boolean dirty;
+
+    /**
+     * @param file                 the journal file; created if missing
+     * @param maxBytes             the journal size cap; appends beyond it are dropped
+     * @param maxAgeMillis         records older than this are discarded on replay
+     * @param flushIntervalMillis  how often pending writes are forced to disk
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public OutboxJournal(@NotNull Path file, int maxBytes, long maxAgeMillis, long flushIntervalMillis) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(HEADER_BYTES + RECORD_HEADER_BYTES + 1, maxBytes));
+        this.maxAgeMillis = maxAgeMillis;
+        recover();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordBridge-Outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(10, flushIntervalMillis);
+        flusher.scheduleWithFixedDelay(this::force, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends a message to the journal.
+     *
+     * @param lane    the lane the message was sent on
+     * @param content the undelivered message
+     * @return {@code false} if the journal is full and the message was dropped
+     */
+    public synchronized boolean append(@NotNull OutboundLane lane, @NotNull String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        int recordEnd = writePosition + RECORD_HEADER_BYTES + bytes.length;
+        if (bytes.length == 0 || recordEnd > buffer.capacity()) {
+            dropped.increment();
+            return false;
+        }
+
+        buffer.putLong(writePosition + Integer.BYTES, System.currentTimeMillis());
+        buffer.put(writePosition + Integer.BYTES + Long.BYTES, (byte) lane.ordinal());
+        buffer.put(writePosition + RECORD_HEADER_BYTES, bytes);
+        if (recordEnd + Integer.BYTES <= buffer.capacity()) {
+            buffer.putInt(recordEnd, 0);
+        }
+        buffer.putInt(writePosition, bytes.length);
+
+        writePosition = recordEnd;
+        recordCount++;
+        dirty = true;
+        appended.increment();
+        return true;
+    }
+
+    /**
+     * Delivers every journaled message younger than the age limit, in order, then empties the journal.
+     *
+     * @param sink receives each message with the lane it was sent on
+     * @return the number of messages delivered
+     */
+    public synchronized int replay(@NotNull BiConsumer<OutboundLane, String> sink) {
+        if (recordCount == 0) {
+            return 0;
+        }
+
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        int delivered = 0;
+        int position = HEADER_BYTES;
+        while (position < writePosition) {
+            int length = buffer.getInt(position);
+            long timestamp = buffer.getLong(position + Integer.BYTES);
+            if (timestamp < cutoff) {
+                expired.increment();
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.get(position + RECORD_HEADER_BYTES, bytes);
+                OutboundLane lane = OutboundLane.fromOrdinal(buffer.get(position + Integer.BYTES + Long.BYTES));
+                sink.accept(lane, new String(bytes, StandardCharsets.UTF_8));
+                delivered++;
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+
+        buffer.putInt(HEADER_BYTES, 0);
+        writePosition = HEADER_BYTES;
+        recordCount = 0;
+        dirty = true;
+        force();
+        replayed.add(delivered);
+        return delivered;
+    }
+
+    /**
+     * @return the number of messages currently journaled
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    public long getAppended() {
+        return appended.sum();
+    }
+
+    /**
+     * @return the number of messages dropped because the journal was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getReplayed() {
+        return replayed.sum();
+    }
+
+    /**
+     * @return the number of messages discarded on replay for exceeding the age limit
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        force();
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to close outbox journal");
+        }
+    }
+
+    private synchronized void force() {
+        if (!dirty) {
+            return;
+        }
+
+        buffer.force();
+        dirty = false;
+    }
+
+    // Finds the end of the existing records after a restart; anything unreadable is discarded
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(HEADER_BYTES, 0);
+            writePosition = HEADER_BYTES;
+            dirty = true;
+            return;
+        }
+
+        int position = HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            position += RECORD_HEADER_BYTES + length;
+            recordCount++;
+        }
+
+        writePosition = position;
+        if (recordCount > 0) {
+            LOGGER.at(Level.INFO).log("Recovered %s undelivered message(s) from the outbox", recordCount);
+        }
+    }
+}
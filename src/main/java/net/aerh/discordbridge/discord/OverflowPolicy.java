@@ -0,0 +1,44 @@
+package net.aerh.discordbridge.discord;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * What a bounded outbound buffer does when it is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Evict the oldest queued message to make room.
+     */
+    DROP_OLDEST,
+    /**
+     * Discard the message being offered.
+     */
+    DROP_NEWEST,
+    /**
+     * Wait up to a timeout for room, then discard the message being offered.
+     */
+    BLOCK;
+
+    /**
+     * Parses a config value such as {@code DropOldest}, {@code drop-newest} or {@code BLOCK}.
+     *
+     * @param value the config value
+     * @return the matching policy, or {@link #DROP_OLDEST} if unrecognized
+     */
+    @NotNull
+    public static OverflowPolicy parse(@Nullable String value) {
+        if (value == null) {
+            return DROP_OLDEST;
+        }
+
+        String normalized = value.replace("-", "").replace("_", "").toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "dropnewest" -> DROP_NEWEST;
+            case "block", "blockwithtimeout" -> BLOCK;
+            default -> DROP_OLDEST;
+        };
+    }
+}
@@ -0,0 +1,209 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.aerh.discordbridge.config.PresenceDigestConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Switches join, leave and world notices to periodic summaries while they arrive faster than the
+ * configured threshold, such as after a restart or a mass reconnect. Notices are counted in fixed
+ * windows; once a window exceeds the threshold, further notices are summarized every window until a
+ * window sees at most half the threshold, when individual notices resume. The window length and
+ * threshold are read from the config at the start of each window, so a reload applies from the next one.
+ */
+public final class PresenceDigest implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final Supplier<PresenceDigestConfig> configSupplier;
+    private final SummarySender summarySender;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder digestsEntered = new LongAdder();
+    private final LongAdder digestsExited = new LongAdder();
+    private final LongAdder digestedNotices = new LongAdder();
+    private final LongAdder summariesSent = new LongAdder();
+
+    private int windowCount;
+    // The settings the current window runs with
+    private int windowSeconds;
+    private int threshold;
+    private boolean digesting;
+    private int joined;
+    private int left;
+    private int moved;
+
+    /**
+     * @param configSupplier the current digest settings
+     * @param summarySender  sends a summary of the notices collected in one window
+     */
+    public PresenceDigest(@NotNull Supplier<PresenceDigestConfig> configSupplier, @NotNull SummarySender summarySender) {
+        this.configSupplier = configSupplier;
+        this.summarySender = summarySender;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordBridge-Presence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        startWindow();
+    }
+
+    /**
+     * Counts a notice against the current window.
+     *
+     * @param kind the kind of notice
+     * @return {@code true} if the notice should be sent individually, {@code false} if it was folded into the next summary
+     */
+    public boolean admit(@NotNull Kind kind) {
+        if (!configSupplier.get().isEnabled()) {
+            return true;
+        }
+
+        synchronized (this) {
+            windowCount++;
+            if (!digesting) {
+                if (windowCount <= threshold) {
+                    return true;
+                }
+
+                digesting = true;
+                digestsEntered.increment();
+                LOGGER.at(Level.INFO).log("Presence notices exceeded %s per %ss; switching to summaries", threshold, windowSeconds);
+            }
+
+            switch (kind) {
+                case JOIN -> joined++;
+                case LEAVE -> left++;
+                case WORLD -> moved++;
+            }
+            digestedNotices.increment();
+            return false;
+        }
+    }
+
+    public boolean isDigesting() {
+        synchronized (this) {
+            return digesting;
+        }
+    }
+
+    /**
+     * @return how many times digest mode has been entered
+     */
+    public long getDigestsEntered() {
+        return digestsEntered.sum();
+    }
+
+    /**
+     * @return how many times digest mode has been left
+     */
+    public long getDigestsExited() {
+        return digestsExited.sum();
+    }
+
+    /**
+     * @return the number of notices folded into summaries instead of being sent
+     */
+    public long getDigestedNotices() {
+        return digestedNotices.sum();
+    }
+
+    public long getSummariesSent() {
+        return summariesSent.sum();
+    }
+
+    /**
+     * Sends the summary for the current window, if any, and stops the scheduler.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        sendSummary();
+    }
+
+    private void endWindow() {
+        sendSummary();
+        synchronized (this) {
+            if (digesting && windowCount <= threshold / 2) {
+                digesting = false;
+                digestsExited.increment();
+                LOGGER.at(Level.INFO).log("Presence notices back under threshold; resuming individual messages");
+            }
+            windowCount = 0;
+        }
+        startWindow();
+    }
+
+    private void startWindow() {
+        PresenceDigestConfig config = configSupplier.get();
+        int seconds;
+        synchronized (this) {
+            windowSeconds = config.getWindowSeconds();
+            threshold = config.getThreshold();
+            seconds = windowSeconds;
+        }
+
+        try {
+            scheduler.schedule(this::endWindow, seconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Closing; close() sends the summary
+        }
+    }
+
+    private void sendSummary() {
+        int joinedCount;
+        int leftCount;
+        int movedCount;
+        int seconds;
+        synchronized (this) {
+            seconds = windowSeconds;
+            joinedCount = joined;
+            leftCount = left;
+            movedCount = moved;
+            joined = 0;
+            left = 0;
+            moved = 0;
+        }
+
+        if (joinedCount + leftCount + movedCount == 0) {
+            return;
+        }
+
+        summariesSent.increment();
+        try {
+            summarySender.send(joinedCount, leftCount, movedCount, seconds);
+        } catch (RuntimeException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to send presence summary");
+        }
+    }
+
+    /**
+     * What a presence notice reports.
+     */
+    public enum Kind {
+        /**
+         * A player joined the server.
+         */
+        JOIN,
+        /**
+         * A player left the server.
+         */
+        LEAVE,
+        /**
+         * A player entered, left or changed world.
+         */
+        WORLD
+    }
+
+    @FunctionalInterface
+    public interface SummarySender {
+        void send(int joined, int left, int moved, int windowSeconds);
+    }
+}
@@ -0,0 +1,251 @@
+package net.aerh.discordbridge.discord;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-lane queues for bot-channel traffic. Lines are taken from the lanes by smooth weighted
+ * round-robin, lines older than their lane's maximum age are discarded, and when the total backlog
+ * passes the shed threshold the oldest lines of the lowest-priority lanes are dropped first. A line
+ * counts as sent, and its lane latency is recorded, only once the caller reports it delivered.
+ */
+public final class PrioritizedDispatcher {
+
+    private static final OutboundLane[] LANES = OutboundLane.values();
+
+    private final Lane[] lanes = new Lane[LANES.length];
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final int shedThreshold;
+
+    /**
+     * @param settings      weight and maximum age for each lane
+     * @param shedThreshold the backlog size above which low-priority lines are dropped, or {@code 0} for no limit
+     */
+    public PrioritizedDispatcher(@NotNull LaneSettings settings, int shedThreshold) {
+        for (OutboundLane lane : LANES) {
+            lanes[lane.ordinal()] = new Lane(
+                    Math.max(1, settings.weight(lane)),
+                    TimeUnit.SECONDS.toNanos(Math.max(0, settings.maxAgeSeconds(lane)))
+            );
+        }
+        this.shedThreshold = Math.max(0, shedThreshold);
+    }
+
+    /**
+     * Queues a line on the given lane, shedding low-priority lines if the backlog is too large.
+     */
+    public void offer(@NotNull OutboundLane lane, @NotNull String content) {
+        offer(lane, content, System.nanoTime());
+    }
+
+    /**
+     * @param originNanos when the line's event happened, from {@link System#nanoTime()}
+     */
+    public void offer(@NotNull OutboundLane lane, @NotNull String content, long originNanos) {
+        Lane target = lanes[lane.ordinal()];
+        target.queue.offerLast(new Entry(lane, content, System.nanoTime(), originNanos));
+        target.enqueued.increment();
+
+        if (backlog.incrementAndGet() > shedThreshold && shedThreshold > 0) {
+            shed();
+        }
+    }
+
+    /**
+     * Puts a piece that was taken but not sent, or not delivered, back at the head of its lane, so lane
+     * priorities decide again whether it goes next.
+     */
+    public synchronized void requeue(@NotNull Entry entry) {
+        lanes[entry.lane().ordinal()].queue.offerFirst(entry);
+        backlog.incrementAndGet();
+    }
+
+    /**
+     * Counts the piece as sent, with the time since it was queued as its lane latency. Only a line's last
+     * piece is counted, so a split line counts once.
+     */
+    public void recordSent(@NotNull Entry entry) {
+        if (entry.lastPiece()) {
+            lanes[entry.lane().ordinal()].recordSent(System.nanoTime() - entry.enqueuedNanos());
+        }
+    }
+
+    /**
+     * Takes the next line to send. Only called from the flushing thread.
+     *
+     * @return the next entry, or {@code null} if every lane is empty
+     */
+    @Nullable
+    public synchronized Entry poll() {
+        while (true) {
+            Lane selected = selectLane();
+            if (selected == null) {
+                return null;
+            }
+
+            Entry entry = selected.queue.pollFirst();
+            if (entry == null) {
+                continue;
+            }
+            backlog.decrementAndGet();
+
+            if (selected.maxAgeNanos > 0 && System.nanoTime() - entry.enqueuedNanos() > selected.maxAgeNanos) {
+                if (entry.lastPiece()) {
+                    selected.expired.increment();
+                }
+                continue;
+            }
+
+            return entry;
+        }
+    }
+
+    public boolean isEmpty() {
+        return backlog.get() <= 0;
+    }
+
+    /**
+     * @return the number of lines waiting across all lanes
+     */
+    public int getBacklog() {
+        return Math.max(0, backlog.get());
+    }
+
+    public int getDepth(@NotNull OutboundLane lane) {
+        return lanes[lane.ordinal()].queue.size();
+    }
+
+    public long getEnqueued(@NotNull OutboundLane lane) {
+        return lanes[lane.ordinal()].enqueued.sum();
+    }
+
+    public long getSent(@NotNull OutboundLane lane) {
+        return lanes[lane.ordinal()].sent.sum();
+    }
+
+    /**
+     * @return the number of lines dropped from the lane because the backlog was over the shed threshold
+     */
+    public long getShed(@NotNull OutboundLane lane) {
+        return lanes[lane.ordinal()].shed.sum();
+    }
+
+    /**
+     * @return the number of lines dropped from the lane because they waited longer than its maximum age
+     */
+    public long getExpired(@NotNull OutboundLane lane) {
+        return lanes[lane.ordinal()].expired.sum();
+    }
+
+    /**
+     * @return the average time from a line being queued on the lane until it was delivered, in milliseconds
+     */
+    public double getAverageLatencyMillis(@NotNull OutboundLane lane) {
+        Lane target = lanes[lane.ordinal()];
+        long sent = target.sent.sum();
+        return sent == 0 ? 0 : target.totalWaitNanos.sum() / (double) sent / 1_000_000.0;
+    }
+
+    /**
+     * @return the longest time from a line being queued on the lane until it was delivered, in milliseconds
+     */
+    public long getMaxLatencyMillis(@NotNull OutboundLane lane) {
+        return TimeUnit.NANOSECONDS.toMillis(lanes[lane.ordinal()].maxWaitNanos.get());
+    }
+
+    // Drops the oldest lines of the lowest-priority non-empty lane until the backlog is back under the threshold
+    private void shed() {
+        for (int i = LANES.length - 1; i > OutboundLane.SERVER_LIFECYCLE.ordinal() && backlog.get() > shedThreshold; i--) {
+            Lane lane = lanes[i];
+            Entry entry;
+            while (backlog.get() > shedThreshold && (entry = lane.queue.pollFirst()) != null) {
+                backlog.decrementAndGet();
+                if (entry.lastPiece()) {
+                    lane.shed.increment();
+                }
+            }
+        }
+    }
+
+    // Smooth weighted round-robin over the lanes that currently have lines
+    @Nullable
+    private Lane selectLane() {
+        Lane best = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes) {
+            if (lane.queue.isEmpty()) {
+                continue;
+            }
+
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+
+    /**
+     * A queued line, or one piece of a line split to fit Discord's message limit.
+     *
+     * @param lane          the lane it was queued on
+     * @param content       the line
+     * @param enqueuedNanos when it was queued, from {@link System#nanoTime()}
+     * @param originNanos   when its event happened, from {@link System#nanoTime()}
+     * @param lastPiece     whether this is the line itself or its last piece, which is what the lane metrics count
+     */
+    public record Entry(@NotNull OutboundLane lane, @NotNull String content, long enqueuedNanos, long originNanos, boolean lastPiece) {
+
+        public Entry(@NotNull OutboundLane lane, @NotNull String content, long enqueuedNanos, long originNanos) {
+            this(lane, content, enqueuedNanos, originNanos, true);
+        }
+    }
+
+    /**
+     * Per-lane tuning.
+     */
+    public interface LaneSettings {
+        int weight(@NotNull OutboundLane lane);
+
+        /**
+         * @return the maximum time a line may wait on the lane, or {@code 0} for no limit
+         */
+        int maxAgeSeconds(@NotNull OutboundLane lane);
+    }
+
+    private static final class Lane {
+        private final Deque<Entry> queue = new ConcurrentLinkedDeque<>();
+        private final int weight;
+        private final long maxAgeNanos;
+        private final LongAdder enqueued = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private int currentWeight;
+
+        private Lane(int weight, long maxAgeNanos) {
+            this.weight = weight;
+            this.maxAgeNanos = maxAgeNanos;
+        }
+
+        private void recordSent(long waitedNanos) {
+            sent.increment();
+            totalWaitNanos.add(waitedNanos);
+            maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+        }
+    }
+}
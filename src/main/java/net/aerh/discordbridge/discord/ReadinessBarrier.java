@@ -0,0 +1,213 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Holds outbound messages produced before the Discord connection is ready and releases them, in the order they
+ * were offered, exactly once when it is. After that, messages pass straight through.
+ * <p>
+ * Producers and the thread that opens the barrier never block each other: the backlog is a lock-free queue, and
+ * whichever thread finds it has work to do delivers it. Only one thread delivers at a time, always from the head of
+ * the backlog, and a message skips the backlog only when nothing is waiting or being delivered, so a message is never
+ * sent ahead of one offered before it. When the backlog is full, new messages are dropped so the earliest ones, such
+ * as the server start notice, survive; messages held longer than the age cutoff are discarded when the barrier opens.
+ *
+ * @param <T> the message type
+ */
+public final class ReadinessBarrier<T> {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final Queue<Pending<T>> backlog = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean open = new AtomicBoolean();
+    // Non-zero while a thread is delivering; it counts the requests to deliver that the thread still has to pick up
+    private final AtomicInteger deliveryRequests = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final int capacity;
+    private final long maxAgeNanos;
+    private final Consumer<T> sink;
+
+    /**
+     * @param capacity      the most messages held while not ready
+     * @param maxAgeSeconds messages held longer than this are discarded instead of released, or {@code 0} for no limit
+     * @param sink          sends a message once the barrier is open; never called by two threads at once
+     */
+    public ReadinessBarrier(int capacity, int maxAgeSeconds, @NotNull Consumer<T> sink) {
+        this.capacity = Math.max(1, capacity);
+        this.maxAgeNanos = maxAgeSeconds <= 0 ? 0 : TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        this.sink = sink;
+    }
+
+    /**
+     * Sends the message if the barrier is open, otherwise holds it until {@link #open()}.
+     *
+     * @return {@code false} if the message was dropped because the backlog is full
+     */
+    public boolean offer(@NotNull T message) {
+        if (open.get()) {
+            pass(message);
+            return true;
+        }
+
+        if (!reserve()) {
+            dropped.increment();
+            LOGGER.at(Level.FINE).log("Discord not ready and early backlog full; dropping message.");
+            return false;
+        }
+
+        backlog.add(new Pending<>(message, System.nanoTime(), true));
+        // Opened while this message was being added: the opener may have emptied the backlog already
+        if (open.get()) {
+            requestDelivery();
+        }
+        return true;
+    }
+
+    /**
+     * Releases the backlog and lets later messages through. Only the first call releases anything.
+     *
+     * @return the number of held messages sent while this call ran
+     */
+    public int open() {
+        if (!open.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        long before = released.sum();
+        requestDelivery();
+        int sent = (int) (released.sum() - before);
+        if (sent > 0) {
+            LOGGER.at(Level.INFO).log("Sent %s message(s) held while connecting to Discord", sent);
+        }
+        return sent;
+    }
+
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    /**
+     * @return the number of messages currently held
+     */
+    public int getBacklog() {
+        return size.get();
+    }
+
+    /**
+     * @return messages dropped because the backlog was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return held messages discarded for being older than the age cutoff
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * @return held messages sent once the barrier opened
+     */
+    public long getReleased() {
+        return released.sum();
+    }
+
+    // Open: send directly when nothing is waiting or being delivered, otherwise queue behind what is
+    private void pass(@NotNull T message) {
+        if (deliveryRequests.get() == 0 && deliveryRequests.compareAndSet(0, 1)) {
+            if (!backlog.isEmpty()) {
+                enqueue(message);
+            } else {
+                deliver(message);
+                if (deliveryRequests.decrementAndGet() == 0) {
+                    return;
+                }
+            }
+            drain();
+            return;
+        }
+
+        enqueue(message);
+        requestDelivery();
+    }
+
+    private void enqueue(@NotNull T message) {
+        size.incrementAndGet();
+        backlog.add(new Pending<>(message, System.nanoTime(), false));
+    }
+
+    // Delivers the backlog unless another thread is already doing so, in which case that thread picks it up
+    private void requestDelivery() {
+        if (deliveryRequests.getAndIncrement() == 0) {
+            drain();
+        }
+    }
+
+    // Only called by the thread that took deliveryRequests from zero
+    private void drain() {
+        int missed = deliveryRequests.get();
+        while (true) {
+            Pending<T> pending;
+            while ((pending = backlog.poll()) != null) {
+                size.decrementAndGet();
+                if (!pending.held) {
+                    deliver(pending.message);
+                    continue;
+                }
+
+                if (maxAgeNanos > 0 && System.nanoTime() - pending.queuedNanos > maxAgeNanos) {
+                    expired.increment();
+                    continue;
+                }
+
+                released.increment();
+                deliver(pending.message);
+            }
+
+            missed = deliveryRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(@NotNull T message) {
+        try {
+            sink.accept(message);
+        } catch (RuntimeException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to send message to Discord");
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @param held whether the message was offered before the barrier opened, rather than queued behind others after
+     */
+    private record Pending<T>(@NotNull T message, long queuedNanos, boolean held) {
+    }
+}
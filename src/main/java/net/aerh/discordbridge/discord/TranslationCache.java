@@ -0,0 +1,177 @@
+package net.aerh.discordbridge.discord;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.modules.i18n.I18nModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**
+ * Read-only snapshot of the translations the bridge looks up on hot paths (zone and region names,
+ * damage causes and items) for one locale. Zone, region and damage cause names are indexed by their
+ * id so lookups need no key concatenation. The snapshot is immutable and replaced as a whole by
+ * {@link #reload(String)}; lookups it cannot answer fall through to the I18n module.
+ */
+public final class TranslationCache {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final String ZONE_PREFIX = "server.map.zone.";
+    private static final String REGION_PREFIX = "server.map.region.";
+    private static final String DAMAGE_CAUSE_PREFIX = "server.general.damageCauses.";
+    private static final String ITEM_PREFIX = "server.items.";
+
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Runs {@code listener} after every reload, once the new snapshot is in place, so caches of text rendered
+     * from the old translations can be dropped.
+     */
+    public void addReloadListener(@NotNull Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Reloads the snapshot for the locale in the background.
+     */
+    @NotNull
+    public CompletableFuture<Void> reloadAsync(@NotNull String locale) {
+        return CompletableFuture.runAsync(() -> reload(locale))
+                .exceptionally(throwable -> {
+                    LOGGER.at(Level.WARNING).withCause(throwable).log("Failed to prewarm translations for %s", locale);
+                    return null;
+                });
+    }
+
+    /**
+     * Builds a new snapshot for the locale and swaps it in. Call again after the server reloads its languages.
+     */
+    public void reload(@NotNull String locale) {
+        Map<String, String> messages = I18nModule.get().getMessages(locale);
+        if (messages == null) {
+            messages = Map.of();
+        }
+
+        Map<String, String> zones = new HashMap<>();
+        Map<String, String> regions = new HashMap<>();
+        Map<String, String> damageCauses = new HashMap<>();
+        Map<String, String> keyed = new HashMap<>();
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (key == null || value == null || value.isBlank()) {
+                continue;
+            }
+
+            if (key.startsWith(ZONE_PREFIX)) {
+                zones.put(key.substring(ZONE_PREFIX.length()), value);
+            } else if (key.startsWith(REGION_PREFIX)) {
+                regions.put(key.substring(REGION_PREFIX.length()), value);
+            } else if (key.startsWith(DAMAGE_CAUSE_PREFIX)) {
+                damageCauses.put(key.substring(DAMAGE_CAUSE_PREFIX.length()), value);
+                keyed.put(key, value);
+            } else if (key.startsWith(ITEM_PREFIX)) {
+                keyed.put(key, value);
+            }
+        }
+
+        snapshot = new Snapshot(locale, Map.copyOf(zones), Map.copyOf(regions), Map.copyOf(damageCauses), Map.copyOf(keyed));
+        LOGGER.at(Level.INFO).log("Cached %s translations for %s", zones.size() + regions.size() + keyed.size(), locale);
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Translates a full translation key, such as an item's.
+     *
+     * @return the translation, or {@code null} if there is none
+     */
+    @Nullable
+    public String get(@NotNull String locale, @NotNull String key) {
+        Snapshot current = snapshot;
+        if (current.locale.equals(locale)) {
+            String cached = current.keyed.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        return I18nModule.get().getMessage(locale, key);
+    }
+
+    /**
+     * @return the zone's translated name, or {@code null} if there is none
+     */
+    @Nullable
+    public String zone(@NotNull String locale, @NotNull String zoneId) {
+        Snapshot current = snapshot;
+        if (current.locale.equals(locale)) {
+            String cached = current.zones.get(zoneId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        return I18nModule.get().getMessage(locale, ZONE_PREFIX + zoneId);
+    }
+
+    /**
+     * @return the region's translated name, or {@code null} if there is none
+     */
+    @Nullable
+    public String region(@NotNull String locale, @NotNull String regionId) {
+        Snapshot current = snapshot;
+        if (current.locale.equals(locale)) {
+            String cached = current.regions.get(regionId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        return I18nModule.get().getMessage(locale, REGION_PREFIX + regionId);
+    }
+
+    /**
+     * @return the damage cause's translated name, or {@code null} if there is none
+     */
+    @Nullable
+    public String damageCause(@NotNull String locale, @NotNull String causeId) {
+        // toLowerCase returns the same instance when the id is already lower case
+        String id = causeId.toLowerCase(Locale.ROOT);
+        Snapshot current = snapshot;
+        if (current.locale.equals(locale)) {
+            String cached = current.damageCauses.get(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        return I18nModule.get().getMessage(locale, DAMAGE_CAUSE_PREFIX + id);
+    }
+
+    /**
+     * @return the number of cached translations
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current.zones.size() + current.regions.size() + current.keyed.size();
+    }
+
+    private record Snapshot(
+            @NotNull String locale,
+            @NotNull Map<String, String> zones,
+            @NotNull Map<String, String> regions,
+            @NotNull Map<String, String> damageCauses,
+            @NotNull Map<String, String> keyed
+    ) {
+        private static final Snapshot EMPTY = new Snapshot("", Map.of(), Map.of(), Map.of(), Map.of());
+    }
+}
@@ -1,29 +1,181 @@
 package net.aerh.discordbridge.discord;
 
-import club.minnced.discord.webhook.WebhookClient;
-import club.minnced.discord.webhook.WebhookClientBuilder;
 import club.minnced.discord.webhook.send.WebhookMessageBuilder;
 import com.hypixel.hytale.logger.HytaleLogger;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 public final class WebhookMessageSender implements AutoCloseable {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
-    private final WebhookClient webhookClient;
+    private final WebhookPool webhookPool;
     private final String avatarUrlFormat;
+    private final long mergeWindowMillis;
+    private final long mergeWindowNanos;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final DeliveryTracer tracer;
+    @Nullable
+    private final ScheduledExecutorService scheduler;
 
-    public WebhookMessageSender(@NotNull String webhookUrl, @NotNull String avatarUrlFormat) {
-        this.webhookClient = new WebhookClientBuilder(webhookUrl)
-                .setWait(false)
-                .build();
+    @Nullable
+    private PlayerRun currentRun;
+    // The player whose line was accepted last, and when, to tell whether their next line starts a run
+    @Nullable
+    private UUID lastPlayer;
+    private long lastLineNanos;
+
+    /**
+     * @param webhookUrls       the webhooks to spread chat across
+     * @param poolStrategy      how a webhook is picked for each message ({@code Affinity} or {@code LeastRateLimited})
+     * @param avatarUrlFormat   format string for player avatars, given the dash-less UUID
+     * @param mergeWindowMillis how long consecutive lines from the same player are merged; {@code 0} disables merging
+     * @param tracer            records how long each message took to be accepted
+     * @param apiBaseUrl        where to send webhook requests instead of Discord, such as the load-test stand-in;
+     *                          only the scheme, host and port are used
+     */
+    public WebhookMessageSender(
+            @NotNull List<String> webhookUrls,
+            @NotNull String poolStrategy,
+            @NotNull String avatarUrlFormat,
+            long mergeWindowMillis,
+            @NotNull DeliveryTracer tracer,
+            @Nullable String apiBaseUrl
+    ) {
+        this.tracer = tracer;
+        this.webhookPool = new WebhookPool(webhookUrls, WebhookPool.Strategy.parse(poolStrategy), apiBaseUrl);
         this.avatarUrlFormat = avatarUrlFormat;
+        this.mergeWindowMillis = Math.max(0, mergeWindowMillis);
+        this.mergeWindowNanos = TimeUnit.MILLISECONDS.toNanos(this.mergeWindowMillis);
+        this.scheduler = this.mergeWindowMillis > 0
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "DiscordBridge-Webhook");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * Sends a chat line as the given player. A line is sent at once unless the same player's previous
+     * line came less than the merge window ago; then it opens a run, and the player's lines until the
+     * window ends are combined into one webhook message. A single line is never delayed, and a line from
+     * a different player closes the current run first, so interleaved order is kept.
+     *
+     * @param originNanos when the line was captured, from {@link System#nanoTime()}
+     */
+    public void sendPlayerMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message, long originNanos) {
+        if (scheduler == null) {
+            send(username, playerUuid, message, originNanos, System.nanoTime());
+            return;
+        }
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            boolean sameAsLast = playerUuid.equals(lastPlayer) && now - lastLineNanos < mergeWindowNanos;
+            lastPlayer = playerUuid;
+            lastLineNanos = now;
+
+            PlayerRun run = currentRun;
+            if (run != null && run.playerUuid.equals(playerUuid)) {
+                run.lines.add(message);
+                return;
+            }
+
+            flushRun();
+            if (!sameAsLast) {
+                send(username, playerUuid, message, originNanos, now);
+                return;
+            }
+
+            PlayerRun next = new PlayerRun(username, playerUuid, originNanos, now);
+            next.lines.add(message);
+            currentRun = next;
+            try {
+                scheduler.schedule(() -> flushIfCurrent(next), mergeWindowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // Closing; close() flushes the open run
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            synchronized (this) {
+                flushRun();
+            }
+        }
+
+        webhookPool.close();
+    }
+
+    /**
+     * @return the number of webhooks chat is spread across
+     */
+    public int getWebhookCount() {
+        return webhookPool.size();
+    }
+
+    /**
+     * @return the number of 429 responses seen across all webhooks
+     */
+    public long getRateLimitHits() {
+        return webhookPool.getRateLimitHits();
     }
 
-    public void sendPlayerMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message) {
+    /**
+     * @return the number of webhook messages handed to the webhook clients
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return the number of webhook messages Discord failed to accept
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @NotNull
+    public LatencyHistogram getLatency() {
+        return webhookPool.getLatency();
+    }
+
+    private synchronized void flushIfCurrent(@NotNull PlayerRun run) {
+        if (currentRun == run) {
+            flushRun();
+        }
+    }
+
+    // Must hold the lock; sends happen in order because the webhook client queues them
+    private void flushRun() {
+        PlayerRun run = currentRun;
+        if (run == null) {
+            return;
+        }
+
+        currentRun = null;
+        for (String content : MessageChunker.pack(run.lines, 0)) {
+            send(run.username, run.playerUuid, content, run.originNanos, run.startedNanos);
+        }
+    }
+
+    private void send(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message, long originNanos, long enqueuedNanos) {
         String avatarUrl = String.format(avatarUrlFormat, playerUuid.toString().replace("-", ""));
 
         WebhookMessageBuilder builder = new WebhookMessageBuilder()
@@ -31,17 +183,35 @@ public final class WebhookMessageSender implements AutoCloseable {
                 .setAvatarUrl(avatarUrl)
                 .setContent(message);
 
-        webhookClient.send(builder.build())
-                .exceptionally(throwable -> {
+        sent.increment();
+        long handoffNanos = System.nanoTime();
+        webhookPool.send(playerUuid, builder.build())
+                .whenComplete((result, throwable) -> {
+                    if (throwable == null) {
+                        tracer.record(DeliveryTracer.Route.WEBHOOK, originNanos, enqueuedNanos, handoffNanos, System.nanoTime());
+                        return;
+                    }
+
+                    failures.increment();
                     LOGGER.at(Level.WARNING)
                             .withCause(throwable)
                             .log("Failed to send webhook message to Discord");
-                    return null;
                 });
     }
 
-    @Override
-    public void close() {
-        webhookClient.close();
+    private static final class PlayerRun {
+        private final String username;
+        private final UUID playerUuid;
+        private final List<String> lines = new ArrayList<>();
+        // The first line's stamps; later lines in the run wait less
+        private final long originNanos;
+        private final long startedNanos;
+
+        private PlayerRun(@NotNull String username, @NotNull UUID playerUuid, long originNanos, long startedNanos) {
+            this.username = username;
+            this.playerUuid = playerUuid;
+            this.originNanos = originNanos;
+            this.startedNanos = startedNanos;
+        }
     }
-}
\ No newline at end of file
+}
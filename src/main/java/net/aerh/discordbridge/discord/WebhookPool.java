@@ -0,0 +1,260 @@
+package net.aerh.discordbridge.discord;
+
+import club.minnced.discord.webhook.WebhookClient;
+import club.minnced.discord.webhook.WebhookClientBuilder;
+import club.minnced.discord.webhook.send.WebhookMessage;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A set of webhook clients that share chat traffic. Each client watches its own responses
+ * for rate limits and is skipped while it is backing off. Each client queues and retries on
+ * its own, so with {@link Strategy#AFFINITY} a player only moves to another client once the
+ * one they last used has delivered everything handed to it.
+ */
+final class WebhookPool implements AutoCloseable {
+
+    private static final long DEFAULT_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Member[] members;
+    private final Strategy strategy;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    // Players whose last message went to a client other than their home one
+    private final Map<UUID, Member> movedPlayers = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * @param apiBaseUrl where to send webhook requests instead of Discord, keeping the path; {@code null} for Discord
+     */
+    WebhookPool(@NotNull List<String> webhookUrls, @NotNull Strategy strategy, @Nullable String apiBaseUrl) {
+        if (webhookUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one webhook URL is required");
+        }
+
+        OkHttpClient sharedHttpClient = new OkHttpClient();
+        if (apiBaseUrl != null) {
+            HttpUrl base = HttpUrl.get(apiBaseUrl);
+            sharedHttpClient = sharedHttpClient.newBuilder()
+                    .addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                            .url(chain.request().url().newBuilder()
+                                    .scheme(base.scheme())
+                                    .host(base.host())
+                                    .port(base.port())
+                                    .build())
+                            .build()))
+                    .build();
+        }
+
+        this.members = new Member[webhookUrls.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new Member(webhookUrls.get(i), sharedHttpClient, latency);
+        }
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sends the given player's message through the client picked for it.
+     *
+     * @param playerUuid the player the message belongs to
+     * @return completes once the message is delivered, or exceptionally if it is not
+     */
+    @NotNull
+    CompletableFuture<?> send(@NotNull UUID playerUuid, @NotNull WebhookMessage message) {
+        Member selected = select(playerUuid);
+        try {
+            return selected.client.send(message).whenComplete((result, throwable) -> selected.inFlight.decrementAndGet());
+        } catch (RuntimeException exception) {
+            selected.inFlight.decrementAndGet();
+            throw exception;
+        }
+    }
+
+    // Selecting and counting the message as in flight happen together, so a later message sees it
+    @NotNull
+    private synchronized Member select(@NotNull UUID playerUuid) {
+        Member selected;
+        if (members.length == 1) {
+            selected = members[0];
+        } else {
+            long now = System.nanoTime();
+            selected = switch (strategy) {
+                case AFFINITY -> selectByAffinity(playerUuid, now);
+                case LEAST_RATE_LIMITED -> selectLeastRateLimited(now);
+            };
+        }
+
+        selected.inFlight.incrementAndGet();
+        return selected;
+    }
+
+    int size() {
+        return members.length;
+    }
+
+    /**
+     * @return the number of 429 responses seen across all clients
+     */
+    long getRateLimitHits() {
+        long total = 0;
+        for (Member member : members) {
+            total += member.rateLimitHits.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return round-trip time of every webhook request, rate-limited ones included
+     */
+    @NotNull
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public void close() {
+        for (Member member : members) {
+            member.client.close();
+        }
+    }
+
+    // Keeps each player on one client so their lines stay ordered. A player moves off a client that is backing off
+    // only once it has nothing in flight, as a line still being retried there would be overtaken
+    @NotNull
+    private Member selectByAffinity(@NotNull UUID playerUuid, long now) {
+        int home = Math.floorMod(playerUuid.hashCode(), members.length);
+        Member last = movedPlayers.getOrDefault(playerUuid, members[home]);
+        if (last.inFlight.get() > 0) {
+            return last;
+        }
+
+        Member selected = null;
+        for (int i = 0; i < members.length && selected == null; i++) {
+            Member member = members[(home + i) % members.length];
+            if (!member.isBackingOff(now)) {
+                selected = member;
+            }
+        }
+        if (selected == null) {
+            selected = soonestAvailable();
+        }
+
+        if (selected == members[home]) {
+            movedPlayers.remove(playerUuid);
+        } else {
+            movedPlayers.put(playerUuid, selected);
+        }
+        return selected;
+    }
+
+    @NotNull
+    private Member selectLeastRateLimited(long now) {
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), members.length);
+        Member best = null;
+        for (int i = 0; i < members.length; i++) {
+            Member member = members[(offset + i) % members.length];
+            if (member.isBackingOff(now)) {
+                continue;
+            }
+
+            if (best == null || member.lastRateLimitedNanos < best.lastRateLimitedNanos) {
+                best = member;
+            }
+        }
+
+        return best != null ? best : soonestAvailable();
+    }
+
+    @NotNull
+    private Member soonestAvailable() {
+        Member best = members[0];
+        for (Member member : members) {
+            if (member.backoffUntilNanos < best.backoffUntilNanos) {
+                best = member;
+            }
+        }
+        return best;
+    }
+
+    enum Strategy {
+        AFFINITY,
+        LEAST_RATE_LIMITED;
+
+        @NotNull
+        static Strategy parse(@Nullable String value) {
+            if (value != null && value.replace("-", "").replace("_", "").toLowerCase(Locale.ROOT).equals("leastratelimited")) {
+                return LEAST_RATE_LIMITED;
+            }
+            return AFFINITY;
+        }
+    }
+
+    private static final class Member {
+        private final WebhookClient client;
+        private final LongAdder rateLimitHits = new LongAdder();
+        // Messages handed to the client that have not been delivered or failed yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long backoffUntilNanos = System.nanoTime();
+        private volatile long lastRateLimitedNanos = Long.MIN_VALUE;
+
+        private Member(@NotNull String webhookUrl, @NotNull OkHttpClient sharedHttpClient, @NotNull LatencyHistogram latency) {
+            OkHttpClient httpClient = sharedHttpClient.newBuilder()
+                    .addInterceptor(chain -> {
+                        long start = System.nanoTime();
+                        Response response = chain.proceed(chain.request());
+                        latency.recordSince(start);
+                        onResponse(response);
+                        return response;
+                    })
+                    .build();
+            this.client = new WebhookClientBuilder(webhookUrl)
+                    .setHttpClient(httpClient)
+                    .setWait(false)
+                    .build();
+        }
+
+        private boolean isBackingOff(long now) {
+            return now - backoffUntilNanos < 0;
+        }
+
+        private void onResponse(@NotNull Response response) {
+            long now = System.nanoTime();
+            if (response.code() == 429) {
+                rateLimitHits.increment();
+                lastRateLimitedNanos = now;
+                backoffUntilNanos = now + parseSeconds(response.header("Retry-After"), DEFAULT_BACKOFF_NANOS);
+                return;
+            }
+
+            // Bucket exhausted: stop routing here until it resets instead of waiting for the 429
+            if ("0".equals(response.header("X-RateLimit-Remaining"))) {
+                backoffUntilNanos = now + parseSeconds(response.header("X-RateLimit-Reset-After"), DEFAULT_BACKOFF_NANOS);
+            }
+        }
+
+        private static long parseSeconds(@Nullable String header, long fallbackNanos) {
+            if (header == null) {
+                return fallbackNanos;
+            }
+
+            try {
+                return (long) (Double.parseDouble(header) * 1_000_000_000L);
+            } catch (NumberFormatException exception) {
+                return fallbackNanos;
+            }
+        }
+    }
+}
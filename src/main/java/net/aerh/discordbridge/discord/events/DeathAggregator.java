@@ -0,0 +1,165 @@
+package net.aerh.discordbridge.discord.events;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.aerh.discordbridge.config.MassDeathConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Groups deaths by killer or cause over a sliding window. The first deaths of a group are announced
+ * individually; once a group reaches the threshold within the window, further deaths are counted
+ * instead and reported as one summary line per window. Summaries and the sweep of quiet groups run on
+ * the caller's scheduler.
+ */
+final class DeathAggregator implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private final Supplier<MassDeathConfig> configSupplier;
+    private final SummarySender summarySender;
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    DeathAggregator(
+            @NotNull Supplier<MassDeathConfig> configSupplier,
+            @NotNull SummarySender summarySender,
+            @NotNull ScheduledExecutorService scheduler
+    ) {
+        this.configSupplier = configSupplier;
+        this.summarySender = summarySender;
+        this.scheduler = scheduler;
+        scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records a death in its group.
+     *
+     * @param key the killer or cause the death is grouped under
+     * @param now {@link System#nanoTime()} when the death happened
+     * @return {@code true} if the death should be announced individually, {@code false} if it was
+     * folded into the group's next summary
+     */
+    boolean admit(@NotNull GroupKey key, long now) {
+        MassDeathConfig config = configSupplier.get();
+        if (config == null || !config.isEnabled()) {
+            return true;
+        }
+
+        long windowNanos = TimeUnit.SECONDS.toNanos(config.getWindowSeconds());
+        int threshold = config.getThreshold();
+
+        synchronized (this) {
+            Group group = groups.computeIfAbsent(key, ignored -> new Group());
+            group.prune(now, windowNanos);
+            boolean individual = group.recent.size() < threshold;
+
+            // Only the last `threshold` deaths matter for deciding whether the group is still bursting
+            group.recent.addLast(now);
+            while (group.recent.size() > threshold) {
+                group.recent.removeFirst();
+            }
+
+            if (individual) {
+                return true;
+            }
+
+            if (group.suppressed++ == 0) {
+                scheduleSummary(key, windowNanos);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sends any pending summaries. The scheduler is left to its owner, which shuts it down first.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            for (Map.Entry<GroupKey, Group> entry : groups.entrySet()) {
+                sendSummary(entry.getKey(), entry.getValue());
+            }
+            groups.clear();
+        }
+    }
+
+    private void scheduleSummary(@NotNull GroupKey key, long delayNanos) {
+        try {
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    Group group = groups.get(key);
+                    if (group != null) {
+                        sendSummary(key, group);
+                    }
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Closing; close() sends the summary
+        }
+    }
+
+    private void sendSummary(@NotNull GroupKey key, @NotNull Group group) {
+        int count = group.suppressed;
+        if (count == 0) {
+            return;
+        }
+
+        group.suppressed = 0;
+        try {
+            summarySender.send(key, count);
+        } catch (RuntimeException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to send mass death summary");
+        }
+    }
+
+    // Drops groups that have gone quiet so one-off causes and killers do not accumulate
+    private synchronized void sweep() {
+        MassDeathConfig config = configSupplier.get();
+        long windowNanos = TimeUnit.SECONDS.toNanos(config == null ? 0 : config.getWindowSeconds());
+        long now = System.nanoTime();
+
+        Iterator<Group> iterator = groups.values().iterator();
+        while (iterator.hasNext()) {
+            Group group = iterator.next();
+            group.prune(now, windowNanos);
+            if (group.recent.isEmpty() && group.suppressed == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * What a death is grouped under.
+     *
+     * @param byKiller {@code true} if {@code name} is the killer, {@code false} if it is the death cause
+     * @param name     the killer or cause name
+     */
+    record GroupKey(boolean byKiller, @NotNull String name) {
+    }
+
+    @FunctionalInterface
+    interface SummarySender {
+        void send(@NotNull GroupKey key, int count);
+    }
+
+    private static final class Group {
+        private final ArrayDeque<Long> recent = new ArrayDeque<>();
+        private int suppressed;
+
+        private void prune(long now, long windowNanos) {
+            while (!recent.isEmpty() && now - recent.peekFirst() > windowNanos) {
+                recent.removeFirst();
+            }
+        }
+    }
+}
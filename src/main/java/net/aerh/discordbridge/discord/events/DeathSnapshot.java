@@ -0,0 +1,36 @@
+package net.aerh.discordbridge.discord.events;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * What the kill feed needs to know about a death, captured on the world thread so everything else can
+ * happen off it. Holds only immutable values: display names are rendered at capture, because a
+ * {@code Message} and its formatted message can still be changed after the world thread lets go of them.
+ *
+ * @param capturedAt         {@link System#nanoTime()} when the death was seen
+ * @param locale             the locale names were rendered in and the rest is translated to
+ * @param victimName         the victim's username, or its rendered display name if not a player
+ * @param killerUsername     the killer's username, if a player
+ * @param sourceName         the rendered display name of the damage source entity (the shooter, for projectiles)
+ * @param itemTranslationKey the translation key of the item the source entity held
+ * @param itemId             the id of the item the source entity held
+ * @param projectileName     the projectile's rendered display name
+ * @param projectileSource   whether the damage came from a projectile
+ * @param environmentType    the environment damage type, for environmental deaths
+ * @param damageCauseId      the damage cause id
+ */
+record DeathSnapshot(
+        long capturedAt,
+        @NotNull String locale,
+        @NotNull String victimName,
+        @Nullable String killerUsername,
+        @Nullable String sourceName,
+        @Nullable String itemTranslationKey,
+        @Nullable String itemId,
+        @Nullable String projectileName,
+        boolean projectileSource,
+        @Nullable String environmentType,
+        @Nullable String damageCauseId
+) {
+}
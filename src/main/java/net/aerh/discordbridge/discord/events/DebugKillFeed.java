@@ -0,0 +1,134 @@
+package net.aerh.discordbridge.discord.events;
+
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.RefChangeSystem;
+import com.hypixel.hytale.server.core.modules.entity.component.DisplayNameComponent;
+import com.hypixel.hytale.server.core.modules.entity.damage.Damage;
+import com.hypixel.hytale.server.core.modules.entity.damage.DeathComponent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Debug kill feed for non-player deaths. Only registered while debug is enabled. Deaths are sampled
+ * and capped per second before anything is looked up, so it can run on busy servers.
+ */
+public final class DebugKillFeed extends RefChangeSystem<EntityStore, DeathComponent> {
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ComponentType<EntityStore, PlayerRef> playerRefComponent = PlayerRef.getComponentType();
+    private final ComponentType<EntityStore, DisplayNameComponent> displayNameComponent = DisplayNameComponent.getComponentType();
+    private final KillFeedFormatter killFeed;
+    private final Supplier<Boolean> debugSupplier;
+    private final Supplier<Double> samplePercentSupplier;
+    private final Supplier<Integer> maxPerSecondSupplier;
+    private long windowStart = System.nanoTime();
+    private int windowCount;
+
+    public DebugKillFeed(
+            @NotNull KillFeedFormatter killFeed,
+            @NotNull Supplier<Boolean> debugSupplier,
+            @NotNull Supplier<Double> samplePercentSupplier,
+            @NotNull Supplier<Integer> maxPerSecondSupplier
+    ) {
+        this.killFeed = killFeed;
+        this.debugSupplier = debugSupplier;
+        this.samplePercentSupplier = samplePercentSupplier;
+        this.maxPerSecondSupplier = maxPerSecondSupplier;
+    }
+
+    @NotNull
+    @Override
+    public ComponentType<EntityStore, DeathComponent> componentType() {
+        return DeathComponent.getComponentType();
+    }
+
+    @Override
+    public Query<EntityStore> getQuery() {
+        return Query.any();
+    }
+
+    @Override
+    public void onComponentAdded(
+            @NotNull Ref<EntityStore> ref,
+            @NotNull DeathComponent component,
+            @NotNull Store<EntityStore> store,
+            @NotNull CommandBuffer<EntityStore> commandBuffer
+    ) {
+        if (!isDebugEnabled() || !isSampled()) {
+            return;
+        }
+
+        Damage damage = component.getDeathInfo();
+        if (damage == null || store.getComponent(ref, playerRefComponent) != null) {
+            // Player deaths go through KillFeed
+            return;
+        }
+
+        if (!tryAcquire()) {
+            return;
+        }
+
+        DisplayNameComponent displayName = store.getComponent(ref, displayNameComponent);
+        killFeed.submitDeath(damage, null, displayName, store);
+    }
+
+    @Override
+    public void onComponentSet(
+            @NotNull Ref<EntityStore> ref,
+            DeathComponent oldComponent,
+            @NotNull DeathComponent newComponent,
+            @NotNull Store<EntityStore> store,
+            @NotNull CommandBuffer<EntityStore> commandBuffer
+    ) {
+    }
+
+    @Override
+    public void onComponentRemoved(
+            @NotNull Ref<EntityStore> ref,
+            @NotNull DeathComponent component,
+            @NotNull Store<EntityStore> store,
+            @NotNull CommandBuffer<EntityStore> commandBuffer
+    ) {
+    }
+
+    private boolean isDebugEnabled() {
+        Boolean debug = debugSupplier.get();
+        return debug != null && debug;
+    }
+
+    private boolean isSampled() {
+        Double percent = samplePercentSupplier.get();
+        return percent != null && (percent >= 100 || ThreadLocalRandom.current().nextDouble(100) < percent);
+    }
+
+    // Worlds tick on their own threads, so the per-second window is shared under a lock
+    private synchronized boolean tryAcquire() {
+        Integer maxPerSecond = maxPerSecondSupplier.get();
+        if (maxPerSecond == null || maxPerSecond <= 0) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        if (now - windowStart >= SECOND_NANOS) {
+            windowStart = now;
+            windowCount = 0;
+        }
+
+        if (windowCount >= maxPerSecond) {
+            return false;
+        }
+
+        windowCount++;
+        return true;
+    }
+}
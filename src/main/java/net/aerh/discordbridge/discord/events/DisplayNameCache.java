@@ -0,0 +1,171 @@
+package net.aerh.discordbridge.discord.events;
+
+import com.hypixel.hytale.protocol.FormattedMessage;
+import com.hypixel.hytale.server.core.Message;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded LRU cache of rendered display names, per locale. Only translated names without children or
+ * nested message parameters are cached, keyed by message id and parameters; that is what mob and item
+ * names look like, and their rendering depends on nothing else. Names without parameters are looked up
+ * without allocating.
+ */
+public final class DisplayNameCache {
+
+    private static final ClassValue<Boolean> HAS_VALUE_EQUALITY = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(@NotNull Class<?> type) {
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException exception) {
+                return false;
+            }
+        }
+    };
+
+    private final int maxEntriesPerLocale;
+    private final Map<String, Map<Object, String>> locales = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    // Bumped by clear(), so a name rendered from translations that were replaced meanwhile is not cached
+    private long generation;
+
+    /**
+     * @param maxEntriesPerLocale the number of names kept per locale before the least recently used is evicted
+     */
+    DisplayNameCache(int maxEntriesPerLocale) {
+        this.maxEntriesPerLocale = Math.max(1, maxEntriesPerLocale);
+    }
+
+    /**
+     * Returns the cached rendering of {@code message}, rendering and caching it on a miss.
+     *
+     * @param renderer renders messages that are not cached or cannot be
+     */
+    @NotNull
+    String render(@NotNull Message message, @NotNull String locale, @NotNull BiFunction<Message, String, String> renderer) {
+        Object key = keyOf(message);
+        if (key == null) {
+            bypassed.increment();
+            return renderer.apply(message, locale);
+        }
+
+        long renderedGeneration;
+        synchronized (this) {
+            String cached = cacheFor(locale).get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            renderedGeneration = generation;
+        }
+
+        misses.increment();
+        String rendered = renderer.apply(message, locale);
+        synchronized (this) {
+            if (generation == renderedGeneration) {
+                cacheFor(locale).put(key, rendered);
+            }
+        }
+        return rendered;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of names rendered without the cache because they had raw text, children or nested parameters
+     */
+    public long getBypassed() {
+        return bypassed.sum();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Map<Object, String> cache : locales.values()) {
+            size += cache.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Drops every cached name. The kill feed calls this whenever its {@code TranslationCache} reloads.
+     */
+    public synchronized void clear() {
+        generation++;
+        locales.clear();
+    }
+
+    @NotNull
+    private Map<Object, String> cacheFor(@NotNull String locale) {
+        Map<Object, String> cache = locales.get(locale);
+        if (cache == null) {
+            cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, String> eldest) {
+                    if (size() > maxEntriesPerLocale) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            locales.put(locale, cache);
+        }
+
+        return cache;
+    }
+
+    // The message id alone for plain translated names, id and parameters otherwise, or null if not cacheable.
+    // Parameterized names are only cached when their parameter values compare by value
+    private static Object keyOf(@NotNull Message message) {
+        FormattedMessage formatted = message.getFormattedMessage();
+        if (formatted.rawText != null || formatted.messageId == null) {
+            return null;
+        }
+
+        List<Message> children = message.getChildren();
+        if (children != null && !children.isEmpty()) {
+            return null;
+        }
+
+        if (formatted.messageParams != null && !formatted.messageParams.isEmpty()) {
+            return null;
+        }
+
+        if (formatted.params == null || formatted.params.isEmpty()) {
+            return formatted.messageId;
+        }
+
+        for (Object value : formatted.params.values()) {
+            if (value == null || !HAS_VALUE_EQUALITY.get(value.getClass())) {
+                // Would never hit, and every miss would push a useful name out
+                return null;
+            }
+        }
+
+        return new ParameterizedKey(formatted.messageId, new HashMap<>(formatted.params));
+    }
+
+    private record ParameterizedKey(@NotNull String messageId, @NotNull Map<String, ?> params) {
+    }
+}
@@ -6,31 +6,23 @@ import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.query.Query;
 import com.hypixel.hytale.component.system.RefChangeSystem;
-import com.hypixel.hytale.server.core.modules.entity.component.DisplayNameComponent;
 import com.hypixel.hytale.server.core.modules.entity.damage.Damage;
 import com.hypixel.hytale.server.core.modules.entity.damage.DeathComponent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.function.Supplier;
-
 /**
- * Kill/death feed based on death components, with optional debug.
+ * Kill/death feed for players, based on death components. Only entities with a {@link PlayerRef} match the
+ * query, so other deaths never reach this system; see {@link DebugKillFeed} for those.
  */
 public final class KillFeed extends RefChangeSystem<EntityStore, DeathComponent> {
 
     private final ComponentType<EntityStore, PlayerRef> playerRefComponent = PlayerRef.getComponentType();
-    private final ComponentType<EntityStore, DisplayNameComponent> displayNameComponent = DisplayNameComponent.getComponentType();
     private final KillFeedFormatter killFeed;
-    private final Supplier<Boolean> debugSupplier;
 
-    public KillFeed(
-            @NotNull KillFeedFormatter killFeed,
-            @NotNull Supplier<Boolean> debugSupplier
-    ) {
+    public KillFeed(@NotNull KillFeedFormatter killFeed) {
         this.killFeed = killFeed;
-        this.debugSupplier = debugSupplier;
     }
 
     @NotNull
@@ -41,7 +33,7 @@ public final class KillFeed extends RefChangeSystem<EntityStore, DeathComponent>
 
     @Override
     public Query<EntityStore> getQuery() {
-        return Query.any();
+        return playerRefComponent;
     }
 
     @Override
@@ -57,12 +49,11 @@ public final class KillFeed extends RefChangeSystem<EntityStore, DeathComponent>
         }
 
         PlayerRef victimPlayer = store.getComponent(ref, playerRefComponent);
-        if (victimPlayer == null && !isDebugEnabled()) {
+        if (victimPlayer == null) {
             return;
         }
 
-        DisplayNameComponent displayName = store.getComponent(ref, displayNameComponent);
-        killFeed.dispatchDeathMessage(damage, victimPlayer, displayName, store);
+        killFeed.submitDeath(damage, victimPlayer, null, store);
     }
 
     @Override
@@ -83,9 +74,4 @@ public final class KillFeed extends RefChangeSystem<EntityStore, DeathComponent>
             @NotNull CommandBuffer<EntityStore> commandBuffer
     ) {
     }
-
-    private boolean isDebugEnabled() {
-        Boolean debug = debugSupplier.get();
-        return debug != null && debug;
-    }
 }
\ No newline at end of file
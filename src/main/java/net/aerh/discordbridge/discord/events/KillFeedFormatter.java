@@ -1,7 +1,9 @@
 package net.aerh.discordbridge.discord.events;
 
 import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.protocol.FormattedMessage;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.asset.type.item.config.Item;
@@ -11,25 +13,42 @@ import com.hypixel.hytale.server.core.inventory.ItemStack;
 import com.hypixel.hytale.server.core.modules.entity.component.DisplayNameComponent;
 import com.hypixel.hytale.server.core.modules.entity.damage.Damage;
 import com.hypixel.hytale.server.core.modules.entity.damage.DamageCause;
-import com.hypixel.hytale.server.core.modules.i18n.I18nModule;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hypixel.hytale.server.core.util.MessageUtil;
 import net.aerh.discordbridge.config.EventMessageConfig;
 import net.aerh.discordbridge.config.EventsConfig;
+import net.aerh.discordbridge.config.MassDeathConfig;
+import net.aerh.discordbridge.config.MessageTemplate;
+import net.aerh.discordbridge.config.Placeholder;
 import net.aerh.discordbridge.config.PlayerKillConfig;
+import net.aerh.discordbridge.config.TemplateValues;
+import net.aerh.discordbridge.discord.TranslationCache;
+import net.aerh.discordbridge.metrics.LatencyHistogram;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.logging.Level;
 
-public final class KillFeedFormatter {
+public final class KillFeedFormatter implements AutoCloseable {
 
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
     private static final String DEFAULT_LOCALE = "en-US";
     private static final String DEFAULT_ENTITY_NAME = "Unknown Entity";
+    private static final int DISPLAY_NAME_CACHE_SIZE = 512;
+    private static final int DEATH_QUEUE_CAPACITY = 1024;
+    private static final long DRAIN_INTERVAL_MILLIS = 50;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
     private final ComponentType<EntityStore, PlayerRef> playerRefComponent = PlayerRef.getComponentType();
     private final ComponentType<EntityStore, Player> playerComponent = Player.getComponentType();
     private final ComponentType<EntityStore, DisplayNameComponent> displayNameComponent = DisplayNameComponent.getComponentType();
@@ -37,86 +56,312 @@ public final class KillFeedFormatter {
     private final MessageSender messageSender;
     private final Supplier<String> localeSupplier;
     private final Supplier<Boolean> debugSupplier;
+    private final DeathAggregator aggregator;
+    private final DisplayNameCache displayNameCache = new DisplayNameCache(DISPLAY_NAME_CACHE_SIZE);
+    private final TranslationCache translations;
+    private final BiFunction<Message, String, String> nameRenderer;
+    private final BlockingQueue<DeathSnapshot> deaths = new ArrayBlockingQueue<>(DEATH_QUEUE_CAPACITY);
+    private final ScheduledExecutorService worker;
+    private final LongAdder droppedDeaths = new LongAdder();
+    private final LatencyHistogram formatTime = new LatencyHistogram();
 
     public KillFeedFormatter(
             @NotNull Supplier<EventsConfig> eventsSupplier,
             @NotNull MessageSender messageSender,
             @NotNull Supplier<String> localeSupplier,
-            @NotNull Supplier<Boolean> debugSupplier
+            @NotNull Supplier<Boolean> debugSupplier,
+            @NotNull TranslationCache translations
     ) {
         this.eventsSupplier = eventsSupplier;
         this.messageSender = messageSender;
         this.localeSupplier = localeSupplier;
         this.debugSupplier = debugSupplier;
+        this.translations = translations;
+        this.nameRenderer = (message, locale) -> renderMessage(message, locale, translations);
+        translations.addReloadListener(displayNameCache::clear);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "DiscordBridge-DeathFormat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Pending mass death summaries are sent by close() rather than waited for
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.worker = executor;
+        this.aggregator = new DeathAggregator(() -> eventsSupplier.get().getMassDeath(), this::sendMassDeathSummary, worker);
+        worker.scheduleWithFixedDelay(this::drainDeaths, DRAIN_INTERVAL_MILLIS, DRAIN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
-    void dispatchDeathMessage(
+    /**
+     * Formats the deaths still queued, then sends any pending mass death summaries.
+     */
+    @Override
+    public void close() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.at(Level.WARNING).log("Timed out formatting queued kill feed messages");
+                worker.shutdownNow();
+            } else {
+                drainDeaths();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        aggregator.close();
+    }
+
+    @NotNull
+    public DisplayNameCache getDisplayNameCache() {
+        return displayNameCache;
+    }
+
+    /**
+     * Captures a death on the world thread and queues it for formatting. Only component lookups and display
+     * name rendering, which the display name cache mostly answers, happen here; translation, aggregation and
+     * templating run on the kill feed worker.
+     */
+    void submitDeath(
             @NotNull Damage damage,
             @Nullable PlayerRef victimPlayer,
             @Nullable DisplayNameComponent victimDisplayName,
             @NotNull Store<EntityStore> store
     ) {
         EventsConfig events = eventsSupplier.get();
+        if (!events.getPlayerKill().isEnabled() && !events.getPlayerDeath().isEnabled()) {
+            return;
+        }
+
+        submit(capture(damage, victimPlayer, victimDisplayName, store));
+    }
+
+    /**
+     * Queues a captured death for the kill feed worker, which picks it up within {@value #DRAIN_INTERVAL_MILLIS} ms.
+     * The worker is not woken for it: that costs the world thread more than formatting the death would.
+     */
+    void submit(@NotNull DeathSnapshot death) {
+        if (worker.isShutdown() || !deaths.offer(death)) {
+            // Queue full or closing; never block the world thread on the kill feed
+            droppedDeaths.increment();
+        }
+    }
+
+    /**
+     * Formats and sends every queued death.
+     */
+    void drainDeaths() {
+        DeathSnapshot death;
+        while ((death = deaths.poll()) != null) {
+            formatDeath(death);
+        }
+    }
+
+    /**
+     * @return the number of deaths dropped because the formatting queue was full
+     */
+    public long getDroppedDeaths() {
+        return droppedDeaths.sum();
+    }
+
+    /**
+     * @return time spent formatting and dispatching each death on the kill feed worker
+     */
+    @NotNull
+    public LatencyHistogram getFormatTime() {
+        return formatTime;
+    }
+
+    @NotNull
+    private DeathSnapshot capture(
+            @NotNull Damage damage,
+            @Nullable PlayerRef victimPlayer,
+            @Nullable DisplayNameComponent victimDisplayName,
+            @NotNull Store<EntityStore> store
+    ) {
+        Damage.Source source = damage.getSource();
+        String killerUsername = null;
+        Message sourceDisplayName = null;
+        String itemTranslationKey = null;
+        String itemId = null;
+        Message projectileDisplayName = null;
+        String environmentType = null;
+
+        if (source instanceof Damage.EntitySource entitySource) {
+            Ref<EntityStore> sourceRef = entitySource.getRef();
+            if (sourceRef.isValid()) {
+                PlayerRef killerPlayer = store.getComponent(sourceRef, playerRefComponent);
+                killerUsername = killerPlayer != null ? killerPlayer.getUsername() : null;
+            }
+
+            sourceDisplayName = displayNameOf(store.getComponent(sourceRef, displayNameComponent));
+            Player player = store.getComponent(sourceRef, playerComponent);
+            if (player != null) {
+                Inventory inventory = player.getInventory();
+                ItemStack itemInHand = inventory != null ? inventory.getItemInHand() : null;
+                if (itemInHand != null && !itemInHand.isEmpty()) {
+                    Item item = itemInHand.getItem();
+                    itemTranslationKey = item.getTranslationKey();
+                    itemId = item.getId();
+                }
+            }
+
+            if (source instanceof Damage.ProjectileSource projectileSource) {
+                projectileDisplayName = displayNameOf(store.getComponent(projectileSource.getProjectile(), displayNameComponent));
+            }
+        } else if (source instanceof Damage.EnvironmentSource environmentSource) {
+            environmentType = environmentSource.getType();
+        }
+
+        DamageCause cause = damage.getCause();
+        return snapshot(
+                victimPlayer != null ? victimPlayer.getUsername() : null,
+                victimPlayer == null ? displayNameOf(victimDisplayName) : null,
+                killerUsername,
+                sourceDisplayName,
+                itemTranslationKey,
+                itemId,
+                projectileDisplayName,
+                source instanceof Damage.ProjectileSource,
+                environmentType,
+                cause != null ? cause.getId() : null
+        );
+    }
+
+    /**
+     * Builds the snapshot of a death, rendering its display names now: {@link Message}s are mutable, so the
+     * worker must not read them later.
+     */
+    @NotNull
+    DeathSnapshot snapshot(
+            @Nullable String victimUsername,
+            @Nullable Message victimDisplayName,
+            @Nullable String killerUsername,
+            @Nullable Message sourceDisplayName,
+            @Nullable String itemTranslationKey,
+            @Nullable String itemId,
+            @Nullable Message projectileDisplayName,
+            boolean projectileSource,
+            @Nullable String environmentType,
+            @Nullable String damageCauseId
+    ) {
         String locale = resolveLocale();
-        String victimName = resolveEntityName(victimPlayer, victimDisplayName, locale);
+        String victimName;
+        if (victimUsername != null) {
+            victimName = victimUsername;
+        } else if (victimDisplayName != null) {
+            victimName = displayNameCache.render(victimDisplayName, locale, nameRenderer);
+        } else {
+            victimName = DEFAULT_ENTITY_NAME;
+        }
+
+        return new DeathSnapshot(
+                System.nanoTime(),
+                locale,
+                victimName,
+                killerUsername,
+                renderName(sourceDisplayName, locale),
+                itemTranslationKey,
+                itemId,
+                renderName(projectileDisplayName, locale),
+                projectileSource,
+                environmentType,
+                damageCauseId
+        );
+    }
+
+    @Nullable
+    private String renderName(@Nullable Message displayName, @NotNull String locale) {
+        return displayName != null ? displayNameCache.render(displayName, locale, nameRenderer) : null;
+    }
+
+    @Nullable
+    private static Message displayNameOf(@Nullable DisplayNameComponent component) {
+        return component != null ? component.getDisplayName() : null;
+    }
+
+    void formatDeath(@NotNull DeathSnapshot death) {
+        long start = System.nanoTime();
+        try {
+            dispatchDeathMessage(death);
+        } catch (RuntimeException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to format kill feed message");
+        }
+        formatTime.recordSince(start);
+    }
+
+    private void dispatchDeathMessage(@NotNull DeathSnapshot death) {
+        EventsConfig events = eventsSupplier.get();
+        String locale = death.locale();
+        String victimName = death.victimName();
         if (victimName.isBlank()) {
             return;
         }
 
-        PlayerRef killerPlayer = resolveKillerPlayer(damage, store);
-        String killerName = killerPlayer != null ? killerPlayer.getUsername() : null;
+        String killerName = death.killerUsername();
         if (killerName == null && isDebugEnabled()) {
-            killerName = resolveKillerName(damage, store, locale);
+            killerName = death.sourceName();
         }
 
         if (killerName != null) {
             PlayerKillConfig killConfig = events.getPlayerKill();
-            String projectile = resolveProjectileName(damage, store, locale);
-            String item = resolveKillerItemName(damage, store, locale);
-            String cause = resolveDeathCause(damage, store, locale);
+            if (!killConfig.isEnabled() || !aggregator.admit(new DeathAggregator.GroupKey(true, killerName), death.capturedAt())) {
+                return;
+            }
+
+            String projectile = death.projectileName();
+            String item = resolveItemName(death, locale);
+            String cause = resolveDeathCause(death, locale);
             boolean hasProjectile = projectile != null && !projectile.isBlank();
             boolean hasItem = item != null && !item.isBlank();
-            boolean isProjectileSource = damage.getSource() instanceof Damage.ProjectileSource;
 
-            String message;
+            MessageTemplate template;
             if (hasProjectile) {
-                message = killConfig.getMessageWithProjectile();
-            } else if (isProjectileSource) {
-                message = killConfig.getMessageWithProjectileUnknown();
+                template = killConfig.getMessageWithProjectileTemplate();
+            } else if (death.projectileSource()) {
+                template = killConfig.getMessageWithProjectileUnknownTemplate();
             } else if (hasItem) {
-                message = killConfig.getMessageWithItem();
+                template = killConfig.getMessageWithItemTemplate();
             } else {
-                message = killConfig.getMessage();
+                template = killConfig.getMessageTemplate();
             }
 
-            EventMessageConfig config = new EventMessageConfig(killConfig.isEnabled(), message);
-            messageSender.send(config,
-                    "%killer%", killerName,
-                    "%victim%", victimName,
-                    "%player%", victimName,
-                    "%cause%", cause,
-                    "%projectile%", projectile == null ? "" : projectile,
-                    "%item%", item == null ? "" : item
-            );
+            messageSender.send(killConfig.isEnabled(), template, TemplateValues.scratch()
+                    .set(Placeholder.KILLER, killerName)
+                    .set(Placeholder.VICTIM, victimName)
+                    .set(Placeholder.PLAYER, victimName)
+                    .set(Placeholder.CAUSE, cause)
+                    .set(Placeholder.PROJECTILE, projectile == null ? "" : projectile)
+                    .set(Placeholder.ITEM, item == null ? "" : item));
         } else {
             EventMessageConfig config = events.getPlayerDeath();
-            String cause = resolveDeathCause(damage, store, locale);
-            messageSender.send(config,
-                    "%player%", victimName,
-                    "%cause%", cause
-            );
-        }
-    }
+            if (!config.isEnabled()) {
+                return;
+            }
 
-    @Nullable
-    private PlayerRef resolveKillerPlayer(@NotNull Damage damage, @NotNull Store<EntityStore> store) {
-        if (damage.getSource() instanceof Damage.EntitySource entitySource) {
-            if (entitySource.getRef().isValid()) {
-                return store.getComponent(entitySource.getRef(), playerRefComponent);
+            String cause = resolveDeathCause(death, locale);
+            if (!aggregator.admit(new DeathAggregator.GroupKey(false, cause), death.capturedAt())) {
+                return;
             }
+
+            messageSender.send(config.isEnabled(), config.getMessageTemplate(), TemplateValues.scratch()
+                    .set(Placeholder.PLAYER, victimName)
+                    .set(Placeholder.CAUSE, cause));
         }
+    }
 
-        return null;
+    private void sendMassDeathSummary(@NotNull DeathAggregator.GroupKey key, int count) {
+        EventsConfig events = eventsSupplier.get();
+        if (key.byKiller()) {
+            PlayerKillConfig killConfig = events.getPlayerKill();
+            messageSender.send(killConfig.isEnabled(), killConfig.getMessageMassKillTemplate(), TemplateValues.scratch()
+                    .set(Placeholder.KILLER, key.name())
+                    .set(Placeholder.COUNT, count));
+        } else {
+            MassDeathConfig massDeath = events.getMassDeath();
+            messageSender.send(events.getPlayerDeath().isEnabled(), massDeath.getMessageTemplate(), TemplateValues.scratch()
+                    .set(Placeholder.CAUSE, key.name())
+                    .set(Placeholder.COUNT, count));
+        }
     }
 
     private String resolveLocale() {
@@ -129,98 +374,31 @@ public final class KillFeedFormatter {
         return debug != null && debug;
     }
 
-    @NotNull
-    private String resolveEntityName(
-            @Nullable PlayerRef playerRef,
-            @Nullable DisplayNameComponent displayNameComponent,
-            @NotNull String locale
-    ) {
-        if (playerRef != null) {
-            return playerRef.getUsername();
-        }
-
-        if (displayNameComponent != null) {
-            Message displayName = displayNameComponent.getDisplayName();
-            if (displayName != null) {
-                return renderMessage(displayName, locale);
-            }
-        }
-
-        return DEFAULT_ENTITY_NAME;
-    }
-
     @Nullable
-    private String resolveKillerName(@NotNull Damage damage, @NotNull Store<EntityStore> store, @NotNull String locale) {
-        Damage.Source source = damage.getSource();
-        if (source instanceof Damage.EntitySource entitySource) {
-            DisplayNameComponent nameComponent = store.getComponent(entitySource.getRef(), this.displayNameComponent);
-            if (nameComponent != null) {
-                Message displayName = nameComponent.getDisplayName();
-                if (displayName != null) {
-                    return renderMessage(displayName, locale);
-                }
-            }
-        }
-
-        return null;
-    }
-
-    private String resolveKillerItemName(@NotNull Damage damage, @NotNull Store<EntityStore> store, @NotNull String locale) {
-        Damage.Source source = damage.getSource();
-        if (source instanceof Damage.EntitySource entitySource) {
-            Player player = store.getComponent(entitySource.getRef(), playerComponent);
-            if (player != null) {
-                Inventory inventory = player.getInventory();
-                ItemStack itemInHand = inventory != null ? inventory.getItemInHand() : null;
-                String itemName = resolveItemName(itemInHand, locale);
-                if (itemName != null && !itemName.isBlank()) {
-                    return itemName;
-                }
+    private String resolveItemName(@NotNull DeathSnapshot death, @NotNull String locale) {
+        if (death.itemTranslationKey() != null) {
+            String translated = translations.get(locale, death.itemTranslationKey());
+            if (translated != null && !translated.isBlank()) {
+                return translated;
             }
         }
 
-        return null;
+        return death.itemId();
     }
 
-    @Nullable
-    private String resolveItemName(@Nullable ItemStack itemStack, @NotNull String locale) {
-        if (itemStack == null || itemStack.isEmpty()) {
-            return null;
+    @NotNull
+    private String resolveDeathCause(@NotNull DeathSnapshot death, @NotNull String locale) {
+        if (death.projectileName() != null) {
+            return death.projectileName();
         }
 
-        Item item = itemStack.getItem();
-        String key = item.getTranslationKey();
-        String translated = I18nModule.get().getMessage(locale, key);
-        if (translated != null && !translated.isBlank()) {
-            return translated;
+        if (death.sourceName() != null) {
+            return death.sourceName();
         }
 
-        return item.getId();
-    }
-
-    private String resolveDeathCause(@NotNull Damage damage, @NotNull Store<EntityStore> store, @NotNull String locale) {
-        Damage.Source source = damage.getSource();
-        if (source instanceof Damage.ProjectileSource projectileSource) {
-            DisplayNameComponent displayNameComponent = store.getComponent(projectileSource.getProjectile(), DisplayNameComponent.getComponentType());
-            if (displayNameComponent != null) {
-                Message displayName = displayNameComponent.getDisplayName();
-                if (displayName != null) {
-                    return renderMessage(displayName, locale);
-                }
-            }
-        }
-
-        if (source instanceof Damage.EntitySource entitySource) {
-            DisplayNameComponent displayNameComponent = store.getComponent(entitySource.getRef(), DisplayNameComponent.getComponentType());
-            if (displayNameComponent != null) {
-                Message displayName = displayNameComponent.getDisplayName();
-                if (displayName != null) {
-                    return renderMessage(displayName, locale);
-                }
-            }
-        } else if (source instanceof Damage.EnvironmentSource environmentSource) {
-            String type = environmentSource.getType();
-            String translated = I18nModule.get().getMessage(locale, type);
+        String type = death.environmentType();
+        if (type != null) {
+            String translated = translations.get(locale, type);
             if (translated != null && !translated.isBlank()) {
                 return translated;
             }
@@ -228,10 +406,8 @@ public final class KillFeedFormatter {
             return type;
         }
 
-        DamageCause cause = damage.getCause();
-        if (cause != null) {
-            String key = "server.general.damageCauses." + cause.getId().toLowerCase(Locale.ROOT);
-            String translated = I18nModule.get().getMessage(locale, key);
+        if (death.damageCauseId() != null) {
+            String translated = translations.damageCause(locale, death.damageCauseId());
             if (translated != null && !translated.isBlank()) {
                 return translated;
             }
@@ -240,23 +416,7 @@ public final class KillFeedFormatter {
         return "unknown";
     }
 
-    @Nullable
-    private String resolveProjectileName(@NotNull Damage damage, @NotNull Store<EntityStore> store, @NotNull String locale) {
-        Damage.Source source = damage.getSource();
-        if (source instanceof Damage.ProjectileSource projectileSource) {
-            DisplayNameComponent displayNameComponent = store.getComponent(projectileSource.getProjectile(), DisplayNameComponent.getComponentType());
-            if (displayNameComponent != null) {
-                Message displayName = displayNameComponent.getDisplayName();
-                if (displayName != null) {
-                    return renderMessage(displayName, locale);
-                }
-            }
-        }
-
-        return null;
-    }
-
-    private String renderMessage(@NotNull Message message, @NotNull String locale) {
+    static String renderMessage(@NotNull Message message, @NotNull String locale, @NotNull TranslationCache translations) {
         FormattedMessage formatted = message.getFormattedMessage();
         String text = formatted.rawText;
         if (text == null) {
@@ -264,7 +424,7 @@ public final class KillFeedFormatter {
             if (messageId == null) {
                 text = "";
             } else {
-                text = I18nModule.get().getMessage(locale, messageId);
+                text = translations.get(locale, messageId);
                 if (text == null) {
                     text = messageId;
                 }
@@ -275,7 +435,7 @@ public final class KillFeedFormatter {
         if (formatted.messageParams != null && !formatted.messageParams.isEmpty()) {
             resolvedMessageParams = new HashMap<>();
             for (Map.Entry<String, FormattedMessage> entry : formatted.messageParams.entrySet()) {
-                String resolved = renderMessage(new Message(entry.getValue()), locale);
+                String resolved = renderMessage(new Message(entry.getValue()), locale, translations);
                 FormattedMessage replacement = new FormattedMessage();
                 replacement.rawText = resolved;
                 resolvedMessageParams.put(entry.getKey(), replacement);
@@ -285,7 +445,7 @@ public final class KillFeedFormatter {
         String result = MessageUtil.formatText(text, formatted.params, resolvedMessageParams);
         StringBuilder builder = new StringBuilder(result);
         for (Message child : message.getChildren()) {
-            builder.append(renderMessage(child, locale));
+            builder.append(renderMessage(child, locale, translations));
         }
 
         return builder.toString();
@@ -293,6 +453,6 @@ public final class KillFeedFormatter {
 
     @FunctionalInterface
     public interface MessageSender {
-        void send(@NotNull EventMessageConfig eventConfig, @NotNull String... replacements);
+        void send(boolean enabled, @NotNull MessageTemplate template, @NotNull TemplateValues values);
     }
 }
\ No newline at end of file
@@ -0,0 +1,279 @@
+package net.aerh.discordbridge.discord.hub;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.aerh.discordbridge.config.HubConfig;
+import net.aerh.discordbridge.discord.DiscordGateway;
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Uses a hub's Discord connection instead of logging in a bot of its own. Outbound messages are held in
+ * a bounded backlog while the hub is unreachable, dropping the oldest, and the connection is retried
+ * with backoff.
+ */
+public final class HubClient implements DiscordGateway {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final int BACKLOG_CAPACITY = 1024;
+    private static final long MIN_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final long SHUTDOWN_DRAIN_MILLIS = 2_000;
+
+    private final HubConfig config;
+    private final Consumer<DiscordMessage> relayToGameChat;
+    private final SocketAddress address;
+    private final CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+    private final ArrayDeque<byte[]> backlog = new ArrayDeque<>();
+    private final LongAdder droppedOutbound = new LongAdder();
+    private volatile SocketChannel channel;
+    private volatile OutputStream out;
+    private volatile boolean webhook;
+    private volatile boolean closed;
+
+    public HubClient(@NotNull HubConfig config, @NotNull Consumer<DiscordMessage> relayToGameChat) {
+        this.config = config;
+        this.relayToGameChat = relayToGameChat;
+        this.address = HubProtocol.parseAddress(config.getAddress());
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<Void> start() {
+        Thread connector = new Thread(this::connectLoop, "DiscordBridge-HubClient");
+        connector.setDaemon(true);
+        connector.start();
+
+        Thread writer = new Thread(this::writeLoop, "DiscordBridge-HubWriter");
+        writer.setDaemon(true);
+        writer.start();
+        return readyFuture;
+    }
+
+    @Override
+    public boolean isReady() {
+        return out != null;
+    }
+
+    // Stamps from this process mean nothing to the hub, which times messages from when it receives them
+    @Override
+    public void sendMessage(@NotNull OutboundLane lane, @NotNull String content, long originNanos) {
+        try {
+            enqueue(HubProtocol.outbound(lane, content).toBytes());
+        } catch (IOException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to encode message for the hub");
+        }
+    }
+
+    @Override
+    public boolean hasWebhook() {
+        return webhook;
+    }
+
+    @Override
+    public void sendWebhookMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message, long originNanos) {
+        try {
+            enqueue(HubProtocol.webhook(username, playerUuid, message).toBytes());
+        } catch (IOException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to encode webhook message for the hub");
+        }
+    }
+
+    /**
+     * @return outbound messages dropped because the backlog was full
+     */
+    public long getDroppedOutbound() {
+        return droppedOutbound.sum();
+    }
+
+    /**
+     * Gives queued messages (such as the server stop event) a moment to reach the hub, then disconnects.
+     */
+    @Override
+    public void shutdown() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_DRAIN_MILLIS);
+        synchronized (backlog) {
+            closed = true;
+            backlog.notifyAll();
+            try {
+                long remaining;
+                while (!backlog.isEmpty() && out != null && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(backlog, remaining);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        disconnect();
+    }
+
+    private void enqueue(byte[] frame) {
+        synchronized (backlog) {
+            if (closed) {
+                return;
+            }
+
+            if (backlog.size() >= BACKLOG_CAPACITY) {
+                backlog.pollFirst();
+                droppedOutbound.increment();
+            }
+
+            backlog.addLast(frame);
+            backlog.notifyAll();
+        }
+    }
+
+    private void connectLoop() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!closed) {
+            try (SocketChannel connection = SocketChannel.open(HubProtocol.familyOf(address))) {
+                connection.connect(address);
+                channel = connection;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+                OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(connection));
+                if (!handshake(in, stream)) {
+                    backoff = MAX_BACKOFF_MILLIS;
+                } else {
+                    backoff = MIN_BACKOFF_MILLIS;
+                    readLoop(in);
+                }
+            } catch (IOException exception) {
+                if (!closed) {
+                    LOGGER.at(Level.WARNING).log("Lost connection to Discord hub at %s: %s", config.getAddress(), exception.getMessage());
+                }
+            } finally {
+                synchronized (backlog) {
+                    out = null;
+                    channel = null;
+                    backlog.notifyAll();
+                }
+            }
+
+            if (!closed) {
+                sleep(backoff);
+                backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+
+    private boolean handshake(@NotNull DataInputStream in, @NotNull OutputStream stream) throws IOException {
+        stream.write(new HubProtocol.FrameWriter(HubProtocol.HELLO)
+                .writeInt(HubProtocol.VERSION)
+                .writeString(config.getSecret())
+                .writeString(config.getServerName())
+                .toBytes());
+        stream.flush();
+
+        HubProtocol.Frame reply = HubProtocol.Frame.read(in);
+        if (reply.type() == HubProtocol.REJECT) {
+            String reason = reply.readString();
+            LOGGER.at(Level.SEVERE).log("Discord hub at %s rejected this server: %s", config.getAddress(), reason);
+            readyFuture.completeExceptionally(new IllegalStateException("Hub rejected connection: " + reason));
+            return false;
+        }
+
+        if (reply.type() != HubProtocol.WELCOME) {
+            throw new IOException("Unexpected hub frame " + reply.type() + " during handshake");
+        }
+
+        webhook = reply.readBoolean();
+        synchronized (backlog) {
+            out = stream;
+            backlog.notifyAll();
+        }
+
+        LOGGER.at(Level.INFO).log("Connected to Discord hub at %s", config.getAddress());
+        readyFuture.complete(null);
+        return true;
+    }
+
+    private void readLoop(@NotNull DataInputStream in) throws IOException {
+        while (!closed) {
+            HubProtocol.Frame frame = HubProtocol.Frame.read(in);
+            if (frame.type() == HubProtocol.INBOUND) {
+                relayToGameChat.accept(HubProtocol.readInbound(frame));
+            } else {
+                LOGGER.at(Level.FINE).log("Ignoring hub frame %s", frame.type());
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            byte[] frame;
+            OutputStream stream;
+            synchronized (backlog) {
+                try {
+                    while (backlog.isEmpty() || out == null) {
+                        if (closed) {
+                            return;
+                        }
+                        backlog.wait();
+                    }
+                } catch (InterruptedException exception) {
+                    return;
+                }
+
+                frame = backlog.peekFirst();
+                stream = out;
+            }
+
+            try {
+                stream.write(frame);
+                stream.flush();
+                synchronized (backlog) {
+                    // Only removed once written, so a frame cut off by a disconnect is resent
+                    if (backlog.peekFirst() == frame) {
+                        backlog.pollFirst();
+                    }
+                    backlog.notifyAll();
+                }
+            } catch (IOException exception) {
+                synchronized (backlog) {
+                    if (out == stream) {
+                        out = null;
+                    }
+                }
+                disconnect();
+            }
+        }
+    }
+
+    private void disconnect() {
+        SocketChannel current = channel;
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package net.aerh.discordbridge.discord.hub;
+
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wire format between a hub and its clients. Every frame is a big-endian {@code int} length, then a
+ * type byte and the body; strings are an {@code int} byte count followed by UTF-8.
+ *
+ * <pre>
+ * HELLO    client -> hub   version:int secret:str serverName:str
+ * WELCOME  hub -> client   webhook:bool
+ * REJECT   hub -> client   reason:str
+ * OUTBOUND client -> hub   lane:byte content:str
+ * WEBHOOK  client -> hub   username:str uuid:long,long message:str
+ * INBOUND  hub -> client   authorId:long authorName:str content:str attachments:int,str... topRole:str?
+ *                          roleColor:int? displayColor:int?
+ * </pre>
+ * Optional values are preceded by a presence flag. Clients send HELLO first and the hub answers with
+ * WELCOME or REJECT before anything else.
+ */
+final class HubProtocol {
+
+    static final int VERSION = 1;
+    static final byte HELLO = 1;
+    static final byte WELCOME = 2;
+    static final byte REJECT = 3;
+    static final byte OUTBOUND = 4;
+    static final byte WEBHOOK = 5;
+    static final byte INBOUND = 6;
+
+    /**
+     * The largest HELLO a hub reads from a peer that has not authenticated yet.
+     */
+    static final int MAX_HELLO_BYTES = 4 * 1024;
+
+    private static final int MAX_FRAME_BYTES = 1 << 20;
+    private static final String UNIX_PREFIX = "unix:";
+
+    private HubProtocol() {
+    }
+
+    /**
+     * Parses {@code host:port} or {@code unix:/path/to/socket}.
+     *
+     * @throws IllegalArgumentException if the address is malformed
+     */
+    @NotNull
+    static SocketAddress parseAddress(@NotNull String address) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(address.substring(UNIX_PREFIX.length()));
+        }
+
+        int separator = address.lastIndexOf(':');
+        if (separator <= 0 || separator == address.length() - 1) {
+            throw new IllegalArgumentException("Expected host:port or unix:/path, got " + address);
+        }
+
+        String host = address.substring(0, separator);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        return new InetSocketAddress(host, Integer.parseInt(address.substring(separator + 1)));
+    }
+
+    @NotNull
+    static StandardProtocolFamily familyOf(@NotNull SocketAddress address) {
+        return address instanceof UnixDomainSocketAddress ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET;
+    }
+
+    /**
+     * Builds one frame.
+     */
+    static final class FrameWriter {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        private final DataOutputStream body = new DataOutputStream(buffer);
+
+        FrameWriter(byte type) {
+            buffer.write(type);
+        }
+
+        @NotNull
+        FrameWriter writeInt(int value) throws IOException {
+            body.writeInt(value);
+            return this;
+        }
+
+        @NotNull
+        FrameWriter writeLong(long value) throws IOException {
+            body.writeLong(value);
+            return this;
+        }
+
+        @NotNull
+        FrameWriter writeBoolean(boolean value) throws IOException {
+            body.writeBoolean(value);
+            return this;
+        }
+
+        @NotNull
+        FrameWriter writeByte(int value) throws IOException {
+            body.writeByte(value);
+            return this;
+        }
+
+        @NotNull
+        FrameWriter writeString(@NotNull String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            body.writeInt(bytes.length);
+            body.write(bytes);
+            return this;
+        }
+
+        @NotNull
+        FrameWriter writeOptionalString(@Nullable String value) throws IOException {
+            body.writeBoolean(value != null);
+            if (value != null) {
+                writeString(value);
+            }
+            return this;
+        }
+
+        @NotNull
+        FrameWriter writeOptionalColor(@Nullable Color value) throws IOException {
+            body.writeBoolean(value != null);
+            if (value != null) {
+                body.writeInt(value.getRGB());
+            }
+            return this;
+        }
+
+        /**
+         * @return the encoded frame, length prefix included, ready to be written to any number of peers
+         */
+        @NotNull
+        byte[] toBytes() {
+            int length = buffer.size();
+            byte[] frame = new byte[Integer.BYTES + length];
+            frame[0] = (byte) (length >>> 24);
+            frame[1] = (byte) (length >>> 16);
+            frame[2] = (byte) (length >>> 8);
+            frame[3] = (byte) length;
+            System.arraycopy(buffer.toByteArray(), 0, frame, Integer.BYTES, length);
+            return frame;
+        }
+    }
+
+    /**
+     * One received frame.
+     */
+    static final class Frame {
+        private final byte type;
+        private final DataInputStream body;
+
+        private Frame(byte type, @NotNull DataInputStream body) {
+            this.type = type;
+            this.body = body;
+        }
+
+        /**
+         * Blocks for the next frame.
+         *
+         * @throws EOFException if the peer closed the connection
+         */
+        @NotNull
+        static Frame read(@NotNull DataInputStream in) throws IOException {
+            return read(in, MAX_FRAME_BYTES);
+        }
+
+        /**
+         * Blocks for the next frame, rejecting one longer than {@code maxBytes} before reading its body.
+         *
+         * @throws EOFException if the peer closed the connection
+         */
+        @NotNull
+        static Frame read(@NotNull DataInputStream in, int maxBytes) throws IOException {
+            int length = in.readInt();
+            if (length < 1 || length > maxBytes) {
+                throw new IOException("Invalid hub frame length " + length);
+            }
+
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new Frame(bytes[0], new DataInputStream(new ByteArrayInputStream(bytes, 1, length - 1)));
+        }
+
+        byte type() {
+            return type;
+        }
+
+        int readInt() throws IOException {
+            return body.readInt();
+        }
+
+        long readLong() throws IOException {
+            return body.readLong();
+        }
+
+        boolean readBoolean() throws IOException {
+            return body.readBoolean();
+        }
+
+        int readByte() throws IOException {
+            return body.readUnsignedByte();
+        }
+
+        @NotNull
+        String readString() throws IOException {
+            int length = body.readInt();
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                throw new IOException("Invalid hub string length " + length);
+            }
+
+            byte[] bytes = body.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException("Truncated hub string");
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Nullable
+        String readOptionalString() throws IOException {
+            return body.readBoolean() ? readString() : null;
+        }
+
+        @Nullable
+        Color readOptionalColor() throws IOException {
+            return body.readBoolean() ? new Color(body.readInt(), true) : null;
+        }
+    }
+
+    @NotNull
+    static FrameWriter outbound(@NotNull OutboundLane lane, @NotNull String content) throws IOException {
+        return new FrameWriter(OUTBOUND).writeByte(lane.ordinal()).writeString(content);
+    }
+
+    @NotNull
+    static FrameWriter webhook(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message) throws IOException {
+        return new FrameWriter(WEBHOOK)
+                .writeString(username)
+                .writeLong(playerUuid.getMostSignificantBits())
+                .writeLong(playerUuid.getLeastSignificantBits())
+                .writeString(message);
+    }
+
+    @NotNull
+    static FrameWriter inbound(@NotNull DiscordMessage message) throws IOException {
+        FrameWriter writer = new FrameWriter(INBOUND)
+                .writeLong(message.authorId())
+                .writeString(message.authorName())
+                .writeString(message.rawContent())
+                .writeInt(message.attachmentUrls().size());
+        for (String url : message.attachmentUrls()) {
+            writer.writeString(url);
+        }
+
+        return writer.writeOptionalString(message.topRoleName())
+                .writeOptionalColor(message.roleColor())
+                .writeOptionalColor(message.displayColor());
+    }
+
+    @NotNull
+    static DiscordMessage readInbound(@NotNull Frame frame) throws IOException {
+        long authorId = frame.readLong();
+        String authorName = frame.readString();
+        String content = frame.readString();
+        int attachmentCount = frame.readInt();
+        if (attachmentCount < 0 || attachmentCount > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid attachment count " + attachmentCount);
+        }
+
+        List<String> attachments = new ArrayList<>(attachmentCount);
+        for (int i = 0; i < attachmentCount; i++) {
+            attachments.add(frame.readString());
+        }
+
+        return new DiscordMessage(
+                authorId,
+                authorName,
+                content,
+                attachments,
+                frame.readOptionalString(),
+                frame.readOptionalColor(),
+                frame.readOptionalColor()
+        );
+    }
+}
@@ -0,0 +1,376 @@
+package net.aerh.discordbridge.discord.hub;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.aerh.discordbridge.config.HubConfig;
+import net.aerh.discordbridge.discord.DiscordGateway;
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Shares this server's Discord connection with other servers. Clients publish bot-channel and webhook
+ * messages, which are sent through the local {@link DiscordGateway}, and receive every Discord message
+ * relayed here. Each client has its own writer thread, so a slow client only delays itself.
+ * <p>
+ * Until a peer has authenticated it gets a reader thread and a small HELLO allowance only; connections
+ * beyond {@value #MAX_CONNECTIONS}, or beyond {@value #MAX_PENDING_HANDSHAKES} still handshaking, are closed
+ * as soon as they are accepted.
+ */
+public final class HubServer implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final int CLIENT_QUEUE_CAPACITY = 1024;
+    private static final long HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 100;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 5_000;
+    private static final int MAX_CONNECTIONS = 64;
+    private static final int MAX_PENDING_HANDSHAKES = 8;
+
+    private final HubConfig config;
+    private final DiscordGateway gateway;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private final LongAdder droppedInbound = new LongAdder();
+    private final LongAdder refusedConnections = new LongAdder();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger pendingHandshakes = new AtomicInteger();
+    private final SocketAddress address;
+    private ServerSocketChannel serverChannel;
+    private ScheduledExecutorService handshakeTimer;
+    // Set once this process has bound the Unix socket file, so close() never deletes someone else's
+    private boolean ownsSocketFile;
+    private volatile boolean closed;
+
+    public HubServer(@NotNull HubConfig config, @NotNull DiscordGateway gateway) {
+        this.config = config;
+        this.gateway = gateway;
+        this.address = HubProtocol.parseAddress(config.getAddress());
+    }
+
+    /**
+     * Binds the hub address and starts accepting clients.
+     */
+    public void start() throws IOException {
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            removeStaleSocket(unixAddress.getPath());
+        } else if (config.getSecret().isBlank() && address instanceof InetSocketAddress inetAddress
+                && !inetAddress.getAddress().isLoopbackAddress()) {
+            LOGGER.at(Level.WARNING).log("Hub is listening on %s without a Secret; any host that can reach it may post to Discord", address);
+        }
+
+        serverChannel = ServerSocketChannel.open(HubProtocol.familyOf(address));
+        serverChannel.bind(address);
+        ownsSocketFile = address instanceof UnixDomainSocketAddress;
+        handshakeTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordBridge-HubHandshake");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread acceptor = new Thread(this::acceptLoop, "DiscordBridge-HubAccept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.at(Level.INFO).log("Discord hub listening on %s", config.getAddress());
+    }
+
+    /**
+     * Forwards a Discord message to every connected client.
+     */
+    public void broadcast(@NotNull DiscordMessage message) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        byte[] frame;
+        try {
+            frame = HubProtocol.inbound(message).toBytes();
+        } catch (IOException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to encode Discord message for hub clients");
+            return;
+        }
+
+        for (Session session : sessions) {
+            session.send(frame);
+        }
+    }
+
+    public int getClientCount() {
+        return sessions.size();
+    }
+
+    /**
+     * @return Discord messages not forwarded because a client's queue was full
+     */
+    public long getDroppedInbound() {
+        return droppedInbound.sum();
+    }
+
+    /**
+     * @return connections closed on accept because too many clients were connected or handshaking
+     */
+    public long getRefusedConnections() {
+        return refusedConnections.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            if (ownsSocketFile && address instanceof UnixDomainSocketAddress unixAddress) {
+                Files.deleteIfExists(unixAddress.getPath());
+            }
+        } catch (IOException exception) {
+            LOGGER.at(Level.FINE).withCause(exception).log("Failed to close hub socket");
+        }
+        if (handshakeTimer != null) {
+            handshakeTimer.shutdownNow();
+        }
+
+        for (Session session : sessions) {
+            session.close();
+        }
+    }
+
+    /**
+     * Removes a socket file left behind by a previous run, which would make bind fail. Anything at the path that is
+     * not a socket is left alone, so a mistyped address cannot delete an unrelated file.
+     */
+    private static void removeStaleSocket(@NotNull Path path) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException exception) {
+            return;
+        }
+
+        // Sockets are neither regular files, directories nor links
+        if (!attributes.isOther()) {
+            throw new IOException("Hub address " + path + " exists and is not a socket");
+        }
+        Files.delete(path);
+    }
+
+    private void acceptLoop() {
+        long backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+        while (!closed) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+                // Only this thread increments the counts, so checking then incrementing cannot overshoot
+                if (connections.get() >= MAX_CONNECTIONS || pendingHandshakes.get() >= MAX_PENDING_HANDSHAKES) {
+                    refusedConnections.increment();
+                    LOGGER.at(Level.FINE).log("Refusing hub connection: too many clients connected or handshaking");
+                    channel.close();
+                    continue;
+                }
+
+                connections.incrementAndGet();
+                pendingHandshakes.incrementAndGet();
+                Session session = new Session(channel, sessionIds.incrementAndGet());
+                Thread reader = new Thread(session::run, "DiscordBridge-Hub-" + session.id);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (ClosedChannelException exception) {
+                return;
+            } catch (IOException exception) {
+                if (closed || !serverChannel.isOpen()) {
+                    return;
+                }
+
+                // Errors such as running out of file descriptors persist for a while; don't spin on them
+                LOGGER.at(Level.WARNING).withCause(exception).log("Failed to accept hub client; retrying in %sms", backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(MAX_ACCEPT_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+
+    private boolean isSecretValid(@NotNull String presented) {
+        return MessageDigest.isEqual(
+                presented.getBytes(StandardCharsets.UTF_8),
+                config.getSecret().getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private final class Session {
+        private final SocketChannel channel;
+        private final int id;
+        private final OutputStream out;
+        // Created once the client has authenticated
+        private ExecutorService writer;
+        private String name;
+        private volatile boolean handshakeExpired;
+
+        private Session(@NotNull SocketChannel channel, int id) {
+            this.channel = channel;
+            this.id = id;
+            this.out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            this.name = "#" + id;
+        }
+
+        private void run() {
+            try (channel) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                // Channel streams ignore socket read timeouts, so a client that never says hello is closed instead
+                ScheduledFuture<?> deadline = null;
+                boolean accepted;
+                try {
+                    deadline = handshakeTimer.schedule(this::expireHandshake, HANDSHAKE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    accepted = handshake(in);
+                } finally {
+                    if (deadline != null) {
+                        deadline.cancel(false);
+                    }
+                    pendingHandshakes.decrementAndGet();
+                }
+                if (!accepted) {
+                    return;
+                }
+
+                writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(CLIENT_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "DiscordBridge-HubWriter-" + id);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                // Publishes the writer to broadcasting threads
+                sessions.add(this);
+                LOGGER.at(Level.INFO).log("Hub client %s connected", name);
+                while (!closed) {
+                    handle(HubProtocol.Frame.read(in));
+                }
+            } catch (EOFException exception) {
+                LOGGER.at(Level.INFO).log("Hub client %s disconnected", name);
+            } catch (IOException exception) {
+                if (handshakeExpired) {
+                    LOGGER.at(Level.WARNING).log("Hub client %s did not complete the handshake within %sms", name, HANDSHAKE_TIMEOUT_MILLIS);
+                } else if (!closed) {
+                    LOGGER.at(Level.WARNING).withCause(exception).log("Hub client %s failed", name);
+                }
+            } catch (RejectedExecutionException exception) {
+                // Hub closed while this client was connecting
+            } finally {
+                sessions.remove(this);
+                if (writer != null) {
+                    writer.shutdownNow();
+                }
+                connections.decrementAndGet();
+            }
+        }
+
+        private void expireHandshake() {
+            handshakeExpired = true;
+            close();
+        }
+
+        private boolean handshake(@NotNull DataInputStream in) throws IOException {
+            HubProtocol.Frame hello = HubProtocol.Frame.read(in, HubProtocol.MAX_HELLO_BYTES);
+            if (hello.type() != HubProtocol.HELLO) {
+                return false;
+            }
+
+            int version = hello.readInt();
+            String secret = hello.readString();
+            name = hello.readString() + " (#" + id + ")";
+            String rejection = null;
+            if (version != HubProtocol.VERSION) {
+                rejection = "Unsupported hub protocol version " + version;
+            } else if (!isSecretValid(secret)) {
+                rejection = "Invalid secret";
+            }
+
+            if (rejection != null) {
+                LOGGER.at(Level.WARNING).log("Rejected hub client %s: %s", name, rejection);
+                writeNow(new HubProtocol.FrameWriter(HubProtocol.REJECT).writeString(rejection).toBytes());
+                return false;
+            }
+
+            writeNow(new HubProtocol.FrameWriter(HubProtocol.WELCOME).writeBoolean(gateway.hasWebhook()).toBytes());
+            return true;
+        }
+
+        private void handle(@NotNull HubProtocol.Frame frame) throws IOException {
+            switch (frame.type()) {
+                case HubProtocol.OUTBOUND -> {
+                    OutboundLane lane = OutboundLane.fromOrdinal(frame.readByte());
+                    gateway.sendMessage(lane, frame.readString());
+                }
+                case HubProtocol.WEBHOOK -> {
+                    String username = frame.readString();
+                    UUID uuid = new UUID(frame.readLong(), frame.readLong());
+                    gateway.sendWebhookMessage(username, uuid, frame.readString());
+                }
+                default -> LOGGER.at(Level.FINE).log("Ignoring hub frame %s from %s", frame.type(), name);
+            }
+        }
+
+        private void send(byte[] frame) {
+            try {
+                writer.execute(() -> {
+                    try {
+                        writeNow(frame);
+                    } catch (IOException exception) {
+                        close();
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                droppedInbound.increment();
+            }
+        }
+
+        private void writeNow(byte[] frame) throws IOException {
+            synchronized (out) {
+                out.write(frame);
+                out.flush();
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+}
@@ -6,11 +6,12 @@ import java.awt.Color;
 import java.util.Collections;
 import java.util.List;
 
-public record DiscordMessage(String authorName, String rawContent, List<String> attachmentUrls,
+public record DiscordMessage(long authorId, String authorName, String rawContent, List<String> attachmentUrls,
                              @Nullable String topRoleName, @Nullable Color roleColor,
                              @Nullable Color displayColor) {
 
     public DiscordMessage(
+            long authorId,
             @NotNull String authorName,
             @NotNull String rawContent,
             @NotNull List<String> attachmentUrls,
@@ -18,6 +19,7 @@ public record DiscordMessage(String authorName, String rawContent, List<String>
             @Nullable Color roleColor,
             @Nullable Color displayColor
     ) {
+        this.authorId = authorId;
         this.authorName = authorName;
         this.rawContent = rawContent;
         this.attachmentUrls = Collections.unmodifiableList(attachmentUrls);
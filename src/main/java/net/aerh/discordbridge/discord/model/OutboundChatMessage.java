@@ -0,0 +1,18 @@
+package net.aerh.discordbridge.discord.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A game chat line captured on the event thread, before any sanitizing or templating.
+ *
+ * @param senderName    the sender's username
+ * @param senderUuid    the sender's UUID
+ * @param rawContent    the chat content as typed
+ * @param timestamp     when the line was captured, in epoch milliseconds
+ * @param capturedNanos when the line was captured, from {@link System#nanoTime()}, for latency tracing
+ */
+public record OutboundChatMessage(@NotNull String senderName, @NotNull UUID senderUuid,
+                                  @NotNull String rawContent, long timestamp, long capturedNanos) {
+}
@@ -0,0 +1,174 @@
+package net.aerh.discordbridge.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the bridge's metrics. Components keep their own {@code LongAdder}s and
+ * {@link LatencyHistogram}s and register a view of them here, so recording stays a plain increment and
+ * the registry is only touched when metrics are read.
+ */
+public final class BridgeMetrics {
+
+    private static final String PREFIX = "discordbridge_";
+
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a value that only ever grows.
+     *
+     * @param labels alternating label names and values
+     */
+    public void counter(@NotNull String name, @NotNull String help, @NotNull LongSupplier source, @NotNull String... labels) {
+        metrics.add(new Metric(PREFIX + name, help, Type.COUNTER, labels, source, null));
+    }
+
+    /**
+     * Registers a value that can go up and down, such as a queue depth.
+     *
+     * @param labels alternating label names and values
+     */
+    public void gauge(@NotNull String name, @NotNull String help, @NotNull LongSupplier source, @NotNull String... labels) {
+        metrics.add(new Metric(PREFIX + name, help, Type.GAUGE, labels, source, null));
+    }
+
+    /**
+     * @param name   the metric name, ending in {@code _seconds}
+     * @param labels alternating label names and values
+     */
+    public void histogram(@NotNull String name, @NotNull String help, @NotNull LatencyHistogram histogram, @NotNull String... labels) {
+        metrics.add(new Metric(PREFIX + name, help, Type.HISTOGRAM, labels, null, histogram));
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     */
+    public void writePrometheus(@NotNull StringBuilder out) {
+        Map<String, List<Metric>> byName = new LinkedHashMap<>();
+        for (Metric metric : metrics) {
+            byName.computeIfAbsent(metric.name, name -> new ArrayList<>()).add(metric);
+        }
+
+        for (List<Metric> family : byName.values()) {
+            Metric first = family.getFirst();
+            out.append("# HELP ").append(first.name).append(' ').append(first.help).append('\n');
+            out.append("# TYPE ").append(first.name).append(' ').append(first.type.prometheusName).append('\n');
+            for (Metric metric : family) {
+                if (metric.type == Type.HISTOGRAM) {
+                    writeHistogram(out, metric);
+                } else {
+                    out.append(metric.name).append(metric.labelBlock("")).append(' ').append(metric.source.getAsLong()).append('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a flat view of every value, keyed by metric name and label values; histograms contribute their
+     * count, total seconds, bucket-resolution p50/p99 and the maximum in milliseconds
+     */
+    @NotNull
+    public Map<String, Object> snapshot() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Metric metric : metrics) {
+            String key = metric.flatName();
+            if (metric.type == Type.HISTOGRAM) {
+                LatencyHistogram histogram = metric.histogram;
+                values.put(key + ".count", histogram.getCount());
+                values.put(key + ".sum_seconds", histogram.getSumNanos() / 1e9);
+                values.put(key + ".p50_millis", histogram.getQuantileUpperBoundMillis(0.5));
+                values.put(key + ".p99_millis", histogram.getQuantileUpperBoundMillis(0.99));
+                values.put(key + ".max_millis", TimeUnit.NANOSECONDS.toMillis(histogram.getMaxNanos()));
+            } else {
+                values.put(key, metric.source.getAsLong());
+            }
+        }
+        return values;
+    }
+
+    private static void writeHistogram(@NotNull StringBuilder out, @NotNull Metric metric) {
+        long[] counts = metric.histogram.getBucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String bound = i < LatencyHistogram.BOUNDS_MILLIS.length
+                    ? Double.toString(LatencyHistogram.BOUNDS_MILLIS[i] / 1000.0)
+                    : "+Inf";
+            out.append(metric.name).append("_bucket").append(metric.labelBlock("le=\"" + bound + "\""))
+                    .append(' ').append(cumulative).append('\n');
+        }
+
+        out.append(metric.name).append("_sum").append(metric.labelBlock(""))
+                .append(' ').append(metric.histogram.getSumNanos() / 1e9).append('\n');
+        out.append(metric.name).append("_count").append(metric.labelBlock(""))
+                .append(' ').append(cumulative).append('\n');
+    }
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        private final String prometheusName;
+
+        Type(@NotNull String prometheusName) {
+            this.prometheusName = prometheusName;
+        }
+    }
+
+    private record Metric(
+            @NotNull String name,
+            @NotNull String help,
+            @NotNull Type type,
+            @NotNull String[] labels,
+            LongSupplier source,
+            LatencyHistogram histogram
+    ) {
+        private Metric {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+            }
+        }
+
+        @NotNull
+        private String labelBlock(@NotNull String extra) {
+            if (labels.length == 0 && extra.isEmpty()) {
+                return "";
+            }
+
+            StringBuilder block = new StringBuilder("{");
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) {
+                    block.append(',');
+                }
+                block.append(labels[i]).append("=\"")
+                        .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\""))
+                        .append('"');
+            }
+
+            if (!extra.isEmpty()) {
+                if (labels.length > 0) {
+                    block.append(',');
+                }
+                block.append(extra);
+            }
+            return block.append('}').toString();
+        }
+
+        @NotNull
+        private String flatName() {
+            StringBuilder flat = new StringBuilder(name.substring(PREFIX.length()));
+            for (int i = 1; i < labels.length; i += 2) {
+                flat.append('.').append(labels[i]);
+            }
+            return flat.toString();
+        }
+    }
+}
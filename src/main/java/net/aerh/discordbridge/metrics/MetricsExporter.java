@@ -0,0 +1,192 @@
+package net.aerh.discordbridge.metrics;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.aerh.discordbridge.config.MetricsConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Publishes {@link BridgeMetrics} as a JMX MBean and, if a port is configured, as a Prometheus text
+ * endpoint at {@code /metrics}. Values are read from the components only when scraped.
+ */
+public final class MetricsExporter implements AutoCloseable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final String OBJECT_NAME = "net.aerh.discordbridge:type=Metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final BridgeMetrics metrics;
+    @Nullable
+    private ObjectName registeredName;
+    @Nullable
+    private HttpServer httpServer;
+    @Nullable
+    private ExecutorService httpExecutor;
+
+    public MetricsExporter(@NotNull BridgeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void start(@NotNull MetricsConfig config) {
+        if (config.isJmxEnabled()) {
+            registerMBean();
+        }
+
+        if (config.getHttpPort() > 0) {
+            startHttpServer(config.getHttpBindAddress(), config.getHttpPort());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (JMException exception) {
+                LOGGER.at(Level.FINE).withCause(exception).log("Failed to unregister metrics MBean");
+            }
+            registeredName = null;
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                // Left behind by a previous load of the plugin in this JVM
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new MetricsMBean(metrics), name);
+            registeredName = name;
+        } catch (JMException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to register metrics MBean");
+        }
+    }
+
+    private void startHttpServer(@NotNull String bindAddress, int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "DiscordBridge-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.createContext("/metrics", this::handleScrape);
+            server.setExecutor(executor);
+            server.start();
+            this.httpServer = server;
+            this.httpExecutor = executor;
+            LOGGER.at(Level.INFO).log("Serving metrics on http://%s:%s/metrics", bindAddress, port);
+        } catch (IOException | IllegalArgumentException exception) {
+            LOGGER.at(Level.WARNING).withCause(exception).log("Failed to start metrics endpoint on %s:%s", bindAddress, port);
+        }
+    }
+
+    private void handleScrape(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            StringBuilder body = new StringBuilder(4096);
+            metrics.writePrometheus(body);
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Exposes every metric as a read-only attribute.
+     */
+    private record MetricsMBean(@NotNull BridgeMetrics metrics) implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object value = metrics.snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Object> snapshot = metrics.snapshot();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                Object value = snapshot.get(attribute);
+                if (value != null) {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            // Read-only bean: there are no operations to invoke
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Object> snapshot = metrics.snapshot();
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[snapshot.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+                String type = entry.getValue() instanceof Double ? Double.class.getName() : Long.class.getName();
+                attributes[i++] = new MBeanAttributeInfo(entry.getKey(), type, entry.getKey(), true, false, false);
+            }
+
+            return new MBeanInfo(MetricsMBean.class.getName(), "Discord bridge metrics", attributes, null, null, null);
+        }
+    }
+}
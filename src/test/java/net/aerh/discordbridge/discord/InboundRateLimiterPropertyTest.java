@@ -0,0 +1,195 @@
+package net.aerh.discordbridge.discord;
+
+import net.aerh.discordbridge.config.InboundConfig;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.Tuple;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.statistics.Statistics;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the open-addressing {@link InboundRateLimiter} against a {@link HashMap} of buckets that never forgets an
+ * author. Forgetting an author whose bucket is full is invisible to callers, so both must agree on every call.
+ * Runs stay under the ten minute retention of suppression counts, which would otherwise be dropped on rehash.
+ */
+class InboundRateLimiterPropertyTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_CALLS = 100;
+    private static final int MAX_CALLS = 2_000;
+    private static final long MAX_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long SNOWFLAKE_BASE = 1_100_000_000_000_000_000L;
+
+    @Property(tries = 300)
+    void matchesHashMapModel(
+            @ForAll @IntRange(min = 1, max = 10) int burst,
+            @ForAll @IntRange(min = 1, max = 600) int authorPerMinute,
+            @ForAll @IntRange(min = 0, max = 50) int globalPerSecond,
+            @ForAll boolean collapse,
+            @ForAll long start,
+            @ForAll("calls") List<Call> calls
+    ) throws ReflectiveOperationException {
+        InboundConfig config = new InboundConfig();
+        set(config, "authorBurst", burst);
+        set(config, "authorMessagesPerMinute", authorPerMinute);
+        set(config, "globalMessagesPerSecond", globalPerSecond);
+        set(config, "floodAction", collapse ? "Collapse" : "Drop");
+
+        InboundRateLimiter limiter = new InboundRateLimiter(() -> config);
+        Model model = new Model(burst, authorPerMinute, globalPerSecond, collapse);
+        long now = start;
+        int maxTracked = 0;
+        for (Call call : calls) {
+            now += call.gapNanos();
+            assertEquals(model.tryAcquire(call.authorId(), now), limiter.tryAcquire(call.authorId(), now));
+            maxTracked = Math.max(maxTracked, limiter.getTrackedAuthors());
+        }
+
+        assertEquals(model.droppedByAuthor, limiter.getDroppedByAuthor());
+        assertEquals(model.droppedByGlobal, limiter.getDroppedByGlobal());
+        assertEquals(model.suppressionNotices, limiter.getSuppressionNotices());
+        assertTrue(limiter.getTrackedAuthors() <= model.buckets.size());
+        assertTrue(limiter.getTrackedAuthors() >= model.mustTrack(now));
+
+        // The table only holds more than half its initial capacity after it has rehashed and grown
+        Statistics.label("grew").collect(maxTracked > INITIAL_CAPACITY / 2);
+        Statistics.label("grew").coverage(coverage -> coverage.check(true).percentage(percent -> percent >= 20));
+    }
+
+    @Provide
+    Arbitrary<List<Call>> calls() {
+        Arbitrary<Long> index = Arbitraries.longs().between(1, 400);
+        // Ids that differ only in their high or snowflake timestamp bits probe the hash spreading; 0 is the
+        // table's empty marker
+        Arbitrary<Long> authorId = Arbitraries.frequencyOf(
+                Tuple.of(3, index),
+                Tuple.of(2, index.map(i -> i << 40)),
+                Tuple.of(3, index.map(i -> SNOWFLAKE_BASE + (i << 22))),
+                Tuple.of(1, Arbitraries.just(0L))
+        );
+        Arbitrary<Long> gap = Arbitraries.frequencyOf(
+                Tuple.of(2, Arbitraries.just(0L)),
+                Tuple.of(5, Arbitraries.longs().between(0, TimeUnit.MILLISECONDS.toNanos(20))),
+                Tuple.of(1, Arbitraries.longs().between(0, MAX_GAP_NANOS))
+        );
+        return Combinators.combine(authorId, gap).as(Call::new).list().ofMinSize(MIN_CALLS).ofMaxSize(MAX_CALLS);
+    }
+
+    private static void set(@NotNull Object target, @NotNull String field, @NotNull Object value) throws ReflectiveOperationException {
+        Field declared = target.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(target, value);
+    }
+
+    private record Call(long authorId, long gapNanos) {
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+        private int suppressed;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    /**
+     * The limiter's arithmetic, step for step, over a plain map.
+     */
+    private static final class Model {
+        private final Map<Long, Bucket> buckets = new HashMap<>();
+        private final int burst;
+        private final double refillPerNano;
+        private final int globalPerSecond;
+        private final boolean collapse;
+        private double globalTokens = -1;
+        private long globalRefilledAt;
+        private long droppedByAuthor;
+        private long droppedByGlobal;
+        private long suppressionNotices;
+
+        private Model(int burst, int authorPerMinute, int globalPerSecond, boolean collapse) {
+            this.burst = burst;
+            this.refillPerNano = (double) authorPerMinute / MINUTE_NANOS;
+            this.globalPerSecond = globalPerSecond;
+            this.collapse = collapse;
+        }
+
+        private int tryAcquire(long authorId, long now) {
+            Bucket bucket = buckets.computeIfAbsent(authorId, id -> new Bucket(burst, now));
+            bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.refilledAt) * refillPerNano);
+            bucket.refilledAt = now;
+
+            boolean authorAllowed = bucket.tokens >= 1;
+            boolean globalAllowed = !authorAllowed || tryGlobal(now);
+            if (!authorAllowed || !globalAllowed) {
+                if (authorAllowed) {
+                    droppedByGlobal++;
+                } else {
+                    droppedByAuthor++;
+                }
+                if (collapse) {
+                    bucket.suppressed++;
+                }
+                return InboundRateLimiter.REJECTED;
+            }
+
+            bucket.tokens -= 1;
+            int count = bucket.suppressed;
+            if (count > 0) {
+                bucket.suppressed = 0;
+                suppressionNotices++;
+            }
+            return count;
+        }
+
+        private boolean tryGlobal(long now) {
+            if (globalPerSecond <= 0) {
+                return true;
+            }
+
+            if (globalTokens < 0) {
+                globalTokens = globalPerSecond;
+            } else {
+                globalTokens = Math.min(globalPerSecond, globalTokens + (double) (now - globalRefilledAt) * globalPerSecond / SECOND_NANOS);
+            }
+            globalRefilledAt = now;
+
+            if (globalTokens < 1) {
+                return false;
+            }
+
+            globalTokens -= 1;
+            return true;
+        }
+
+        // Authors the limiter may not have forgotten: those still refilling or owed a suppression notice
+        private int mustTrack(long now) {
+            int count = 0;
+            for (Bucket bucket : buckets.values()) {
+                if (bucket.tokens + (now - bucket.refilledAt) * refillPerNano < burst || bucket.suppressed > 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package net.aerh.discordbridge.discord;
+
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.Tuple;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the single-pass {@link MessageSanitizer} against the regex implementation it replaced. The outputs must
+ * match, except that role mentions are now neutralized as {@code <@& } instead of {@code <@ &} and channel
+ * mentions as {@code <# }.
+ */
+class MessageSanitizerPropertyTest {
+
+    private static final List<String> MENTIONS = List.of(
+            "@everyone", "@here", "@", "<@", "<@!", "<@&", "<#", "<", ">", "&", "#", "everyone", "here", "123456789"
+    );
+    private static final List<String> MARKDOWN = List.of(
+            "**", "*", "__", "_", "~~", "`", "```", "||", "> ", "# ", "-# ", "[link](https://example.com)", "\\"
+    );
+    private static final List<String> EMOJI = List.of(
+            ":smile:", "<:blob:123>", "<a:wave:456>", "😀", "👍🏽", "\u2764\uFE0F", "\u200B"
+    );
+    private static final List<String> WHITESPACE = List.of(
+            " ", "  ", "\t", "\n", "\r\n", "\u000B", "\f", "\u0000", "\u001F", "\u00A0", "\u2003", "\u3000"
+    );
+
+    @Property(tries = 5_000)
+    void outgoingWithoutMentionsMatchesRegex(@ForAll("messages") String message) {
+        assertEquals(LegacySanitizer.sanitizeOutgoing(message, true), MessageSanitizer.sanitizeOutgoing(message, true));
+    }
+
+    @Property(tries = 5_000)
+    void outgoingMatchesRegexApartFromMentionFix(@ForAll("messages") String message) {
+        String sanitized = MessageSanitizer.sanitizeOutgoing(message, false);
+        assertEquals(LegacySanitizer.sanitizeOutgoing(message, false), undoMentionFix(sanitized));
+    }
+
+    @Property(tries = 5_000)
+    void outgoingMatchesRegexExactlyWithoutRoleOrChannelMentions(@ForAll("messages") String message) {
+        String withoutFixedMentions = message;
+        while (withoutFixedMentions.contains("<#") || withoutFixedMentions.contains("<@&")) {
+            withoutFixedMentions = withoutFixedMentions.replace("<#", "").replace("<@&", "");
+        }
+        assertEquals(
+                LegacySanitizer.sanitizeOutgoing(withoutFixedMentions, false),
+                MessageSanitizer.sanitizeOutgoing(withoutFixedMentions, false)
+        );
+    }
+
+    @Property(tries = 5_000)
+    void preventMentionsMatchesRegexApartFromMentionFix(@ForAll("messages") String message) {
+        String prevented = MessageSanitizer.preventMentions(message);
+        assertEquals(LegacySanitizer.preventMentions(message), undoMentionFix(prevented));
+    }
+
+    @Property(tries = 5_000)
+    void incomingMatchesRegex(@ForAll("messages") String content, @ForAll("attachments") List<String> attachments) {
+        DiscordMessage message = new DiscordMessage(1L, "Author", content, attachments, null, null, null);
+        assertEquals(LegacySanitizer.sanitizeIncoming(message), MessageSanitizer.sanitizeIncoming(message));
+    }
+
+    @Example
+    void roleMentionIsNeutralizedAfterAmpersand() {
+        assertEquals("ping <@& 123>", MessageSanitizer.sanitizeOutgoing("ping <@&123>", false));
+    }
+
+    @Example
+    void channelMentionIsNeutralized() {
+        assertEquals("see <# 123>", MessageSanitizer.sanitizeOutgoing("see <#123>", false));
+    }
+
+    @Provide
+    Arbitrary<String> messages() {
+        Arbitrary<String> fragment = Arbitraries.frequencyOf(
+                Tuple.of(4, Arbitraries.of(MENTIONS)),
+                Tuple.of(2, Arbitraries.of(MARKDOWN)),
+                Tuple.of(2, Arbitraries.of(EMOJI)),
+                Tuple.of(4, Arbitraries.of(WHITESPACE)),
+                Tuple.of(3, Arbitraries.strings().alpha().numeric().ofMaxLength(6)),
+                Tuple.of(1, Arbitraries.strings().all().ofMaxLength(3))
+        );
+        return fragment.list().ofMaxSize(24).map(fragments -> String.join("", fragments));
+    }
+
+    @Provide
+    Arbitrary<List<String>> attachments() {
+        return Arbitraries.of("https://cdn.example.com/a.png", "https://cdn.example.com/b c.txt", "\t", "")
+                .list()
+                .ofMaxSize(3);
+    }
+
+    // Maps the new role and channel mention output back to what the regex implementation produced
+    @NotNull
+    private static String undoMentionFix(@NotNull String sanitized) {
+        return sanitized.replace("<@& ", "<@ &").replace("<# ", "<#");
+    }
+
+    /**
+     * The regex and replace based sanitizer as it was before the single-pass rewrite.
+     */
+    private static final class LegacySanitizer {
+
+        private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+        @NotNull
+        static String sanitizeOutgoing(@NotNull String original, boolean allowMentions) {
+            String value = WHITESPACE_PATTERN.matcher(original).replaceAll(" ").trim();
+
+            if (!allowMentions) {
+                value = preventMentions(value);
+            }
+
+            return value;
+        }
+
+        @NotNull
+        static String sanitizeIncoming(@NotNull DiscordMessage message) {
+            StringBuilder builder = new StringBuilder();
+
+            if (!message.rawContent().isBlank()) {
+                builder.append(message.rawContent());
+            }
+
+            for (String attachment : message.attachmentUrls()) {
+                if (!builder.isEmpty()) {
+                    builder.append(' ');
+                }
+                builder.append("(attachment: ").append(attachment).append(')');
+            }
+
+            return WHITESPACE_PATTERN.matcher(builder.toString()).replaceAll(" ").trim();
+        }
+
+        @NotNull
+        static String preventMentions(@NotNull String value) {
+            String result = value.replace("@everyone", "@ everyone").replace("@here", "@ here");
+            result = result.replace("<@", "<@ ");
+            result = result.replace("<@&", "<@& ");
+            return result;
+        }
+    }
+}
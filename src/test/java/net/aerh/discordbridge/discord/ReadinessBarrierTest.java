@@ -0,0 +1,135 @@
+package net.aerh.discordbridge.discord;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadinessBarrierTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int MESSAGES_PER_PRODUCER = 2_000;
+    private static final int BURST = 50;
+
+    @RepeatedTest(20)
+    void deliversEveryProducersMessagesOnceAndInOrderWhileOpening() throws Exception {
+        Queue<int[]> delivered = new ConcurrentLinkedQueue<>();
+        AtomicInteger inSink = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        ReadinessBarrier<int[]> barrier = new ReadinessBarrier<>(Integer.MAX_VALUE, 0, message -> {
+            if (inSink.incrementAndGet() != 1) {
+                overlaps.incrementAndGet();
+            }
+            // Widens the window in which another thread could send ahead of this message
+            Thread.yield();
+            delivered.add(message);
+            inSink.decrementAndGet();
+        });
+
+        CyclicBarrier start = new CyclicBarrier(PRODUCERS + 1);
+        CountDownLatch done = new CountDownLatch(PRODUCERS);
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            int id = producer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int sequence = 0; sequence < MESSAGES_PER_PRODUCER; sequence++) {
+                        barrier.offer(new int[]{id, sequence});
+                        // Bursts with pauses let the backlog run dry mid-stream, so the barrier opens while
+                        // producers are still offering, even on one core
+                        if (sequence % BURST == BURST - 1) {
+                            Thread.sleep(1);
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        start.await();
+        // Open part way through, while every producer is still offering
+        while (delivered.isEmpty() && barrier.getBacklog() < PRODUCERS * MESSAGES_PER_PRODUCER / 4) {
+            Thread.yield();
+        }
+        barrier.open();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        assertEquals(PRODUCERS * MESSAGES_PER_PRODUCER, delivered.size());
+        assertEquals(0, barrier.getBacklog());
+        int[] next = new int[PRODUCERS];
+        for (int[] message : delivered) {
+            assertEquals(next[message[0]], message[1], "producer " + message[0] + " out of order");
+            next[message[0]]++;
+        }
+        assertEquals(0, overlaps.get(), "sink called by two threads at once");
+    }
+
+    @Test
+    void holdsUntilOpenedThenPassesThrough() {
+        List<String> delivered = new ArrayList<>();
+        ReadinessBarrier<String> barrier = new ReadinessBarrier<>(8, 0, delivered::add);
+
+        barrier.offer("first");
+        barrier.offer("second");
+        assertTrue(delivered.isEmpty());
+        assertFalse(barrier.isOpen());
+
+        assertEquals(2, barrier.open());
+        barrier.offer("third");
+
+        assertEquals(List.of("first", "second", "third"), delivered);
+        assertEquals(2, barrier.getReleased());
+        assertEquals(0, barrier.open());
+    }
+
+    @Test
+    void dropsNewestWhenFull() {
+        List<String> delivered = new ArrayList<>();
+        ReadinessBarrier<String> barrier = new ReadinessBarrier<>(2, 0, delivered::add);
+
+        assertTrue(barrier.offer("start"));
+        assertTrue(barrier.offer("join"));
+        assertFalse(barrier.offer("chat"));
+        barrier.open();
+
+        assertEquals(List.of("start", "join"), delivered);
+        assertEquals(1, barrier.getDropped());
+    }
+
+    @Test
+    void keepsOrderWhenSinkOffersAgain() {
+        List<String> delivered = new ArrayList<>();
+        AtomicReference<ReadinessBarrier<String>> holder = new AtomicReference<>();
+        holder.set(new ReadinessBarrier<>(8, 0, message -> {
+            delivered.add(message);
+            if (message.equals("first")) {
+                holder.get().offer("follow-up");
+            }
+        }));
+
+        ReadinessBarrier<String> barrier = holder.get();
+        barrier.offer("first");
+        barrier.offer("second");
+        barrier.open();
+
+        assertEquals(List.of("first", "second", "follow-up"), delivered);
+    }
+}
@@ -0,0 +1,177 @@
+package net.aerh.discordbridge.discord.hub;
+
+import net.aerh.discordbridge.config.HubConfig;
+import net.aerh.discordbridge.discord.DiscordGateway;
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a hub and its clients over a Unix socket in a temporary directory.
+ */
+class HubLoopbackTest {
+
+    private static final String SECRET = "correct horse";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @TempDir
+    Path directory;
+
+    private final RecordingGateway gateway = new RecordingGateway();
+    private HubServer server;
+    private HubClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void relaysClientMessagesToTheHubsGateway() throws Exception {
+        startServer();
+        client = new HubClient(config(SECRET), message -> { });
+        client.start().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        UUID uuid = UUID.randomUUID();
+        client.sendMessage(OutboundLane.CHAT, "plain line");
+        client.sendWebhookMessage("Steve", uuid, "webhook line");
+
+        assertEquals("CHAT plain line", gateway.sent.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("Steve " + uuid + " webhook line", gateway.sent.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(client.hasWebhook());
+    }
+
+    @Test
+    void broadcastsDiscordMessagesToClients() throws Exception {
+        startServer();
+        BlockingQueue<DiscordMessage> received = new LinkedBlockingQueue<>();
+        client = new HubClient(config(SECRET), received::add);
+        client.start().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        awaitClients(1);
+
+        DiscordMessage message = new DiscordMessage(42L, "alice", "hello", List.of("https://a"), null, null, null);
+        server.broadcast(message);
+
+        assertEquals(message, received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsAClientWithTheWrongSecret() throws Exception {
+        startServer();
+        client = new HubClient(config("wrong"), message -> { });
+        CompletableFuture<Void> ready = client.start();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> ready.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(0, server.getClientCount());
+    }
+
+    @Test
+    void closesAConnectionWhoseHelloIsTooLarge() throws Exception {
+        startServer();
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(directory.resolve("hub.sock")));
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1)
+                    .putInt(HubProtocol.MAX_HELLO_BYTES + 1)
+                    .put(HubProtocol.HELLO)
+                    .flip();
+            channel.write(header);
+
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            assertThrows(EOFException.class, in::readInt);
+        }
+        assertEquals(0, server.getClientCount());
+    }
+
+    private void startServer() throws IOException, ReflectiveOperationException {
+        server = new HubServer(config(SECRET), gateway);
+        server.start();
+    }
+
+    private void awaitClients(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (server.getClientCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.getClientCount());
+    }
+
+    @NotNull
+    private HubConfig config(@NotNull String secret) throws ReflectiveOperationException {
+        HubConfig config = new HubConfig();
+        set(config, "address", "unix:" + directory.resolve("hub.sock"));
+        set(config, "secret", secret);
+        return config;
+    }
+
+    private static void set(@NotNull Object target, @NotNull String field, @NotNull Object value) throws ReflectiveOperationException {
+        Field declared = target.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(target, value);
+    }
+
+    private static final class RecordingGateway implements DiscordGateway {
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        @NotNull
+        public CompletableFuture<Void> start() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void sendMessage(@NotNull OutboundLane lane, @NotNull String content, long originNanos) {
+            sent.add(lane + " " + content);
+        }
+
+        @Override
+        public boolean hasWebhook() {
+            return true;
+        }
+
+        @Override
+        public void sendWebhookMessage(@NotNull String username, @NotNull UUID playerUuid, @NotNull String message, long originNanos) {
+            sent.add(username + " " + playerUuid + " " + message);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
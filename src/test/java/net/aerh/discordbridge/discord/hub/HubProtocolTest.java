@@ -0,0 +1,105 @@
+package net.aerh.discordbridge.discord.hub;
+
+import net.aerh.discordbridge.discord.OutboundLane;
+import net.aerh.discordbridge.discord.model.DiscordMessage;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HubProtocolTest {
+
+    @Test
+    void roundTripsOutbound() throws IOException {
+        HubProtocol.Frame frame = decode(HubProtocol.outbound(OutboundLane.SERVER_LIFECYCLE, "Server started ✅").toBytes());
+
+        assertEquals(HubProtocol.OUTBOUND, frame.type());
+        assertEquals(OutboundLane.SERVER_LIFECYCLE, OutboundLane.fromOrdinal(frame.readByte()));
+        assertEquals("Server started ✅", frame.readString());
+    }
+
+    @Test
+    void roundTripsWebhook() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        HubProtocol.Frame frame = decode(HubProtocol.webhook("Steve", uuid, "hello").toBytes());
+
+        assertEquals(HubProtocol.WEBHOOK, frame.type());
+        assertEquals("Steve", frame.readString());
+        assertEquals(uuid, new UUID(frame.readLong(), frame.readLong()));
+        assertEquals("hello", frame.readString());
+    }
+
+    @Test
+    void roundTripsInboundWithOptionalValues() throws IOException {
+        DiscordMessage message = new DiscordMessage(42L, "alice", "hi there", List.of("https://a", "https://b"),
+                "Moderator", new Color(0x12, 0x34, 0x56), new Color(0xAB, 0xCD, 0xEF));
+
+        assertEquals(message, HubProtocol.readInbound(decode(HubProtocol.inbound(message).toBytes())));
+    }
+
+    @Test
+    void roundTripsInboundWithoutOptionalValues() throws IOException {
+        DiscordMessage message = new DiscordMessage(7L, "bob", "", List.of(), null, null, null);
+
+        assertEquals(message, HubProtocol.readInbound(decode(HubProtocol.inbound(message).toBytes())));
+    }
+
+    @Test
+    void readsConsecutiveFramesFromOneStream() throws IOException {
+        byte[] first = HubProtocol.outbound(OutboundLane.CHAT, "one").toBytes();
+        byte[] second = new HubProtocol.FrameWriter(HubProtocol.REJECT).writeString("two").toBytes();
+        byte[] both = new byte[first.length + second.length];
+        System.arraycopy(first, 0, both, 0, first.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(both));
+
+        HubProtocol.Frame frame = HubProtocol.Frame.read(in);
+        frame.readByte();
+        assertEquals("one", frame.readString());
+        frame = HubProtocol.Frame.read(in);
+        assertEquals(HubProtocol.REJECT, frame.type());
+        assertEquals("two", frame.readString());
+    }
+
+    @Test
+    void rejectsHelloOverItsLimitBeforeReadingTheBody() throws IOException {
+        byte[] hello = new HubProtocol.FrameWriter(HubProtocol.HELLO)
+                .writeInt(HubProtocol.VERSION)
+                .writeString("x".repeat(HubProtocol.MAX_HELLO_BYTES))
+                .writeString("server")
+                .toBytes();
+
+        assertThrows(IOException.class, () -> HubProtocol.Frame.read(stream(hello), HubProtocol.MAX_HELLO_BYTES));
+        assertEquals(HubProtocol.HELLO, HubProtocol.Frame.read(stream(hello)).type());
+    }
+
+    @Test
+    void rejectsInvalidFrameLengths() {
+        assertThrows(IOException.class, () -> HubProtocol.Frame.read(stream(new byte[]{0, 0, 0, 0})));
+        assertThrows(IOException.class, () -> HubProtocol.Frame.read(stream(new byte[]{0x7F, -1, -1, -1, HubProtocol.HELLO})));
+        assertThrows(IOException.class, () -> HubProtocol.Frame.read(stream(new byte[]{-1, -1, -1, -1})));
+    }
+
+    @Test
+    void rejectsTruncatedStrings() throws IOException {
+        // Claims a 100 byte string inside a frame that holds only 4 more bytes
+        byte[] frame = new HubProtocol.FrameWriter(HubProtocol.REJECT).writeInt(100).writeInt(0).toBytes();
+
+        assertThrows(IOException.class, () -> decode(frame).readString());
+    }
+
+    private static HubProtocol.Frame decode(byte[] bytes) throws IOException {
+        return HubProtocol.Frame.read(stream(bytes));
+    }
+
+    private static DataInputStream stream(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}